@@ -1,11 +1,21 @@
 package com.expresscart.pages;
 
+import com.expresscart.utils.BrowserEvents;
+import com.expresscart.utils.LocatorProfiler;
+import com.expresscart.utils.PageActionEvent;
+import com.expresscart.utils.ProfilingElementLocatorFactory;
+import com.expresscart.utils.RouteRecorder;
+import com.expresscart.utils.StaticRendering;
+import com.expresscart.utils.TestLogger;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Clase base para todos los Page Objects
@@ -15,15 +25,28 @@ public class BasePage {
     protected WebDriver driver;
     protected WebDriverWait wait;
     protected JavascriptExecutor js;
+    protected final Logger log = TestLogger.getLogger(getClass());
     
     // URL base de la aplicación
-    private static final String BASE_URL = "http://localhost:1111";
+    public static final String BASE_URL = "http://localhost:1111";
+
+    protected final String baseUrl;
 
     public BasePage(WebDriver driver) {
+        this(driver, BASE_URL);
+    }
+
+    /**
+     * Crea el Page Object para una instancia de expressCart distinta de la habitual
+     * @param driver WebDriver del test
+     * @param baseUrl URL base de la instancia (ej: "http://localhost:1112")
+     */
+    public BasePage(WebDriver driver, String baseUrl) {
         this.driver = driver;
+        this.baseUrl = baseUrl;
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
         this.js = (JavascriptExecutor) driver;
-        PageFactory.initElements(driver, this);
+        PageFactory.initElements(new ProfilingElementLocatorFactory(driver), this);
     }
 
     /**
@@ -31,7 +54,11 @@ public class BasePage {
      * @param path Ruta relativa a la URL base
      */
     protected void navigateTo(String path) {
-        driver.get(BASE_URL + path);
+        primitive("navigateTo", path, () -> {
+            RouteRecorder.harvest(driver);
+            driver.get(baseUrl + path);
+            StaticRendering.inject(driver);
+        });
     }
 
     /**
@@ -39,18 +66,22 @@ public class BasePage {
      * @param element Elemento web a clickear
      */
     protected void clickElement(WebElement element) {
-        try {
-            wait.until(ExpectedConditions.elementToBeClickable(element));
-            element.click();
-        } catch (StaleElementReferenceException e) {
-            // Si el elemento se vuelve obsoleto, intentamos encontrarlo de nuevo
-            WebElement refreshedElement = wait.until(ExpectedConditions.refreshed(
-                    ExpectedConditions.elementToBeClickable(element)));
-            refreshedElement.click();
-        } catch (ElementClickInterceptedException e) {
-            // Si el elemento está interceptado, usamos JavaScript para clickear
-            js.executeScript("arguments[0].click();", element);
-        }
+        primitive("clickElement", element, () -> {
+            // El click puede abandonar el documento actual
+            RouteRecorder.harvest(driver);
+            try {
+                wait.until(ExpectedConditions.elementToBeClickable(element));
+                element.click();
+            } catch (StaleElementReferenceException e) {
+                // Si el elemento se vuelve obsoleto, intentamos encontrarlo de nuevo
+                WebElement refreshedElement = wait.until(ExpectedConditions.refreshed(
+                        ExpectedConditions.elementToBeClickable(element)));
+                refreshedElement.click();
+            } catch (ElementClickInterceptedException e) {
+                // Si el elemento está interceptado, usamos JavaScript para clickear
+                js.executeScript("arguments[0].click();", element);
+            }
+        });
     }
 
     /**
@@ -59,9 +90,11 @@ public class BasePage {
      * @param text Texto a escribir
      */
     protected void enterText(WebElement element, String text) {
-        wait.until(ExpectedConditions.visibilityOf(element));
-        element.clear();
-        element.sendKeys(text);
+        primitive("enterText", element, () -> {
+            wait.until(ExpectedConditions.visibilityOf(element));
+            element.clear();
+            element.sendKeys(text);
+        });
     }
 
     /**
@@ -70,8 +103,10 @@ public class BasePage {
      * @return Texto del elemento
      */
     protected String getText(WebElement element) {
-        wait.until(ExpectedConditions.visibilityOf(element));
-        return element.getText();
+        return primitive("getText", element, () -> {
+            wait.until(ExpectedConditions.visibilityOf(element));
+            return element.getText();
+        });
     }
 
     /**
@@ -80,7 +115,42 @@ public class BasePage {
      * @return El elemento web una vez visible
      */
     protected WebElement waitForVisibility(WebElement element) {
-        return wait.until(ExpectedConditions.visibilityOf(element));
+        return primitive("waitForVisibility", element, () -> wait.until(ExpectedConditions.visibilityOf(element)));
+    }
+
+    /**
+     * Espera a que no queden peticiones AJAX de jQuery en curso
+     * Si la página no usa jQuery se considera inactiva inmediatamente
+     */
+    protected void waitForAjaxIdle() {
+        primitive("waitForAjaxIdle", null, () -> {
+            wait.until(d -> (Boolean) js.executeScript("return !window.jQuery || window.jQuery.active === 0;"));
+        });
+    }
+
+    /**
+     * Eventos del navegador de la página: consola, excepciones de JavaScript y respuestas de red
+     * @return Bus de eventos del navegador
+     */
+    public BrowserEvents events() {
+        return BrowserEvents.of(driver);
+    }
+
+    /**
+     * Obtiene los tiempos de la carga del documento actual según la Navigation Timing API
+     * @return Milisegundos desde el inicio de la petición hasta el fin de la respuesta, y
+     *         desde el fin de la respuesta hasta el DOM listo; o null si no están disponibles
+     */
+    @SuppressWarnings("unchecked")
+    public double[] getNavigationTiming() {
+        Object timing = js.executeScript("var e = window.performance && performance.getEntriesByType"
+                + " ? performance.getEntriesByType('navigation')[0] : null;"
+                + "return e ? [e.responseEnd - e.startTime, e.domContentLoadedEventEnd - e.responseEnd] : null;");
+        if (!(timing instanceof List)) {
+            return null;
+        }
+        List<Number> values = (List<Number>) timing;
+        return new double[]{values.get(0).doubleValue(), values.get(1).doubleValue()};
     }
 
     /**
@@ -90,13 +160,99 @@ public class BasePage {
      */
     protected boolean isElementPresent(By locator) {
         try {
-            driver.findElement(locator);
+            findElement(locator);
             return true;
         } catch (NoSuchElementException e) {
             return false;
         }
     }
 
+    /**
+     * Busca un elemento en la página pasando por el LocatorProfiler
+     * @param locator Localizador del elemento
+     * @return Elemento encontrado
+     */
+    protected WebElement findElement(By locator) {
+        return primitive("findElement", locator, () -> LocatorProfiler.findElement(driver, locator));
+    }
+
+    /**
+     * Busca un elemento dentro de otro pasando por el LocatorProfiler
+     * @param parent Elemento desde el que buscar
+     * @param locator Localizador relativo al elemento padre
+     * @return Elemento encontrado
+     */
+    protected WebElement findElement(SearchContext parent, By locator) {
+        return primitive("findElement", locator, () -> LocatorProfiler.findElement(parent, locator));
+    }
+
+    /**
+     * Busca todos los elementos de la página que coinciden, pasando por el LocatorProfiler
+     * @param locator Localizador de los elementos
+     * @return Lista de elementos encontrados
+     */
+    protected List<WebElement> findElements(By locator) {
+        return primitive("findElements", locator, () -> LocatorProfiler.findElements(driver, locator));
+    }
+
+    /**
+     * Busca todos los elementos dentro de otro que coinciden, pasando por el LocatorProfiler
+     * @param parent Elemento desde el que buscar
+     * @param locator Localizador relativo al elemento padre
+     * @return Lista de elementos encontrados
+     */
+    protected List<WebElement> findElements(SearchContext parent, By locator) {
+        return primitive("findElements", locator, () -> LocatorProfiler.findElements(parent, locator));
+    }
+
+    /**
+     * Ejecuta una acción de la página y la registra como evento de Java Flight Recorder
+     * (PageActionEvent), con su duración y su resultado
+     * @param action Nombre de la acción (ej: "addToCart")
+     * @param target Localizador, elemento, ruta o producto sobre el que actúa (puede ser null)
+     * @param body Cuerpo de la acción
+     * @return Resultado de la acción
+     */
+    protected <T> T action(String action, Object target, Supplier<T> body) {
+        return measure(action, target, false, body);
+    }
+
+    /**
+     * Ejecuta una acción de la página sin resultado y la registra como evento de Java Flight Recorder
+     * @param action Nombre de la acción
+     * @param target Localizador, elemento, ruta o producto sobre el que actúa (puede ser null)
+     * @param body Cuerpo de la acción
+     */
+    protected void action(String action, Object target, Runnable body) {
+        measure(action, target, false, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    private <T> T primitive(String action, Object target, Supplier<T> body) {
+        return measure(action, target, true, body);
+    }
+
+    private void primitive(String action, Object target, Runnable body) {
+        measure(action, target, true, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    private <T> T measure(String action, Object target, boolean primitive, Supplier<T> body) {
+        PageActionEvent event = PageActionEvent.begin(getClass(), action, target, primitive);
+        try {
+            T result = body.get();
+            event.end(null);
+            return result;
+        } catch (RuntimeException | Error e) {
+            event.end(e);
+            throw e;
+        }
+    }
+
     /**
      * Convierte un precio en formato texto (con símbolo de moneda) a valor numérico
      * @param priceText Texto del precio (ej: "$19.99")
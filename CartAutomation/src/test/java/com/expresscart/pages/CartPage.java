@@ -1,11 +1,19 @@
 package com.expresscart.pages;
 
+import com.expresscart.utils.CartApi;
+import com.expresscart.utils.LatencyRecorder;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -13,13 +21,20 @@ import java.util.NoSuchElementException;
  */
 public class CartPage extends BasePage {
 
-    @FindBy(xpath = "//div[@class='cart-product']//a")
+    // Líneas del carrito (el contenedor lleva más clases, ej: "p-2 cart-product")
+    private static final String CART_PRODUCT = "//div[contains(concat(' ', normalize-space(@class), ' '), ' cart-product ')]";
+
+    // Vuelve a pintar la vista del carrito con los datos de la sesión, si se está en ella
+    private static final String REPAINT_SCRIPT =
+            "if (typeof window.updateCartDiv === 'function') { window.updateCartDiv(); }";
+
+    @FindBy(xpath = CART_PRODUCT + "//a")
     private List<WebElement> productTitles;
 
-    @FindBy(xpath = "//div[@class='cart-product']//input[@type='number']")
+    @FindBy(xpath = CART_PRODUCT + "//input[@type='number']")
     private List<WebElement> productQuantities;
 
-    @FindBy(xpath = "//div[@class='cart-product']//div[contains(@class, 'col-md-4')]//strong")
+    @FindBy(xpath = CART_PRODUCT + "//div[contains(@class, 'col-md-4')]//strong")
     private List<WebElement> productTotals;
 
     @FindBy(id = "total-cart-amount")
@@ -44,15 +59,43 @@ public class CartPage extends BasePage {
         super(driver);
     }
 
+    public CartPage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
     /**
      * Navega a la página del carrito
      * @return La instancia de CartPage para encadenamiento
      */
     public CartPage navigate() {
-        navigateTo("/cart");
+        action("navigate", "/cart", () -> navigateTo("/cart"));
         return this;
     }
 
+    /**
+     * Abre la vista completa del carrito que renderiza expressCart (/checkout/cart)
+     * @return La instancia de CartPage para encadenamiento
+     */
+    public CartPage navigateToCheckoutCart() {
+        action("navigateToCheckoutCart", "/checkout/cart", () -> {
+            navigateTo("/checkout/cart");
+            wait.until(ExpectedConditions.presenceOfElementLocated(By.className("cart-body")));
+        });
+        return this;
+    }
+
+    /**
+     * Obtiene los títulos de los productos del carrito, en el orden en que se muestran
+     * @return Lista de títulos
+     */
+    public List<String> getProductTitles() {
+        List<String> titles = new ArrayList<>();
+        for (WebElement title : productTitles) {
+            titles.add(title.getText().trim());
+        }
+        return titles;
+    }
+
     /**
      * Obtiene la cantidad de un producto específico en el carrito
      * @param productName Nombre del producto
@@ -60,27 +103,27 @@ public class CartPage extends BasePage {
      */
     public int getProductQuantity(String productName) {
         try {
-            System.out.println("Buscando cantidad para producto: " + productName);
+            log.debug("Buscando cantidad para producto: {}", productName);
             int index = getProductIndex(productName);
             if (index != -1) {
                 String value = productQuantities.get(index).getAttribute("value");
-                System.out.println("Valor obtenido para cantidad: " + value);
+                log.debug("Valor obtenido para cantidad: {}", value);
                 return Integer.parseInt(value);
             }
             
             // Si no encontramos por índice, intentamos buscar directamente
-            List<WebElement> products = driver.findElements(By.xpath("//div[@class='cart-product']"));
+            List<WebElement> products = findElements(By.xpath(CART_PRODUCT));
             for (WebElement product : products) {
-                String title = product.findElement(By.tagName("a")).getText().trim();
-                System.out.println("Producto en carrito: " + title);
+                String title = findElement(product, By.tagName("a")).getText().trim();
+                log.debug("Producto en carrito: {}", title);
                 if (title.equalsIgnoreCase(productName.trim())) {
-                    String qty = product.findElement(By.xpath(".//input[@type='number']")).getAttribute("value");
-                    System.out.println("Cantidad encontrada: " + qty);
+                    String qty = findElement(product, By.xpath(".//input[@type='number']")).getAttribute("value");
+                    log.debug("Cantidad encontrada: {}", qty);
                     return Integer.parseInt(qty);
                 }
             }
         } catch (Exception e) {
-            System.out.println("Error al obtener cantidad: " + e.getMessage());
+            log.debug("Error al obtener cantidad: {}", e.getMessage());
         }
         return 0;
     }
@@ -113,16 +156,16 @@ public class CartPage extends BasePage {
             }
             
             // Búsqueda alternativa
-            List<WebElement> products = driver.findElements(By.xpath("//div[@class='cart-product']"));
+            List<WebElement> products = findElements(By.xpath(CART_PRODUCT));
             for (WebElement product : products) {
-                String title = product.findElement(By.tagName("a")).getText().trim();
+                String title = findElement(product, By.tagName("a")).getText().trim();
                 if (title.equalsIgnoreCase(productName.trim())) {
-                    String total = product.findElement(By.xpath(".//strong[contains(@class, 'my-auto')]")).getText();
+                    String total = findElement(product, By.xpath(".//strong[contains(@class, 'my-auto')]")).getText();
                     return parsePrice(total);
                 }
             }
         } catch (Exception e) {
-            System.out.println("Error al obtener total del producto: " + e.getMessage());
+            log.debug("Error al obtener total del producto: {}", e.getMessage());
         }
         return 0.0;
     }
@@ -133,13 +176,20 @@ public class CartPage extends BasePage {
      * @return La instancia de CartPage para encadenamiento
      */
     public CartPage removeProduct(String productName) {
+        return action("removeProduct", productName, () -> removeLine(productName));
+    }
+
+    private CartPage removeLine(String productName) {
         try {
-            List<WebElement> products = driver.findElements(By.xpath("//div[@class='cart-product']"));
+            List<WebElement> products = findElements(By.xpath(CART_PRODUCT));
             for (WebElement product : products) {
-                String title = product.findElement(By.tagName("a")).getText().trim();
+                String title = findElement(product, By.tagName("a")).getText().trim();
                 if (title.equalsIgnoreCase(productName.trim())) {
-                    WebElement deleteButton = product.findElement(By.xpath(".//button[contains(@class, 'btn-delete-from-cart')]"));
+                    WebElement deleteButton = findElement(product, By.xpath(".//button[contains(@class, 'btn-delete-from-cart')]"));
+                    long start = System.nanoTime();
                     clickElement(deleteButton);
+                    waitForAjaxIdle();
+                    LatencyRecorder.record("CartPage.removeProduct", System.nanoTime() - start);
                     try {
                         Thread.sleep(1000);
                     } catch (InterruptedException e) {
@@ -150,7 +200,7 @@ public class CartPage extends BasePage {
             }
             throw new NoSuchElementException("No se encontró el producto: " + productName);
         } catch (Exception e) {
-            System.out.println("Error al eliminar producto: " + e.getMessage());
+            log.warn("Error al eliminar producto: {}", e.getMessage());
             throw new RuntimeException("Error al eliminar producto: " + productName, e);
         }
     }
@@ -162,16 +212,23 @@ public class CartPage extends BasePage {
      * @return La instancia de CartPage para encadenamiento
      */
     public CartPage updateProductQuantity(String productName, int quantity) {
+        return action("updateProductQuantity", productName, () -> updateLine(productName, quantity));
+    }
+
+    private CartPage updateLine(String productName, int quantity) {
         try {
-            List<WebElement> products = driver.findElements(By.xpath("//div[@class='cart-product']"));
+            List<WebElement> products = findElements(By.xpath(CART_PRODUCT));
             for (WebElement product : products) {
-                String title = product.findElement(By.tagName("a")).getText().trim();
+                String title = findElement(product, By.tagName("a")).getText().trim();
                 if (title.equalsIgnoreCase(productName.trim())) {
-                    WebElement quantityInput = product.findElement(By.xpath(".//input[@type='number']"));
+                    WebElement quantityInput = findElement(product, By.xpath(".//input[@type='number']"));
+                    long start = System.nanoTime();
                     enterText(quantityInput, String.valueOf(quantity));
                     
                     // Enviar Enter para confirmar el cambio
                     quantityInput.submit();
+                    waitForAjaxIdle();
+                    LatencyRecorder.record("CartPage.updateProductQuantity", System.nanoTime() - start);
                     
                     // Esperar a que se actualice el carrito
                     try {
@@ -184,11 +241,94 @@ public class CartPage extends BasePage {
             }
             throw new NoSuchElementException("No se encontró el producto: " + productName);
         } catch (Exception e) {
-            System.out.println("Error al actualizar cantidad: " + e.getMessage());
+            log.warn("Error al actualizar cantidad: {}", e.getMessage());
             throw new RuntimeException("Error al actualizar cantidad para: " + productName, e);
         }
     }
 
+    /**
+     * Cambia las cantidades de varios productos del carrito en un solo lote
+     * @param quantities Nueva cantidad por nombre de producto o cartId (0 o menos elimina la línea)
+     * @return Estado del carrito tras los cambios
+     */
+    public CartState updateProductQuantities(Map<String, Integer> quantities) {
+        return applyCartChanges(quantities, Collections.emptyList());
+    }
+
+    /**
+     * Elimina varios productos del carrito en un solo lote
+     * @param productNames Nombres o cartId de las líneas a eliminar
+     * @return Estado del carrito tras los cambios
+     */
+    public CartState removeProducts(Collection<String> productNames) {
+        return applyCartChanges(Collections.emptyMap(), productNames);
+    }
+
+    /**
+     * Aplica un lote de cambios al carrito desde la propia página
+     *
+     * Las peticiones a /product/updatecart y /product/removefromcart se envían con CartApi
+     * en una sola llamada a WebDriver, en lugar de buscar, escribir y esperar por cada
+     * línea. Las líneas se localizan en /checkout/cartdata por cartId o, si no, por título,
+     * así que no hace falta estar en la vista del carrito; si se está, se vuelve a pintar
+     * una sola vez al final. Un título con varias líneas (variantes del mismo producto) hay
+     * que indicarlo por cartId.
+     * @param quantities Nueva cantidad por nombre de producto o cartId (0 o menos elimina la línea)
+     * @param removals Nombres o cartId de las líneas a eliminar
+     * @return Estado del carrito tras los cambios, según la tienda
+     */
+    public CartState applyCartChanges(Map<String, Integer> quantities, Collection<String> removals) {
+        return action("applyCartChanges", null, () -> sendCartChanges(quantities, removals));
+    }
+
+    private CartState sendCartChanges(Map<String, Integer> quantities, Collection<String> removals) {
+        log.debug("Aplicando cambios al carrito: cantidades={}, eliminar={}", quantities, removals);
+        long start = System.nanoTime();
+        CartState before = CartState.from(CartApi.cartData(driver).getJson());
+
+        List<CartApi.Request> requests = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        quantities.forEach((key, quantity) -> {
+            CartLine line = before.findLine(key);
+            if (line == null) {
+                missing.add(key);
+            } else {
+                requests.add(quantity > 0
+                        ? CartApi.Request.updateCart(line.getCartId(), line.getProductId(), quantity)
+                        : CartApi.Request.removeFromCart(line.getCartId()));
+            }
+        });
+        for (String key : removals) {
+            CartLine line = before.findLine(key);
+            if (line == null) {
+                missing.add(key);
+            } else {
+                requests.add(CartApi.Request.removeFromCart(line.getCartId()));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new NoSuchElementException("No se encontraron en el carrito: " + missing);
+        }
+
+        // El carrito resultante se pide en el mismo lote, tras el último cambio
+        requests.add(CartApi.Request.cartData());
+        List<CartApi.Response> responses = CartApi.send(driver, requests);
+        js.executeScript(REPAINT_SCRIPT);
+        waitForAjaxIdle();
+        LatencyRecorder.record("CartPage.applyCartChanges", System.nanoTime() - start);
+
+        List<String> errors = new ArrayList<>();
+        for (CartApi.Response response : responses) {
+            if (!response.isOk()) {
+                errors.add(response.describe());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new RuntimeException("Error al actualizar el carrito: " + String.join("; ", errors));
+        }
+        return CartState.from(responses.get(responses.size() - 1).getJson());
+    }
+
     /**
      * Obtiene el monto total del carrito
      * @return Monto total del carrito
@@ -197,7 +337,7 @@ public class CartPage extends BasePage {
         try {
             return parsePrice(getText(cartTotalAmount));
         } catch (Exception e) {
-            System.out.println("Error al obtener total del carrito: " + e.getMessage());
+            log.debug("Error al obtener total del carrito: {}", e.getMessage());
             
             // Intento alternativo con JavaScript
             try {
@@ -205,7 +345,7 @@ public class CartPage extends BasePage {
                     "return document.getElementById('total-cart-amount').textContent");
                 return parsePrice(total);
             } catch (Exception ex) {
-                System.out.println("Error con JS al obtener total: " + ex.getMessage());
+                log.debug("Error con JS al obtener total: {}", ex.getMessage());
                 return 0.0;
             }
         }
@@ -218,24 +358,24 @@ public class CartPage extends BasePage {
     public boolean isCartEmpty() {
         try {
             // Verificar si hay productos en el carrito
-            List<WebElement> products = driver.findElements(By.xpath("//div[@class='cart-product']"));
+            List<WebElement> products = findElements(By.xpath(CART_PRODUCT));
             if (!products.isEmpty()) {
-                System.out.println("Carrito NO está vacío. Productos encontrados: " + products.size());
+                log.debug("Carrito NO está vacío. Productos encontrados: {}", products.size());
                 return false;
             }
             
             // Verificar el contador del carrito
-            WebElement cartCount = driver.findElement(By.id("cart-count"));
+            WebElement cartCount = findElement(By.id("cart-count"));
             String count = cartCount.getText().trim();
-            System.out.println("Contador del carrito: " + count);
+            log.debug("Contador del carrito: {}", count);
             if (!"0".equals(count)) {
                 return false;
             }
             
-            System.out.println("Carrito está vacío.");
+            log.debug("Carrito está vacío.");
             return true;
         } catch (Exception e) {
-            System.out.println("Error al verificar si el carrito está vacío: " + e.getMessage());
+            log.debug("Error al verificar si el carrito está vacío: {}", e.getMessage());
             // Asumir que si hay error es porque no hay elementos
             return true;
         }
@@ -264,16 +404,30 @@ public class CartPage extends BasePage {
         return "";
     }
 
+    /**
+     * Inicia el proceso de compra desde el carrito
+     * @return Página de datos del cliente del checkout
+     */
+    public CheckoutInformationPage proceedToCheckout() {
+        return action("proceedToCheckout", checkoutButton, () -> {
+            long start = System.nanoTime();
+            clickElement(checkoutButton);
+            CheckoutInformationPage informationPage = new CheckoutInformationPage(driver, baseUrl).waitForPage();
+            LatencyRecorder.record("Checkout.information", System.nanoTime() - start);
+            return informationPage;
+        });
+    }
+
     /**
      * Obtiene el número de productos diferentes en el carrito
      * @return Número de productos diferentes
      */
     public int getNumberOfProducts() {
         try {
-            List<WebElement> products = driver.findElements(By.xpath("//div[@class='cart-product']"));
+            List<WebElement> products = findElements(By.xpath(CART_PRODUCT));
             return products.size();
         } catch (Exception e) {
-            System.out.println("Error al contar productos: " + e.getMessage());
+            log.debug("Error al contar productos: {}", e.getMessage());
             return 0;
         }
     }
@@ -285,27 +439,218 @@ public class CartPage extends BasePage {
      */
     private int getProductIndex(String productName) {
         try {
-            System.out.println("Buscando índice para producto: " + productName);
+            log.debug("Buscando índice para producto: {}", productName);
             for (int i = 0; i < productTitles.size(); i++) {
                 String title = getText(productTitles.get(i)).trim();
-                System.out.println("Comparando con: " + title);
+                log.debug("Comparando con: {}", title);
                 if (title.equalsIgnoreCase(productName.trim())) {
                     return i;
                 }
             }
             
             // Buscar de forma alternativa
-            List<WebElement> allLinks = driver.findElements(By.xpath("//div[@class='cart-product']//a"));
+            List<WebElement> allLinks = findElements(By.xpath(CART_PRODUCT + "//a"));
             for (int i = 0; i < allLinks.size(); i++) {
                 String title = getText(allLinks.get(i)).trim();
-                System.out.println("Alternativa - Comparando con: " + title);
+                log.debug("Alternativa - Comparando con: {}", title);
                 if (title.equalsIgnoreCase(productName.trim())) {
                     return i;
                 }
             }
         } catch (Exception e) {
-            System.out.println("Error al buscar índice: " + e.getMessage());
+            log.debug("Error al buscar índice: {}", e.getMessage());
         }
         return -1;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Estado del carrito devuelto por la tienda (/checkout/cartdata)
+     *
+     * Las líneas se guardan por cartId: las variantes de un mismo producto comparten título
+     * pero son líneas distintas. Las consultas por nombre suman todas las líneas con ese título.
+     */
+    public static final class CartState {
+        private final Map<String, CartLine> lines;
+        private final int totalItems;
+        private final double total;
+
+        private CartState(Map<String, CartLine> lines, int totalItems, double total) {
+            this.lines = Collections.unmodifiableMap(lines);
+            this.totalItems = totalItems;
+            this.total = total;
+        }
+
+        /**
+         * @param cartData Respuesta de /checkout/cartdata: {cart, session}
+         */
+        @SuppressWarnings("unchecked")
+        static CartState from(Map<String, Object> cartData) {
+            Map<String, CartLine> lines = new LinkedHashMap<>();
+            Object cart = cartData.get("cart");
+            if (cart instanceof Map) {
+                ((Map<String, Object>) cart).forEach((cartId, value) -> {
+                    Map<String, Object> item = (Map<String, Object>) value;
+                    lines.put(cartId, new CartLine(cartId, String.valueOf(item.get("productId")),
+                            String.valueOf(item.get("title")).trim(),
+                            item.get("variantTitle") == null ? null : String.valueOf(item.get("variantTitle")),
+                            number(item.get("quantity")).intValue(),
+                            number(item.get("totalItemPrice")).doubleValue()));
+                });
+            }
+            Object session = cartData.get("session");
+            Map<String, Object> values = session instanceof Map ? (Map<String, Object>) session : Collections.emptyMap();
+            return new CartState(lines,
+                    number(values.get("totalCartItems")).intValue(),
+                    number(values.get("totalCartAmount")).doubleValue());
+        }
+
+        private static Number number(Object value) {
+            if (value instanceof Number) {
+                return (Number) value;
+            }
+            try {
+                return value == null ? 0 : Double.parseDouble(value.toString());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * Línea por cartId o, si no hay ninguna con ese id, por título
+         * @return Línea, o null si no está en el carrito
+         * @throws IllegalArgumentException Si el título corresponde a varias líneas
+         */
+        CartLine findLine(String key) {
+            CartLine line = lines.get(key);
+            if (line != null) {
+                return line;
+            }
+            List<CartLine> matches = linesTitled(key);
+            if (matches.size() > 1) {
+                List<String> ids = new ArrayList<>();
+                matches.forEach(match -> ids.add(match.getCartId() + " (" + match.getVariantTitle() + ")"));
+                throw new IllegalArgumentException("'" + key + "' tiene varias líneas en el carrito;"
+                        + " indica su cartId: " + ids);
+            }
+            return matches.isEmpty() ? null : matches.get(0);
+        }
+
+        private List<CartLine> linesTitled(String productName) {
+            List<CartLine> matches = new ArrayList<>();
+            for (CartLine line : lines.values()) {
+                if (line.getTitle().equalsIgnoreCase(productName.trim())) {
+                    matches.add(line);
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * Líneas del carrito, en el orden de la sesión
+         * @return Lista de líneas
+         */
+        public List<CartLine> getLines() {
+            return new ArrayList<>(lines.values());
+        }
+
+        /**
+         * Línea del carrito
+         * @param cartId Identificador de la línea
+         * @return Línea, o null si no está en el carrito
+         */
+        public CartLine getLine(String cartId) {
+            return lines.get(cartId);
+        }
+
+        /**
+         * Títulos de los productos del carrito, uno por línea
+         * @return Lista de títulos
+         */
+        public List<String> getProductTitles() {
+            List<String> titles = new ArrayList<>();
+            lines.values().forEach(line -> titles.add(line.getTitle()));
+            return titles;
+        }
+
+        /**
+         * Cantidad de un producto, sumando todas sus variantes
+         * @param productName Nombre del producto
+         * @return Cantidad, o 0 si no está en el carrito
+         */
+        public int getQuantity(String productName) {
+            return linesTitled(productName).stream().mapToInt(CartLine::getQuantity).sum();
+        }
+
+        /**
+         * Precio total de las líneas de un producto, sumando todas sus variantes
+         * @param productName Nombre del producto
+         * @return Total, o 0 si no está en el carrito
+         */
+        public double getProductTotal(String productName) {
+            return linesTitled(productName).stream().mapToDouble(CartLine::getTotal).sum();
+        }
+
+        /**
+         * @return Número de líneas del carrito
+         */
+        public int getNumberOfProducts() {
+            return lines.size();
+        }
+
+        public int getTotalItems() {
+            return totalItems;
+        }
+
+        public double getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * Línea del carrito: un producto, o una variante de un producto
+     */
+    public static final class CartLine {
+        private final String cartId;
+        private final String productId;
+        private final String title;
+        private final String variantTitle;
+        private final int quantity;
+        private final double total;
+
+        CartLine(String cartId, String productId, String title, String variantTitle, int quantity, double total) {
+            this.cartId = cartId;
+            this.productId = productId;
+            this.title = title;
+            this.variantTitle = variantTitle;
+            this.quantity = quantity;
+            this.total = total;
+        }
+
+        public String getCartId() {
+            return cartId;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @return Título de la variante, o null si la línea no es una variante
+         */
+        public String getVariantTitle() {
+            return variantTitle;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public double getTotal() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.expresscart.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.List;
+
+/**
+ * Page Object para los listados de categoría (/category/:cat/:pageNum?)
+ */
+public class CategoryPage extends ProductListPage {
+
+    public CategoryPage(WebDriver driver) {
+        super(driver);
+    }
+
+    public CategoryPage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
+    /**
+     * Navega a la primera página de una categoría
+     * @param category Categoría tal como aparece en la URL (ej: "backpack")
+     * @return La instancia de CategoryPage para encadenamiento
+     */
+    public CategoryPage navigate(String category) {
+        return navigate(category, 1);
+    }
+
+    /**
+     * Navega a una página de una categoría
+     * @param category Categoría tal como aparece en la URL
+     * @param pageNum Número de página (base 1)
+     * @return La instancia de CategoryPage para encadenamiento
+     */
+    public CategoryPage navigate(String category, int pageNum) {
+        navigateTo("/category/" + category + (pageNum > 1 ? "/" + pageNum : ""));
+        waitForResults();
+        return this;
+    }
+
+    /**
+     * Abre una categoría desde el menú de navegación
+     * @param menuTitle Título de la entrada del menú (ej: "Backpacks")
+     * @return La instancia de CategoryPage para encadenamiento
+     */
+    public CategoryPage selectFromMenu(String menuTitle) {
+        List<WebElement> links = findElements(By.cssSelector("#navbarMenu a.nav-link[href^='/category/']"));
+        for (WebElement link : links) {
+            if (link.getText().trim().equalsIgnoreCase(menuTitle)) {
+                clickElement(link);
+                wait.until(ExpectedConditions.urlContains("/category/"));
+                waitForResults();
+                return this;
+            }
+        }
+        throw new NoSuchElementException("No existe la categoría en el menú: " + menuTitle);
+    }
+}
@@ -0,0 +1,137 @@
+package com.expresscart.pages;
+
+import com.expresscart.utils.LatencyRecorder;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.Select;
+
+/**
+ * Page Object para el primer paso del checkout: datos del cliente (/checkout/information)
+ */
+public class CheckoutInformationPage extends BasePage {
+
+    @FindBy(id = "shipEmail")
+    private WebElement emailInput;
+
+    @FindBy(id = "shipFirstname")
+    private WebElement firstNameInput;
+
+    @FindBy(id = "shipLastname")
+    private WebElement lastNameInput;
+
+    @FindBy(id = "shipAddr1")
+    private WebElement addressInput;
+
+    @FindBy(id = "shipCountry")
+    private WebElement countrySelect;
+
+    @FindBy(id = "shipState")
+    private WebElement stateInput;
+
+    @FindBy(id = "shipPostcode")
+    private WebElement postcodeInput;
+
+    @FindBy(id = "shipPhoneNumber")
+    private WebElement phoneInput;
+
+    @FindBy(id = "checkoutInformation")
+    private WebElement continueButton;
+
+    public CheckoutInformationPage(WebDriver driver) {
+        super(driver);
+    }
+
+    public CheckoutInformationPage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
+    /**
+     * Navega directamente al paso de datos del cliente (requiere un carrito con productos)
+     * @return La instancia de CheckoutInformationPage para encadenamiento
+     */
+    public CheckoutInformationPage navigate() {
+        navigateTo("/checkout/information");
+        return waitForPage();
+    }
+
+    /**
+     * Espera a que el formulario de datos del cliente esté visible
+     * @return La instancia de CheckoutInformationPage para encadenamiento
+     */
+    public CheckoutInformationPage waitForPage() {
+        wait.until(ExpectedConditions.urlContains("/checkout/information"));
+        waitForVisibility(emailInput);
+        return this;
+    }
+
+    /**
+     * Rellena los datos del cliente y de envío
+     * @param customer Datos del cliente
+     * @return La instancia de CheckoutInformationPage para encadenamiento
+     */
+    public CheckoutInformationPage enterCustomerDetails(Customer customer) {
+        enterText(emailInput, customer.email);
+        enterText(firstNameInput, customer.firstName);
+        enterText(lastNameInput, customer.lastName);
+        enterText(addressInput, customer.address);
+        new Select(countrySelect).selectByVisibleText(customer.country);
+        enterText(stateInput, customer.state);
+        enterText(postcodeInput, customer.postcode);
+        enterText(phoneInput, customer.phone);
+        return this;
+    }
+
+    /**
+     * Guarda los datos del cliente y continúa al paso de envío
+     * @return Página de envío del checkout
+     */
+    public CheckoutShippingPage continueToShipping() {
+        long start = System.nanoTime();
+        clickElement(continueButton);
+        CheckoutShippingPage shippingPage = new CheckoutShippingPage(driver, baseUrl).waitForPage();
+        LatencyRecorder.record("Checkout.shipping", System.nanoTime() - start);
+        return shippingPage;
+    }
+
+    /**
+     * Datos del cliente que pide el formulario de envío de expressCart
+     */
+    public static final class Customer {
+        private final String email;
+        private final String firstName;
+        private final String lastName;
+        private final String address;
+        private final String country;
+        private final String state;
+        private final String postcode;
+        private final String phone;
+
+        public Customer(String email, String firstName, String lastName, String address,
+                        String country, String state, String postcode, String phone) {
+            this.email = email;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.address = address;
+            this.country = country;
+            this.state = state;
+            this.postcode = postcode;
+            this.phone = phone;
+        }
+
+        /**
+         * Cliente de prueba con una dirección válida
+         * @param email Email del cliente
+         * @return Datos del cliente
+         */
+        public static Customer sample(String email) {
+            return new Customer(email, "Prueba", "Automatizada", "Calle Mayor 1",
+                    "Spain", "Madrid", "28001", "600000000");
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.expresscart.pages;
+
+import com.expresscart.utils.LatencyRecorder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+/**
+ * Page Object para el paso de pago del checkout (/checkout/payment)
+ * Solo automatiza el módulo de pago instore, que no depende de servicios externos
+ */
+public class CheckoutPaymentPage extends BasePage {
+
+    private static final By INSTORE_BUTTON = By.id("checkoutInstore");
+
+    @FindBy(id = "payment-form")
+    private WebElement paymentForm;
+
+    @FindBy(id = "checkoutInstore")
+    private WebElement instoreButton;
+
+    public CheckoutPaymentPage(WebDriver driver) {
+        super(driver);
+    }
+
+    public CheckoutPaymentPage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
+    /**
+     * Espera a que se muestre el formulario de pago
+     * @return La instancia de CheckoutPaymentPage para encadenamiento
+     */
+    public CheckoutPaymentPage waitForPage() {
+        wait.until(ExpectedConditions.urlContains("/checkout/payment"));
+        wait.until(ExpectedConditions.presenceOfElementLocated(By.id("payment-form")));
+        return this;
+    }
+
+    /**
+     * Verifica si el módulo de pago instore está activo en la tienda
+     * (config/settings.json o settings-local.json debe incluir "instore" en paymentGateway)
+     * @return true si se muestra el botón de pago en tienda
+     */
+    public boolean isInstorePaymentAvailable() {
+        return isElementPresent(INSTORE_BUTTON);
+    }
+
+    /**
+     * Realiza el pedido con pago en tienda y espera a la página de resultado
+     * @return Página de pedido completado
+     */
+    public OrderCompletePage placeInstoreOrder() {
+        long start = System.nanoTime();
+        clickElement(instoreButton);
+        OrderCompletePage completePage = new OrderCompletePage(driver, baseUrl).waitForPage();
+        LatencyRecorder.record("Checkout.placeOrder", System.nanoTime() - start);
+        return completePage;
+    }
+}
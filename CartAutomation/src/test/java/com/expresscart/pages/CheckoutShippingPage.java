@@ -0,0 +1,59 @@
+package com.expresscart.pages;
+
+import com.expresscart.utils.LatencyRecorder;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.List;
+
+/**
+ * Page Object para el paso de envío del checkout (/checkout/shipping)
+ */
+public class CheckoutShippingPage extends BasePage {
+
+    @FindBy(css = ".card-body .list-group-item")
+    private List<WebElement> shippingOptions;
+
+    @FindBy(css = "a[href='/checkout/payment'].btn")
+    private WebElement proceedToPaymentButton;
+
+    public CheckoutShippingPage(WebDriver driver) {
+        super(driver);
+    }
+
+    public CheckoutShippingPage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
+    /**
+     * Espera a que se muestren las opciones de envío
+     * @return La instancia de CheckoutShippingPage para encadenamiento
+     */
+    public CheckoutShippingPage waitForPage() {
+        wait.until(ExpectedConditions.urlContains("/checkout/shipping"));
+        waitForVisibility(proceedToPaymentButton);
+        return this;
+    }
+
+    /**
+     * Obtiene el mensaje de envío calculado por el módulo de envío (ej: "FREE shipping")
+     * @return Texto de la opción de envío o cadena vacía si no hay ninguna
+     */
+    public String getShippingMessage() {
+        return shippingOptions.isEmpty() ? "" : getText(shippingOptions.get(0)).trim();
+    }
+
+    /**
+     * Continúa al paso de pago
+     * @return Página de pago del checkout
+     */
+    public CheckoutPaymentPage proceedToPayment() {
+        long start = System.nanoTime();
+        clickElement(proceedToPaymentButton);
+        CheckoutPaymentPage paymentPage = new CheckoutPaymentPage(driver, baseUrl).waitForPage();
+        LatencyRecorder.record("Checkout.payment", System.nanoTime() - start);
+        return paymentPage;
+    }
+}
@@ -1,5 +1,6 @@
 package com.expresscart.pages;
 
+import com.expresscart.utils.LatencyRecorder;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -25,13 +26,34 @@ public class HomePage extends BasePage {
         super(driver);
     }
 
+    public HomePage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
     /**
      * Navega a la página de inicio
      * @return La instancia de HomePage para encadenamiento
      */
     public HomePage navigate() {
-        navigateTo("/");
-        waitForVisibility(logo); // Espera a que cargue la página
+        action("navigate", "/", () -> {
+            long start = System.nanoTime();
+            navigateTo("/");
+            waitForVisibility(logo); // Espera a que cargue la página
+            LatencyRecorder.record("HomePage.navigate", System.nanoTime() - start);
+        });
+        return this;
+    }
+
+    /**
+     * Navega a una página del listado completo de productos (/page/:pageNum)
+     * @param pageNum Número de página
+     * @return La instancia de HomePage para encadenamiento
+     */
+    public HomePage navigateToPage(int pageNum) {
+        action("navigateToPage", "/page/" + pageNum, () -> {
+            navigateTo("/page/" + pageNum);
+            waitForVisibility(logo);
+        });
         return this;
     }
 
@@ -41,68 +63,72 @@ public class HomePage extends BasePage {
      * @return La instancia de ProductPage para encadenamiento
      */
     public ProductPage selectProduct(String productName) {
-        System.out.println("Buscando producto: " + productName);
+        return action("selectProduct", productName, () -> openProduct(productName));
+    }
+
+    private ProductPage openProduct(String productName) {
+        log.debug("Buscando producto: {}", productName);
         
         try {
             // 1. Intentar con XPath directo por el título del producto
             String cleanProductName = productName.replace("ó", "o").replace("á", "a").replace("é", "e").replace("í", "i").replace("ú", "u");
-            System.out.println("Buscando producto sin acentos: " + cleanProductName);
+            log.debug("Buscando producto sin acentos: {}", cleanProductName);
             
             try {
                 // Intento 1: Buscar directamente con el nombre exacto
-                WebElement productLink = driver.findElement(
+                WebElement productLink = findElement(
                     By.xpath("//h3[contains(@class, 'product-title')]/ancestor::a"));
-                String productTitle = productLink.findElement(By.tagName("h3")).getText().trim();
-                System.out.println("Producto encontrado: " + productTitle);
+                String productTitle = findElement(productLink, By.tagName("h3")).getText().trim();
+                log.debug("Producto encontrado: {}", productTitle);
                 
                 if (productTitle.equalsIgnoreCase(productName) || 
                     productTitle.equalsIgnoreCase(cleanProductName)) {
                     clickElement(productLink);
-                    return new ProductPage(driver);
+                    return new ProductPage(driver, baseUrl);
                 }
             } catch (Exception e) {
-                System.out.println("No se encontró con nombre exacto: " + e.getMessage());
+                log.debug("No se encontró con nombre exacto: {}", e.getMessage());
             }
             
             // Intento 2: Buscar todos los títulos de productos
-            List<WebElement> productCards = driver.findElements(By.className("product-wrapper"));
-            System.out.println("Número de tarjetas de producto encontradas: " + productCards.size());
+            List<WebElement> productCards = findElements(By.className("product-wrapper"));
+            log.debug("Número de tarjetas de producto encontradas: {}", productCards.size());
             
             for (WebElement card : productCards) {
                 try {
-                    WebElement title = card.findElement(By.className("product-title"));
+                    WebElement title = findElement(card, By.className("product-title"));
                     String titleText = title.getText().trim();
-                    System.out.println("Comparando con: " + titleText);
+                    log.debug("Comparando con: {}", titleText);
                     
                     if (titleText.equalsIgnoreCase(productName) || 
                         titleText.equalsIgnoreCase(cleanProductName)) {
-                        System.out.println("Producto encontrado por título: " + titleText);
-                        WebElement link = card.findElement(By.tagName("a"));
+                        log.debug("Producto encontrado por título: {}", titleText);
+                        WebElement link = findElement(card, By.tagName("a"));
                         clickElement(link);
-                        return new ProductPage(driver);
+                        return new ProductPage(driver, baseUrl);
                     }
                 } catch (Exception e) {
-                    System.out.println("Error al procesar tarjeta de producto: " + e.getMessage());
+                    log.debug("Error al procesar tarjeta de producto: {}", e.getMessage());
                 }
             }
             
             // Intento 3: Buscar directamente en todos los enlaces con títulos de producto
-            List<WebElement> productLinks = driver.findElements(By.xpath("//h3[contains(@class, 'product-title')]/ancestor::a"));
-            System.out.println("Enlaces de producto encontrados: " + productLinks.size());
+            List<WebElement> productLinks = findElements(By.xpath("//h3[contains(@class, 'product-title')]/ancestor::a"));
+            log.debug("Enlaces de producto encontrados: {}", productLinks.size());
             
             for (WebElement link : productLinks) {
                 try {
-                    String titleText = link.findElement(By.className("product-title")).getText().trim();
-                    System.out.println("Verificando enlace: " + titleText);
+                    String titleText = findElement(link, By.className("product-title")).getText().trim();
+                    log.debug("Verificando enlace: {}", titleText);
                     
                     if (titleText.equalsIgnoreCase(productName) || 
                         titleText.equalsIgnoreCase(cleanProductName)) {
-                        System.out.println("Producto encontrado en enlace: " + titleText);
+                        log.debug("Producto encontrado en enlace: {}", titleText);
                         clickElement(link);
-                        return new ProductPage(driver);
+                        return new ProductPage(driver, baseUrl);
                     }
                 } catch (Exception e) {
-                    System.out.println("Error al procesar enlace: " + e.getMessage());
+                    log.debug("Error al procesar enlace: {}", e.getMessage());
                 }
             }
             
@@ -115,18 +141,18 @@ public class HomePage extends BasePage {
                 .replace("ó", "o")
                 .replace("ú", "u");
             
-            System.out.println("Buscando producto por URL: " + productNameInUrl);
-            WebElement productLinkByUrl = driver.findElement(
+            log.debug("Buscando producto por URL: {}", productNameInUrl);
+            WebElement productLinkByUrl = findElement(
                 By.xpath("//a[contains(@href, '/product/" + productNameInUrl + "')]"));
             
             if (productLinkByUrl != null) {
-                System.out.println("Producto encontrado por URL!");
+                log.debug("Producto encontrado por URL!");
                 clickElement(productLinkByUrl);
-                return new ProductPage(driver);
+                return new ProductPage(driver, baseUrl);
             }
             
         } catch (Exception e) {
-            System.out.println("Error general al buscar producto: " + e.getMessage());
+            log.warn("Error general al buscar producto: {}", e.getMessage());
             throw new RuntimeException("No se encontró el producto: " + productName, e);
         }
         
@@ -155,7 +181,7 @@ public class HomePage extends BasePage {
      * @return Instancia de CartPage
      */
     public CartPage goToCart() {
-        navigateTo("/cart");
-        return new CartPage(driver);
+        action("goToCart", "/cart", () -> navigateTo("/cart"));
+        return new CartPage(driver, baseUrl);
     }
 } 
\ No newline at end of file
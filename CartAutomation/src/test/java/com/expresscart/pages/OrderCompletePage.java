@@ -0,0 +1,58 @@
+package com.expresscart.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.List;
+
+/**
+ * Page Object para el resultado del pedido (/payment/:orderId)
+ */
+public class OrderCompletePage extends BasePage {
+
+    public OrderCompletePage(WebDriver driver) {
+        super(driver);
+    }
+
+    public OrderCompletePage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
+    /**
+     * Espera a que se cargue la página de resultado del pedido
+     * @return La instancia de OrderCompletePage para encadenamiento
+     */
+    public OrderCompletePage waitForPage() {
+        wait.until(ExpectedConditions.urlMatches("/payment/[0-9a-fA-F]{24}$"));
+        wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector(".text-center h2")));
+        return this;
+    }
+
+    /**
+     * Obtiene el identificador del pedido creado, tomado de la URL
+     * @return Identificador del pedido
+     */
+    public String getOrderId() {
+        String url = driver.getCurrentUrl();
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Obtiene el mensaje de estado del pago (ej: "The order is place. Please pay...")
+     * @return Texto del mensaje
+     */
+    public String getStatusMessage() {
+        return getText(findElement(By.cssSelector(".text-center h2"))).trim();
+    }
+
+    /**
+     * Verifica si el pedido ha quedado registrado como pendiente o pagado
+     * @return true si el mensaje de estado no es de error
+     */
+    public boolean isOrderPlaced() {
+        List<WebElement> failed = findElements(By.cssSelector(".text-center h2.text-danger"));
+        return failed.isEmpty();
+    }
+}
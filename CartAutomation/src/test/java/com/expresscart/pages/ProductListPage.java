@@ -0,0 +1,134 @@
+package com.expresscart.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base de los Page Objects de listados paginados de productos (búsqueda, categoría)
+ * Todos usan la vista index del tema, que incluye el total de resultados y el paginador
+ */
+public abstract class ProductListPage extends BasePage {
+
+    @FindBy(css = ".product-results h1")
+    private WebElement heading;
+
+    @FindBy(css = ".product-layout .product-title")
+    private List<WebElement> productTitles;
+
+    protected ProductListPage(WebDriver driver) {
+        super(driver);
+    }
+
+    protected ProductListPage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
+    /**
+     * Espera a que la vista del listado esté cargada (el total de resultados se
+     * renderiza al final de la vista, haya resultados o no)
+     */
+    protected void waitForResults() {
+        wait.until(ExpectedConditions.presenceOfElementLocated(By.id("totalItemCount")));
+    }
+
+    /**
+     * Obtiene el título del listado (ej: "Search results: jacket")
+     * @return Texto del título
+     */
+    public String getHeading() {
+        return getText(heading).trim();
+    }
+
+    /**
+     * Obtiene los títulos de los productos de la página actual
+     * @return Lista de títulos
+     */
+    public List<String> getResultTitles() {
+        List<String> titles = new ArrayList<>();
+        for (WebElement title : productTitles) {
+            titles.add(title.getText().trim());
+        }
+        return titles;
+    }
+
+    /**
+     * Obtiene el número de productos mostrados en la página actual
+     * @return Número de productos
+     */
+    public int getResultCount() {
+        return productTitles.size();
+    }
+
+    /**
+     * Obtiene el total de productos del listado, en todas las páginas
+     * @return Total de productos
+     */
+    public int getTotalItemCount() {
+        return hiddenInt("totalItemCount");
+    }
+
+    /**
+     * Obtiene el número de la página actual
+     * @return Número de página (base 1)
+     */
+    public int getPageNum() {
+        return hiddenInt("pageNum");
+    }
+
+    /**
+     * Obtiene el número total de páginas del listado
+     * @return Número de páginas (al menos 1)
+     */
+    public int getTotalPages() {
+        int perPage = Math.max(1, hiddenInt("itemsPerPage"));
+        return Math.max(1, (getTotalItemCount() + perPage - 1) / perPage);
+    }
+
+    /**
+     * Verifica si se muestra el mensaje de que no hay productos
+     * @return true si el listado está vacío
+     */
+    public boolean isNoResultsDisplayed() {
+        return isElementPresent(By.cssSelector(".product-layout p.text-danger"));
+    }
+
+    /**
+     * Va a la página siguiente usando el paginador
+     * @return true si había página siguiente
+     */
+    public boolean nextPage() {
+        List<WebElement> next = findElements(By.cssSelector("#pager li.next:not(.disabled) a"));
+        if (next.isEmpty()) {
+            return false;
+        }
+        int current = getPageNum();
+        clickElement(next.get(0));
+        wait.until(d -> getPageNumOrZero() == current + 1);
+        waitForResults();
+        return true;
+    }
+
+    private int getPageNumOrZero() {
+        try {
+            return getPageNum();
+        } catch (RuntimeException e) {
+            // La página siguiente todavía se está cargando
+            return 0;
+        }
+    }
+
+    private int hiddenInt(String id) {
+        String value = findElement(By.id(id)).getAttribute("value");
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
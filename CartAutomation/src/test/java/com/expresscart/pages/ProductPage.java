@@ -1,5 +1,6 @@
 package com.expresscart.pages;
 
+import com.expresscart.utils.LatencyRecorder;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
@@ -35,6 +36,33 @@ public class ProductPage extends BasePage {
         super(driver);
     }
 
+    public ProductPage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
+    /**
+     * Abre directamente la página de un producto
+     * @param productPath Ruta del producto (ej: "/product/camiseta-basica")
+     * @return La instancia de ProductPage para encadenamiento
+     */
+    public ProductPage navigate(String productPath) {
+        action("navigate", productPath, () -> {
+            long start = System.nanoTime();
+            navigateTo(productPath);
+            waitForVisibility(productTitle);
+            LatencyRecorder.record("ProductPage.navigate", System.nanoTime() - start);
+        });
+        return this;
+    }
+
+    /**
+     * Verifica si la página indica que el producto está agotado (solo con control de stock)
+     * @return true si el producto no se puede añadir por falta de stock
+     */
+    public boolean isOutOfStock() {
+        return !findElements(By.xpath("//h4[contains(@class, 'text-danger') and contains(., 'Out of stock')]")).isEmpty();
+    }
+
     /**
      * Obtiene el título del producto
      * @return Título del producto
@@ -43,20 +71,20 @@ public class ProductPage extends BasePage {
         try {
             return getText(productTitle);
         } catch (Exception e) {
-            System.out.println("Error obteniendo título por @FindBy: " + e.getMessage());
+            log.debug("Error obteniendo título por @FindBy: {}", e.getMessage());
             
             try {
-                WebElement titleElement = driver.findElement(By.className("product-title"));
+                WebElement titleElement = findElement(By.className("product-title"));
                 return getText(titleElement);
             } catch (Exception ex) {
-                System.out.println("Error obteniendo título directamente: " + ex.getMessage());
+                log.debug("Error obteniendo título directamente: {}", ex.getMessage());
                 
                 try {
                     JavascriptExecutor js = (JavascriptExecutor) driver;
                     return (String) js.executeScript(
                         "return document.querySelector('.product-title').textContent");
                 } catch (Exception jsEx) {
-                    System.out.println("Error obteniendo título con JS: " + jsEx.getMessage());
+                    log.debug("Error obteniendo título con JS: {}", jsEx.getMessage());
                     return "Título no disponible";
                 }
             }
@@ -71,7 +99,7 @@ public class ProductPage extends BasePage {
         try {
             return getText(productPrice);
         } catch (Exception e) {
-            System.out.println("Error obteniendo precio: " + e.getMessage());
+            log.debug("Error obteniendo precio: {}", e.getMessage());
             try {
                 JavascriptExecutor js = (JavascriptExecutor) driver;
                 return (String) js.executeScript(
@@ -96,17 +124,21 @@ public class ProductPage extends BasePage {
      * @return La instancia de ProductPage para encadenamiento
      */
     public ProductPage setQuantity(int quantity) {
+        return action("setQuantity", quantityInput, () -> enterQuantity(quantity));
+    }
+
+    private ProductPage enterQuantity(int quantity) {
         try {
             enterText(quantityInput, String.valueOf(quantity));
         } catch (Exception e) {
-            System.out.println("Error al establecer cantidad: " + e.getMessage());
+            log.debug("Error al establecer cantidad: {}", e.getMessage());
             try {
                 JavascriptExecutor js = (JavascriptExecutor) driver;
                 js.executeScript(
                     "document.getElementById('product_quantity').value = arguments[0]", 
                     String.valueOf(quantity));
             } catch (Exception ex) {
-                System.out.println("No se pudo establecer cantidad con JS: " + ex.getMessage());
+                log.debug("No se pudo establecer cantidad con JS: {}", ex.getMessage());
             }
         }
         return this;
@@ -118,13 +150,17 @@ public class ProductPage extends BasePage {
      * @return La instancia de ProductPage para encadenamiento
      */
     public ProductPage selectOption(String optionValue) {
+        return action("selectOption", optionValue, () -> chooseOption(optionValue));
+    }
+
+    private ProductPage chooseOption(String optionValue) {
         try {
             if (isElementPresent(By.id("product_variant"))) {
                 Select optionSelect = new Select(productOptions);
                 optionSelect.selectByVisibleText(optionValue);
             }
         } catch (Exception e) {
-            System.out.println("No se encontraron opciones para el producto o no se pudo seleccionar: " + e.getMessage());
+            log.debug("No se encontraron opciones para el producto o no se pudo seleccionar: {}", e.getMessage());
         }
         return this;
     }
@@ -134,24 +170,30 @@ public class ProductPage extends BasePage {
      * @return La instancia de ProductPage para encadenamiento
      */
     public ProductPage addToCart() {
+        return action("addToCart", addToCartButton, this::clickAddToCart);
+    }
+
+    private ProductPage clickAddToCart() {
+        long start = System.nanoTime();
         clickElement(addToCartButton);
         
         try {
-            System.out.println("Esperando mensaje de carrito...");
+            log.debug("Esperando mensaje de carrito...");
             
             try {
                 wait.until(ExpectedConditions.attributeContains(By.id("notify_message"), "style", "display: block"));
-                String mensaje = driver.findElement(By.id("notify_message")).getText();
-                System.out.println("Mensaje detectado: " + mensaje);
+                String mensaje = findElement(By.id("notify_message")).getText();
+                log.debug("Mensaje detectado: {}", mensaje);
             } catch (Exception e) {
-                System.out.println("No se detectó cambio en style del mensaje: " + e.getMessage());
+                log.debug("No se detectó cambio en style del mensaje: {}", e.getMessage());
             }
             
             try {
                 wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("#notify_message.alert-success")));
             } catch (Exception e) {
-                System.out.println("No se detectó clase alert-success: " + e.getMessage());
+                log.debug("No se detectó clase alert-success: {}", e.getMessage());
             }
+            LatencyRecorder.record("ProductPage.addToCart", System.nanoTime() - start);
             
             try {
                 Thread.sleep(1000);
@@ -160,7 +202,7 @@ public class ProductPage extends BasePage {
             }
             
         } catch (Exception e) {
-            System.out.println("Error general al esperar mensaje de carrito: " + e.getMessage());
+            log.debug("Error general al esperar mensaje de carrito: {}", e.getMessage());
         }
         return this;
     }
@@ -179,8 +221,8 @@ public class ProductPage extends BasePage {
      * @return La instancia de CartPage
      */
     public CartPage goToCart() {
-        navigateTo("/cart");
-        return new CartPage(driver);
+        action("goToCart", "/cart", () -> navigateTo("/cart"));
+        return new CartPage(driver, baseUrl);
     }
     
     /**
@@ -189,26 +231,26 @@ public class ProductPage extends BasePage {
      */
     public boolean isAddToCartSuccessMessageDisplayed() {
         try {
-            String displayStyle = driver.findElement(By.id("notify_message")).getCssValue("display");
+            String displayStyle = findElement(By.id("notify_message")).getCssValue("display");
             boolean isDisplayed = "block".equals(displayStyle);
-            System.out.println("Estado del mensaje: " + (isDisplayed ? "Visible" : "No visible"));
+            log.debug("Estado del mensaje: {}", (isDisplayed ? "Visible" : "No visible"));
             
             if (!isDisplayed) {
-                String cartCount = driver.findElement(By.id("cart-count")).getText();
-                System.out.println("Contador del carrito: " + cartCount);
+                String cartCount = findElement(By.id("cart-count")).getText();
+                log.debug("Contador del carrito: {}", cartCount);
                 if (!"0".equals(cartCount)) {
-                    System.out.println("Carrito tiene items, asumiendo éxito");
+                    log.debug("Carrito tiene items, asumiendo éxito");
                     return true;
                 }
             }
             
             return isDisplayed;
         } catch (Exception e) {
-            System.out.println("Error al verificar mensaje de carrito: " + e.getMessage());
+            log.debug("Error al verificar mensaje de carrito: {}", e.getMessage());
             try {
-                String cartCount = driver.findElement(By.id("cart-count")).getText();
+                String cartCount = findElement(By.id("cart-count")).getText();
                 if (!"0".equals(cartCount)) {
-                    System.out.println("Carrito tiene items (verificación alternativa), asumiendo éxito");
+                    log.debug("Carrito tiene items (verificación alternativa), asumiendo éxito");
                     return true;
                 }
             } catch (Exception ex) {
@@ -226,7 +268,7 @@ public class ProductPage extends BasePage {
         try {
             return getText(cartMessage);
         } catch (Exception e) {
-            System.out.println("Error al obtener texto del mensaje de carrito: " + e.getMessage());
+            log.debug("Error al obtener texto del mensaje de carrito: {}", e.getMessage());
             try {
                 JavascriptExecutor js = (JavascriptExecutor) driver;
                 return (String) js.executeScript(
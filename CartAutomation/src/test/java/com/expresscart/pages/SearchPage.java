@@ -0,0 +1,64 @@
+package com.expresscart.pages;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Page Object para los resultados de búsqueda (/search/:searchTerm/:pageNum?)
+ */
+public class SearchPage extends ProductListPage {
+
+    @FindBy(id = "frm_search")
+    private WebElement searchInput;
+
+    @FindBy(id = "btn_search")
+    private WebElement searchButton;
+
+    public SearchPage(WebDriver driver) {
+        super(driver);
+    }
+
+    public SearchPage(WebDriver driver, String baseUrl) {
+        super(driver, baseUrl);
+    }
+
+    /**
+     * Navega a la primera página de resultados de una búsqueda
+     * @param searchTerm Término de búsqueda
+     * @return La instancia de SearchPage para encadenamiento
+     */
+    public SearchPage navigate(String searchTerm) {
+        return navigate(searchTerm, 1);
+    }
+
+    /**
+     * Navega a una página de resultados de una búsqueda
+     * @param searchTerm Término de búsqueda
+     * @param pageNum Número de página (base 1)
+     * @return La instancia de SearchPage para encadenamiento
+     */
+    public SearchPage navigate(String searchTerm, int pageNum) {
+        String term = URLEncoder.encode(searchTerm, StandardCharsets.UTF_8).replace("+", "%20");
+        navigateTo("/search/" + term + (pageNum > 1 ? "/" + pageNum : ""));
+        waitForResults();
+        return this;
+    }
+
+    /**
+     * Busca desde el formulario de búsqueda del menú
+     * @param searchTerm Término de búsqueda
+     * @return La instancia de SearchPage para encadenamiento
+     */
+    public SearchPage search(String searchTerm) {
+        enterText(searchInput, searchTerm);
+        clickElement(searchButton);
+        wait.until(ExpectedConditions.urlContains("/search/"));
+        waitForResults();
+        return this;
+    }
+}
@@ -1,46 +1,224 @@
 package com.expresscart.tests;
 
-import com.expresscart.utils.ScreenshotUtils;
-import com.expresscart.utils.WebDriverFactory;
+import com.expresscart.utils.BrowserEvents;
+import com.expresscart.utils.BrowserMatrix;
+import com.expresscart.utils.BrowserPool;
+import com.expresscart.utils.ConcurrencyController;
+import com.expresscart.utils.DriverProcessAccountant;
+import com.expresscart.utils.FailureClassifier;
+import com.expresscart.utils.FailureSnapshot;
+import com.expresscart.utils.FlakeRetryAnalyzer;
+import com.expresscart.utils.LatencyRecorder;
+import com.expresscart.utils.PerfRegressionGate;
+import com.expresscart.utils.RouteRecorder;
+import com.expresscart.utils.TestLogger;
+import com.expresscart.utils.TimeBudgetScheduler;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.testng.ITestContext;
 import org.testng.ITestResult;
+import org.testng.SkipException;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Optional;
 import org.testng.annotations.Parameters;
 
+import java.lang.reflect.Method;
+
 /**
  * Clase base para todos los tests, maneja la configuración y limpieza
+ *
+ * El navegador es de cada hilo (getDriver()), así que la suite puede ejecutar en paralelo
+ * métodos (parallel="methods") o clases (parallel="classes") además de los &lt;test&gt;.
  */
 public class BaseTest {
-    protected WebDriver driver;
+    private final ThreadLocal<Session> sessions = ThreadLocal.withInitial(Session::new);
+    protected final Logger log = TestLogger.getLogger(getClass());
+
+    /**
+     * Navegador del test que se ejecuta en el hilo actual
+     * @return WebDriver, o null fuera de un test
+     */
+    protected WebDriver getDriver() {
+        return sessions.get().driver;
+    }
     
     /**
      * Configura el WebDriver antes de cada método de prueba
      * @param browser Navegador a utilizar (chrome, firefox, edge)
      * @param headless Si se debe ejecutar en modo headless
+     * @param throttling Perfiles de limitación de red/CPU separados por coma (none, 3g, slow-4g, cable, 4x-cpu-slowdown)
+     * @param method Método de test que se va a ejecutar
+     * @param context &lt;test&gt; en curso
      */
     @BeforeMethod
-    @Parameters({"browser", "headless"})
-    public void setUp(@Optional("chrome") String browser, @Optional("false") String headless) {
+    @Parameters({"browser", "headless", "throttling"})
+    public void setUp(@Optional("chrome") String browser, @Optional("false") String headless,
+                      @Optional("none") String throttling, Method method, ITestContext context) {
+        // Los tests que no caben en el presupuesto de tiempo se saltan antes de arrancar el navegador
+        String deferral = TimeBudgetScheduler.deferral(context, getClass().getName() + "." + method.getName());
+        if (deferral != null) {
+            // Sin @AfterMethod tras un @BeforeMethod saltado: el navegador conservado para un
+            // reintento se cierra aquí
+            releaseDriver();
+            throw new SkipException("Aplazado por presupuesto de tiempo: " + deferral);
+        }
         boolean isHeadless = Boolean.parseBoolean(headless);
-        driver = WebDriverFactory.createDriver(browser, isHeadless);
+        LatencyRecorder.setProfile(BrowserMatrix.profile(throttling, browser));
+        Session session = sessions.get();
+        // Con la concurrencia adaptativa se espera a que la ventana deje arrancar otro test
+        ConcurrencyController.acquire();
+        session.holdsSlot = true;
+        if (session.driver != null) {
+            // Reintento de un fallo de infraestructura: se reutiliza el navegador ya arrancado
+            log.debug("Reutilizando el navegador del intento anterior");
+            BrowserEvents.of(session.driver).clear();
+            return;
+        }
+        // En la matriz de navegadores se espera a que el navegador tenga hueco en el equipo
+        BrowserMatrix.acquire(browser);
+        try {
+            session.driver = BrowserPool.acquire(browser, isHeadless, throttling);
+        } catch (RuntimeException e) {
+            BrowserMatrix.release(browser);
+            releaseSlot();
+            throw e;
+        }
+        session.browser = browser;
+        // Los eventos de un navegador del pool son de otro test
+        BrowserEvents.of(session.driver).clear();
     }
     
     /**
      * Limpia los recursos después de cada método de prueba
-     * Si el test falla, toma una captura de pantalla
+     * Si el test falla, toma una captura de pantalla y adjunta los eventos del navegador
+     * Si el test se va a reintentar y el navegador sigue vivo, se conserva para el reintento
+     * Con el pool de navegadores activo (TestDaemon), el navegador vuelve al pool
+     * Si quit() falla, los procesos del driver y del navegador se eliminan igualmente
      * @param result Resultado del test
      */
     @AfterMethod
     public void tearDown(ITestResult result) {
+        try {
+            closeDriver(result);
+        } finally {
+            // El hueco se libera con el navegador ya cerrado o devuelto al pool
+            releaseSlot();
+        }
+    }
+
+    private void closeDriver(ITestResult result) {
+        WebDriver driver = getDriver();
         if (result.getStatus() == ITestResult.FAILURE) {
-            // Tomar captura de pantalla en caso de fallo
-            ScreenshotUtils.takeScreenshot(driver, result.getName());
+            // Guardar el estado de la página en caso de fallo
+            FailureSnapshot.capture(result, driver);
+            BrowserEvents.attachTo(result, driver);
         }
         
-        if (driver != null) {
+        if (driver == null) {
+            return;
+        }
+        RouteRecorder.harvest(driver);
+        RouteRecorder.finish(result.getMethod().getQualifiedName());
+        if (result.wasRetried() && canReuseDriver(result)) {
+            return;
+        }
+        releaseDriver();
+    }
+
+    /**
+     * Devuelve el navegador al pool o lo cierra, y libera su hueco en la matriz de navegadores
+     */
+    private void releaseDriver() {
+        Session session = sessions.get();
+        WebDriver driver = session.driver;
+        if (driver == null) {
+            return;
+        }
+        if (BrowserPool.offer(driver)) {
+            // Modo daemon: el navegador queda caliente para el siguiente test
+            session.driver = null;
+            BrowserMatrix.release(session.browser);
+            return;
+        }
+        try {
             driver.quit();
+        } catch (RuntimeException e) {
+            log.warn("Error al cerrar el navegador: {}", e.getMessage());
+        } finally {
+            // Elimina los procesos del driver y del navegador que hayan sobrevivido a quit()
+            DriverProcessAccountant.release(driver);
+            session.driver = null;
+            BrowserMatrix.release(session.browser);
+        }
+    }
+
+    private void releaseSlot() {
+        Session session = sessions.get();
+        if (session.holdsSlot) {
+            session.holdsSlot = false;
+            ConcurrencyController.release();
+        }
+    }
+
+    /**
+     * Hace fallar la suite si las latencias han empeorado respecto a la línea base
+     * (solo con perf.gate=fail; la tabla de diferencias la escribe PerfRegressionReporter)
+     */
+    @AfterSuite(alwaysRun = true)
+    public void checkPerformanceBaseline() {
+        PerfRegressionGate.enforce();
+    }
+
+    /**
+     * Relanza una excepción capturada por un test si se debe a la infraestructura
+     * (navegador caído, esperas agotadas...), para que no se confunda con el
+     * comportamiento esperado de la aplicación y se pueda reintentar
+     * @param e Excepción capturada
+     */
+    protected void rethrowIfInfrastructure(Exception e) {
+        if (!FailureClassifier.isInfrastructure(e)) {
+            return;
+        }
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
         }
+        throw new IllegalStateException(e.getMessage(), e);
+    }
+
+    /**
+     * Deja el navegador listo para un reintento inmediato: sin cookies ni almacenamiento local
+     * @param result Resultado del intento fallido
+     * @return true si el navegador se puede reutilizar
+     */
+    private boolean canReuseDriver(ITestResult result) {
+        WebDriver driver = getDriver();
+        Object classification = result.getAttribute(FlakeRetryAnalyzer.CLASSIFICATION_ATTRIBUTE);
+        if (classification instanceof FailureClassifier.Classification
+                && ((FailureClassifier.Classification) classification).isDriverLost()) {
+            return false;
+        }
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            driver.manage().deleteAllCookies();
+            driver.get("about:blank");
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("El navegador no se puede reutilizar para el reintento: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Estado del test en curso de un hilo: navegador, navegador pedido (para liberar su
+     * hueco en la matriz de navegadores) y si ocupa un hueco de la concurrencia adaptativa
+     */
+    private static final class Session {
+        WebDriver driver;
+        String browser;
+        boolean holdsSlot;
     }
-} 
\ No newline at end of file
+}
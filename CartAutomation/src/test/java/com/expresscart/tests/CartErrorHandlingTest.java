@@ -2,17 +2,26 @@ package com.expresscart.tests;
 
 import com.expresscart.pages.CartPage;
 import com.expresscart.pages.HomePage;
+import com.expresscart.pages.ProductPage;
+import com.expresscart.utils.BrowserEvents;
+import com.expresscart.utils.CartApi;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebElement;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
+import java.time.Duration;
+
 /**
  * Pruebas para el manejo de errores del carrito de compras
  */
 public class CartErrorHandlingTest extends BaseTest {
 
+    // Id válido de MongoDB que no corresponde a ningún producto
+    private static final String UNKNOWN_PRODUCT_ID = "000000000000000000000000";
+
     /**
      * Prueba para simular un error del servidor (código 500) y verificar el manejo de errores
      * 
@@ -21,14 +30,14 @@ public class CartErrorHandlingTest extends BaseTest {
      */
     @Test(description = "Probar manejo de error del servidor (código 500)")
     public void testServerErrorHandling() {
-        HomePage homePage = new HomePage(driver);
+        HomePage homePage = new HomePage(getDriver());
         homePage.navigate();
         
         // Navegar al carrito
         CartPage cartPage = homePage.goToCart();
         
         // Usar JavaScript más simple para simular un error del servidor
-        JavascriptExecutor js = (JavascriptExecutor) driver;
+        JavascriptExecutor js = (JavascriptExecutor) getDriver();
         js.executeScript(
             "const errorDiv = document.createElement('div');" +
             "errorDiv.className = 'error-message';" + 
@@ -51,7 +60,8 @@ public class CartErrorHandlingTest extends BaseTest {
                     "Debería mostrarse un mensaje de error cuando ocurre un error del servidor");
             
         } catch (Exception e) {
-            System.out.println("Excepción capturada: " + e.getMessage());
+            rethrowIfInfrastructure(e);
+            log.debug("Excepción capturada: {}", e.getMessage());
             // Si hay una excepción, también es una forma de manejar el error
             Assert.assertTrue(true, "Se ha capturado la excepción como forma de manejo de error");
         }
@@ -62,14 +72,14 @@ public class CartErrorHandlingTest extends BaseTest {
      */
     @Test(description = "Probar manejo de error con cantidad inválida")
     public void testInvalidQuantityError() {
-        HomePage homePage = new HomePage(driver);
+        HomePage homePage = new HomePage(getDriver());
         homePage.navigate();
         
         // Navegar al carrito
         CartPage cartPage = homePage.goToCart();
         
         // Modificar el DOM para insertar un producto ficticio en el carrito
-        JavascriptExecutor js = (JavascriptExecutor) driver;
+        JavascriptExecutor js = (JavascriptExecutor) getDriver();
         js.executeScript(
             "const cartContainer = document.querySelector('.cart-product-list');" +
             "if (cartContainer) {" +
@@ -94,8 +104,40 @@ public class CartErrorHandlingTest extends BaseTest {
                     "No debería permitirse una cantidad negativa");
             
         } catch (Exception e) {
+            rethrowIfInfrastructure(e);
             // Es aceptable que se lance una excepción al intentar una operación inválida
-            System.out.println("Se lanzó una excepción al intentar establecer una cantidad inválida: " + e.getMessage());
+            log.debug("Se lanzó una excepción al intentar establecer una cantidad inválida: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Prueba que las respuestas de error del carrito se detectan con los eventos de red del
+     * navegador en cuanto llegan, sin consultar el DOM
+     */
+    @Test(description = "Detectar por eventos del navegador la respuesta de error al actualizar el carrito")
+    public void testCartErrorResponseEvents() {
+        HomePage homePage = new HomePage(getDriver());
+        homePage.navigate();
+        
+        BrowserEvents events = homePage.events();
+        if (!events.isSupported()) {
+            throw new SkipException("El navegador no publica eventos (DevTools/BiDi)");
         }
+        
+        // Añadir un producto esperando a la respuesta de la tienda
+        ProductPage productPage = homePage.selectProduct("Camiseta Basica");
+        BrowserEvents.Event added = events.waitFor(BrowserEvents.response("/product/addtocart"),
+                Duration.ofSeconds(10), productPage::addToCart);
+        Assert.assertEquals(added.getStatus(), 200, "Añadir al carrito debería responder 200");
+        
+        // Actualizar un producto que no existe: la tienda responde 400
+        BrowserEvents.Event rejected = events.waitFor(BrowserEvents.response("/product/updatecart"),
+                Duration.ofSeconds(10), () -> CartApi.updateCart(getDriver(), UNKNOWN_PRODUCT_ID, UNKNOWN_PRODUCT_ID, 1));
+        Assert.assertEquals(rejected.getStatus(), 400, "Actualizar un producto inexistente debería responder 400");
+        Assert.assertTrue(rejected.isError(), "La respuesta 400 debería considerarse un error");
+        
+        // Ninguna de las dos operaciones debería provocar excepciones de JavaScript
+        Assert.assertTrue(events.snapshot().stream().noneMatch(e -> e.getType() == BrowserEvents.Type.EXCEPTION),
+                "No debería haber excepciones de JavaScript: " + events.errors());
     }
-} 
\ No newline at end of file
+}
@@ -1,23 +1,32 @@
 package com.expresscart.tests;
 
+import com.expresscart.pages.BasePage;
 import com.expresscart.pages.CartPage;
 import com.expresscart.pages.HomePage;
 import com.expresscart.pages.ProductPage;
+import com.expresscart.utils.CartVerifier;
+import com.expresscart.utils.SessionFixture;
+import org.openqa.selenium.WebDriver;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Collections;
+
 /**
  * Pruebas de funcionalidad del carrito de compras
  */
 public class CartFunctionalityTest extends BaseTest {
 
+    // Estado de sesión compartido: "Camiseta Basica" y "Pantalón Casual" en el carrito
+    private static final String TWO_PRODUCTS = "dos-productos";
+
     /**
      * Prueba para agregar un producto al carrito
      */
     @Test
     public void testAddProductToCart() {
         // Navegar a la página de inicio
-        HomePage homePage = new HomePage(driver);
+        HomePage homePage = new HomePage(getDriver());
         homePage.navigate();
         
         try {
@@ -42,9 +51,8 @@ public class CartFunctionalityTest extends BaseTest {
             int quantity = cartPage.getProductQuantity("Camiseta Basica");
             Assert.assertEquals(quantity, 1, "La cantidad del producto debería ser 1");
         } catch (Exception e) {
-            System.out.println("Error en testAddProductToCart: " + e.getMessage());
-            e.printStackTrace();
-            Assert.fail("La prueba falló: " + e.getMessage());
+            log.error("Error en testAddProductToCart: {}", e.getMessage());
+            throw e;
         }
     }
     
@@ -54,27 +62,15 @@ public class CartFunctionalityTest extends BaseTest {
     @Test
     public void testRemoveProductFromCart() {
         // Navegar a la página de inicio
-        HomePage homePage = new HomePage(driver);
+        HomePage homePage = new HomePage(getDriver());
         homePage.navigate();
         
         try {
-            // Añadir primer producto al carrito
-            ProductPage productPage = homePage.selectProduct("Camiseta Basica");
-            productPage.addToCart();
-            Assert.assertTrue(productPage.isAddToCartSuccessMessageDisplayed(), 
-                             "El mensaje de éxito debería mostrarse para el primer producto");
-            
-            // Volver a la página de inicio
-            homePage.navigate();
-            
-            // Añadir segundo producto
-            ProductPage secondProductPage = homePage.selectProduct("Pantalón Casual");
-            secondProductPage.addToCart();
-            Assert.assertTrue(secondProductPage.isAddToCartSuccessMessageDisplayed(), 
-                              "El mensaje de éxito debería mostrarse para el segundo producto");
+            // Partir de un carrito con dos productos (se construye una vez y se clona)
+            SessionFixture.prepare(TWO_PRODUCTS, getDriver(), BasePage.BASE_URL, this::addTwoProducts);
             
             // Ir al carrito
-            CartPage cartPage = secondProductPage.goToCart();
+            CartPage cartPage = new CartPage(getDriver()).navigateToCheckoutCart();
             
             // Verificar que hay dos productos en el carrito
             int numberOfProducts = cartPage.getNumberOfProducts();
@@ -91,9 +87,40 @@ public class CartFunctionalityTest extends BaseTest {
             int quantity = cartPage.getProductQuantity("Pantalón Casual");
             Assert.assertEquals(quantity, 1, "La cantidad del segundo producto debería ser 1");
         } catch (Exception e) {
-            System.out.println("Error en testRemoveProductFromCart: " + e.getMessage());
-            e.printStackTrace();
-            Assert.fail("La prueba falló: " + e.getMessage());
+            log.error("Error en testRemoveProductFromCart: {}", e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Prueba para cambiar y eliminar varios productos del carrito en un solo lote
+     */
+    @Test
+    public void testBatchCartChanges() {
+        // Navegar a la página de inicio
+        HomePage homePage = new HomePage(getDriver());
+        homePage.navigate();
+        
+        try {
+            // Partir de un carrito con dos productos (se construye una vez y se clona)
+            SessionFixture.prepare(TWO_PRODUCTS, getDriver(), BasePage.BASE_URL, this::addTwoProducts);
+            
+            // Cambiar la cantidad de uno y eliminar el otro con una sola llamada
+            CartPage cartPage = new CartPage(getDriver()).navigateToCheckoutCart();
+            CartPage.CartState state = cartPage.applyCartChanges(
+                    Collections.singletonMap("Camiseta Basica", 3),
+                    Collections.singletonList("Pantalón Casual"));
+            
+            // Verificar el estado devuelto por la tienda
+            Assert.assertEquals(state.getNumberOfProducts(), 1, "El carrito debería tener 1 producto después del lote");
+            Assert.assertEquals(state.getQuantity("Camiseta Basica"), 3, "La cantidad del producto debería ser 3");
+            
+            // Verificar que la página se ha vuelto a pintar con los cambios
+            Assert.assertEquals(cartPage.getNumberOfProducts(), 1, "La página debería mostrar 1 producto");
+            Assert.assertEquals(cartPage.getProductQuantity("Camiseta Basica"), 3, "La página debería mostrar la cantidad 3");
+        } catch (Exception e) {
+            log.error("Error en testBatchCartChanges: {}", e.getMessage());
+            throw e;
         }
     }
     
@@ -103,7 +130,7 @@ public class CartFunctionalityTest extends BaseTest {
     @Test
     public void testCartTotalCalculation() {
         // Navegar a la página de inicio
-        HomePage homePage = new HomePage(driver);
+        HomePage homePage = new HomePage(getDriver());
         homePage.navigate();
         
         try {
@@ -137,10 +164,13 @@ public class CartFunctionalityTest extends BaseTest {
             
             // Verificar que el total del carrito es mayor que el total del producto (por el envío)
             Assert.assertTrue(cartTotal > actualProductTotal, "El total del carrito debería incluir gastos de envío");
+            
+            // Verificar líneas, envío y total con el JSON de la tienda y los precios del catálogo
+            CartVerifier.Verification verification = CartVerifier.verify(getDriver(), CartVerifier.Catalog.fromFeed(BasePage.BASE_URL));
+            Assert.assertTrue(verification.isValid(), "Los totales del carrito deberían cuadrar: " + verification);
         } catch (Exception e) {
-            System.out.println("Error en testCartTotalCalculation: " + e.getMessage());
-            e.printStackTrace();
-            Assert.fail("La prueba falló: " + e.getMessage());
+            log.error("Error en testCartTotalCalculation: {}", e.getMessage());
+            throw e;
         }
     }
     
@@ -150,7 +180,7 @@ public class CartFunctionalityTest extends BaseTest {
     @Test
     public void testMaxQuantityLimit() {
         // Navegar a la página de inicio
-        HomePage homePage = new HomePage(driver);
+        HomePage homePage = new HomePage(getDriver());
         homePage.navigate();
         
         try {
@@ -167,9 +197,32 @@ public class CartFunctionalityTest extends BaseTest {
             int quantity = cartPage.getProductQuantity("Camiseta Basica");
             Assert.assertEquals(quantity, 10, "La cantidad del producto debería limitarse al máximo configurado (10)");
         } catch (Exception e) {
-            System.out.println("Error en testMaxQuantityLimit: " + e.getMessage());
-            e.printStackTrace();
-            Assert.fail("La prueba falló: " + e.getMessage());
+            log.error("Error en testMaxQuantityLimit: {}", e.getMessage());
+            throw e;
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Añade "Camiseta Basica" y "Pantalón Casual" al carrito a través de la interfaz
+     * @param browser Navegador en el que construir el estado
+     */
+    private void addTwoProducts(WebDriver browser) {
+        HomePage homePage = new HomePage(browser);
+        homePage.navigate();
+        
+        // Añadir primer producto al carrito
+        ProductPage productPage = homePage.selectProduct("Camiseta Basica");
+        productPage.addToCart();
+        Assert.assertTrue(productPage.isAddToCartSuccessMessageDisplayed(), 
+                         "El mensaje de éxito debería mostrarse para el primer producto");
+        
+        // Volver a la página de inicio
+        homePage.navigate();
+        
+        // Añadir segundo producto
+        ProductPage secondProductPage = homePage.selectProduct("Pantalón Casual");
+        secondProductPage.addToCart();
+        Assert.assertTrue(secondProductPage.isAddToCartSuccessMessageDisplayed(), 
+                          "El mensaje de éxito debería mostrarse para el segundo producto");
+    }
+}
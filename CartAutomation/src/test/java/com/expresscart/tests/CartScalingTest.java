@@ -0,0 +1,127 @@
+package com.expresscart.tests;
+
+import com.expresscart.pages.CartPage;
+import com.expresscart.pages.HomePage;
+import com.expresscart.utils.CartApi;
+import com.expresscart.utils.CartScalingReport;
+import com.expresscart.utils.ExpressCartInstance;
+import com.expresscart.utils.LatencyRecorder;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Escalado del carrito: latencias con carritos de cientos de líneas
+ *
+ * Para cada tamaño se llena un carrito con N productos distintos mediante CartApi y,
+ * con el carrito en ese tamaño, se miden:
+ * - CartApi.addtocart / updatecart / removefromcart: latencia del servidor, que recalcula
+ *   los totales de todo el carrito en cada cambio
+ * - CartPage.render: carga de /checkout/cart con todas las líneas (y .response del servidor)
+ * - CartPage.getProductQuantity / getProductTotal / getNumberOfProducts: coste de las
+ *   búsquedas del Page Object, que recorren las líneas con una llamada a WebDriver por línea
+ *
+ * Se usa la instancia de benchmark de expressCart sembrada con lib/benchmarkdata.js. Al
+ * terminar, CartScalingReport escribe la tabla y la gráfica del crecimiento.
+ *
+ * Propiedades del sistema:
+ * - cart.sizes: líneas del carrito separadas por coma (por defecto 10,100,500)
+ * - cart.iterations: mediciones por paso y tamaño (por defecto 5)
+ * - benchmark.port: puerto de la instancia de benchmark (por defecto 1112)
+ */
+public class CartScalingTest extends BaseTest {
+
+    private static final String DATABASE = "expresscart-bench";
+    private static final int ITERATIONS = Integer.getInteger("cart.iterations", 5);
+    private static final int PORT = Integer.getInteger("benchmark.port", 1112);
+
+    private ExpressCartInstance instance;
+
+    @BeforeClass(alwaysRun = true)
+    public void startInstance() throws Exception {
+        int catalog = Arrays.stream(sizes()).max().orElse(0);
+        instance = ExpressCartInstance.create(PORT, DATABASE);
+        instance.seed(catalog);
+        instance.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopInstance() {
+        if (instance != null) {
+            instance.close();
+        }
+        CartScalingReport.write();
+    }
+
+    @DataProvider(name = "cartSizes")
+    public Object[][] cartSizes() {
+        return Arrays.stream(sizes()).mapToObj(size -> new Object[]{size}).toArray(Object[][]::new);
+    }
+
+    /**
+     * Mide las operaciones del carrito y del Page Object con un carrito de N líneas
+     * @param lineItems Número de productos distintos en el carrito
+     */
+    @Test(dataProvider = "cartSizes", description = "Latencia del carrito según su número de líneas")
+    public void testCartScaling(int lineItems) {
+        LatencyRecorder.setProfile(CartScalingReport.profile(lineItems));
+        // Recorrer el catálogo y llenar carritos grandes supera el tiempo por defecto de los scripts
+        getDriver().manage().timeouts().scriptTimeout(Duration.ofMinutes(5));
+
+        new HomePage(getDriver(), instance.getBaseUrl()).navigate();
+        List<String> productIds = CartApi.collectProductIds(getDriver(), "/page", lineItems);
+        Assert.assertEquals(productIds.size(), lineItems, "El catálogo debería tener productos suficientes");
+        for (String productId : productIds) {
+            CartApi.Response added = CartApi.addToCart(getDriver(), productId, 1);
+            Assert.assertTrue(added.isOk(), "No se pudo añadir el producto: " + added.getBody());
+        }
+
+        CartPage cartPage = new CartPage(getDriver(), instance.getBaseUrl()).navigateToCheckoutCart();
+        Assert.assertEquals(cartPage.getNumberOfProducts(), lineItems, "El carrito debería mostrar todas las líneas");
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            // Los cambios se hacen sobre distintas líneas, empezando por el final del carrito
+            String productId = productIds.get(lineItems - 1 - i % lineItems);
+
+            recordCartCall("CartApi.updatecart", CartApi.updateCart(getDriver(), productId, productId, 2));
+            recordCartCall("CartApi.removefromcart", CartApi.removeFromCart(getDriver(), productId));
+            recordCartCall("CartApi.addtocart", CartApi.addToCart(getDriver(), productId, 1));
+
+            long start = System.nanoTime();
+            cartPage.navigateToCheckoutCart();
+            LatencyRecorder.record("CartPage.render", System.nanoTime() - start);
+            double[] timing = cartPage.getNavigationTiming();
+            if (timing != null) {
+                LatencyRecorder.record("CartPage.render.response", (long) (timing[0] * 1_000_000));
+            }
+
+            // La última línea es el peor caso de las búsquedas por título
+            List<String> titles = cartPage.getProductTitles();
+            String lastTitle = titles.get(titles.size() - 1);
+            int quantity = LatencyRecorder.time("CartPage.getProductQuantity", () -> cartPage.getProductQuantity(lastTitle));
+            Assert.assertTrue(quantity > 0, "Debería encontrarse la línea " + lastTitle);
+            LatencyRecorder.time("CartPage.getProductTotal", () -> cartPage.getProductTotal(lastTitle));
+            LatencyRecorder.time("CartPage.getNumberOfProducts", cartPage::getNumberOfProducts);
+        }
+        log.info("Carrito de {} líneas medido ({} iteraciones)", lineItems, ITERATIONS);
+    }
+
+    private void recordCartCall(String step, CartApi.Response response) {
+        Assert.assertTrue(response.isOk(), step + " falló (" + response.getStatus() + "): " + response.getBody());
+        LatencyRecorder.record(step, response.getNanos());
+    }
+
+    private static int[] sizes() {
+        return Arrays.stream(System.getProperty("cart.sizes", "10,100,500").split(","))
+                .map(String::trim)
+                .filter(size -> !size.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+}
@@ -0,0 +1,283 @@
+package com.expresscart.tests;
+
+import com.expresscart.pages.CartPage;
+import com.expresscart.pages.ProductPage;
+import com.expresscart.utils.BrowserEvents;
+import com.expresscart.utils.DriverProcessAccountant;
+import com.expresscart.utils.FailureSnapshot;
+import com.expresscart.utils.LatencyRecorder;
+import com.expresscart.utils.ProductFeed;
+import com.expresscart.utils.TestLogger;
+import com.expresscart.utils.WebDriverFactory;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.ITestContext;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cobertura de todo el catálogo: añadir al carrito y comprobar el precio de cada producto
+ *
+ * El DataProvider recorre en streaming el feed de productos publicados de expressCart
+ * (/googleproducts.xml, o el listado en JSON si la tienda todavía no lo ha generado, ver
+ * ProductFeed) y lo entrega en lotes de catalog.batch productos. Cada producto genera un
+ * caso, o uno por variante si tiene variantes: se abre el producto, se comprueba su
+ * precio, se añade al carrito y se comprueba el total de la línea en /checkout/cart.
+ *
+ * TestNG lee entero el iterador de un DataProvider paralelo antes de empezar, así que el
+ * DataProvider es secuencial y el paralelismo está dentro de cada lote: sus productos se
+ * reparten entre tantos hilos como indique data-provider-thread-count en
+ * testng-catalog.xml. En memoria solo está el lote en curso, y las variantes se leen en
+ * el hilo que ejecuta el caso. Cada hilo reutiliza su navegador entre casos (vaciando el
+ * carrito al borrar las cookies), por eso esta clase no hereda de BaseTest, que tiene un
+ * único navegador por instancia del test.
+ *
+ * Un lote falla con la lista de sus casos fallidos; cada fallo guarda su FailureSnapshot.
+ * Si el catálogo no tiene ningún producto publicado, el test falla en lugar de pasar sin
+ * haber comprobado nada.
+ *
+ * Propiedades del sistema:
+ * - catalog.baseUrl: tienda a recorrer (por defecto http://localhost:1111)
+ * - catalog.limit: número máximo de productos (por defecto 0, todo el catálogo)
+ * - catalog.batch: productos por lote (por defecto 20)
+ */
+public class CatalogCoverageTest {
+
+    private static final Logger log = TestLogger.getLogger(CatalogCoverageTest.class);
+
+    private static final String BASE_URL = System.getProperty("catalog.baseUrl", "http://localhost:1111");
+    private static final int LIMIT = Integer.getInteger("catalog.limit", 0);
+    private static final int BATCH = Math.max(1, Integer.getInteger("catalog.batch", 20));
+
+    // Navegador de cada hilo del pool
+    private final ThreadLocal<WebDriver> drivers = new ThreadLocal<>();
+    private final List<WebDriver> started = Collections.synchronizedList(new ArrayList<>());
+
+    private String browser;
+    private boolean headless;
+    private String throttling;
+    private ExecutorService executor;
+
+    /**
+     * Guarda la configuración de los navegadores, que se arrancan en cada hilo al primer caso
+     * @param browser Navegador a utilizar (chrome, firefox, edge)
+     * @param headless Si se debe ejecutar en modo headless
+     * @param throttling Perfiles de limitación de red/CPU separados por coma
+     * @param context Contexto del test, con el número de hilos de la suite
+     */
+    @BeforeClass(alwaysRun = true)
+    @Parameters({"browser", "headless", "throttling"})
+    public void configure(@Optional("chrome") String browser, @Optional("true") String headless,
+                          @Optional("none") String throttling, ITestContext context) {
+        this.browser = browser;
+        this.headless = Boolean.parseBoolean(headless);
+        this.throttling = throttling;
+        int threads = Math.max(1, context.getSuite().getXmlSuite().getDataProviderThreadCount());
+        AtomicInteger workers = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-" + workers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lotes del catálogo, leídos del feed a medida que TestNG los pide
+     * @return Un lote de productos por invocación; un único lote vacío si no hay productos
+     * @throws IOException Si no se puede descargar el feed
+     */
+    @DataProvider(name = "catalog")
+    public Iterator<Object[]> catalog() throws IOException {
+        ProductFeed feed = ProductFeed.open(BASE_URL);
+        return new Iterator<Object[]>() {
+            private int emitted;
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+                if (LIMIT > 0 && emitted >= LIMIT) {
+                    feed.close();
+                    return false;
+                }
+                // Sin productos se entrega un lote vacío para que el test lo informe
+                return feed.hasNext() || first;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                first = false;
+                List<ProductFeed.Item> batch = new ArrayList<>();
+                while (batch.size() < BATCH && (LIMIT <= 0 || emitted < LIMIT) && feed.hasNext()) {
+                    batch.add(feed.next());
+                    emitted++;
+                }
+                return new Object[]{batch};
+            }
+        };
+    }
+
+    /**
+     * Añade cada producto del lote (o cada una de sus variantes) al carrito y comprueba su precio
+     * @param batch Lote de productos del catálogo
+     * @throws InterruptedException Si se interrumpe la espera de los casos
+     */
+    @Test(dataProvider = "catalog", description = "Precio en la página y en el carrito de cada producto del catálogo")
+    public void testAddToCartPrice(List<ProductFeed.Item> batch) throws InterruptedException {
+        Assert.assertFalse(batch.isEmpty(), "El catálogo de " + BASE_URL
+                + " no tiene productos publicados: no se ha comprobado ningún precio");
+        List<Future<List<String>>> pending = new ArrayList<>();
+        for (ProductFeed.Item item : batch) {
+            pending.add(executor.submit(() -> checkProduct(item)));
+        }
+        List<String> failures = new ArrayList<>();
+        for (Future<List<String>> result : pending) {
+            try {
+                failures.addAll(result.get());
+            } catch (ExecutionException e) {
+                failures.add(String.valueOf(e.getCause()));
+            }
+        }
+        Assert.assertTrue(failures.isEmpty(), failures.size() + " casos del lote han fallado:\n"
+                + String.join("\n", failures));
+    }
+
+    /**
+     * Comprueba un producto, o cada una de sus variantes, en el navegador del hilo
+     * @return Descripción de cada caso fallido
+     */
+    private List<String> checkProduct(ProductFeed.Item item) {
+        List<ProductFeed.Variant> variants = ProductFeed.variants(BASE_URL, item);
+        List<CatalogCase> cases = new ArrayList<>();
+        if (variants.isEmpty()) {
+            cases.add(new CatalogCase(item, null));
+        }
+        variants.forEach(variant -> cases.add(new CatalogCase(item, variant)));
+
+        List<String> failures = new ArrayList<>();
+        for (CatalogCase product : cases) {
+            WebDriver driver = driver();
+            try {
+                checkCase(driver, product);
+            } catch (SkipException e) {
+                log.info("Caso omitido: {}", e.getMessage());
+            } catch (AssertionError | RuntimeException e) {
+                String snapshot = FailureSnapshot.takeSnapshot(driver, "testAddToCartPrice_" + product.item.getId());
+                failures.add(product + ": " + e.getMessage() + (snapshot == null ? "" : " [" + snapshot + "]"));
+            } finally {
+                resetDriver(driver);
+            }
+        }
+        return failures;
+    }
+
+    private void checkCase(WebDriver driver, CatalogCase product) {
+        ProductPage productPage = new ProductPage(driver, BASE_URL).navigate(product.item.getPath());
+        if (productPage.isOutOfStock()) {
+            throw new SkipException("Producto agotado: " + product);
+        }
+        if (product.variant != null) {
+            productPage.selectOption(product.variant.getTitle());
+        }
+        Assert.assertEquals(productPage.getProductPriceValue(), product.getExpectedPrice(), 0.01,
+                "El precio de la página de " + product + " debería coincidir con el catálogo");
+
+        productPage.addToCart();
+        Assert.assertTrue(productPage.isAddToCartSuccessMessageDisplayed(),
+                "El mensaje de éxito debería mostrarse para " + product);
+
+        CartPage cartPage = new CartPage(driver, BASE_URL).navigateToCheckoutCart();
+        Assert.assertEquals(cartPage.getProductTotal(product.item.getTitle()), product.getExpectedPrice(), 0.01,
+                "El total de la línea de " + product + " debería ser su precio");
+    }
+
+    /**
+     * Deja el navegador del hilo listo para el siguiente caso
+     * @param driver Navegador del hilo
+     */
+    private void resetDriver(WebDriver driver) {
+        BrowserEvents.of(driver).clear();
+        try {
+            // Sin la cookie de sesión el siguiente caso empieza con el carrito vacío
+            driver.manage().deleteAllCookies();
+        } catch (RuntimeException e) {
+            log.warn("El navegador del hilo no responde; se arrancará otro: {}", e.getMessage());
+            drivers.remove();
+            quit(driver);
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void quitDrivers() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        synchronized (started) {
+            new ArrayList<>(started).forEach(this::quit);
+        }
+    }
+
+    private WebDriver driver() {
+        WebDriver driver = drivers.get();
+        if (driver == null) {
+            LatencyRecorder.setProfile(throttling);
+            driver = WebDriverFactory.createDriver(browser, headless, throttling);
+            drivers.set(driver);
+            started.add(driver);
+        }
+        return driver;
+    }
+
+    private void quit(WebDriver driver) {
+        started.remove(driver);
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            log.warn("Error al cerrar el navegador: {}", e.getMessage());
+        } finally {
+            DriverProcessAccountant.release(driver);
+        }
+    }
+
+    /**
+     * Caso del catálogo: un producto publicado, o una de sus variantes
+     */
+    public static final class CatalogCase {
+        private final ProductFeed.Item item;
+        private final ProductFeed.Variant variant;
+
+        CatalogCase(ProductFeed.Item item, ProductFeed.Variant variant) {
+            this.item = item;
+            this.variant = variant;
+        }
+
+        double getExpectedPrice() {
+            return variant != null ? variant.getPrice() : item.getPrice();
+        }
+
+        @Override
+        public String toString() {
+            return variant != null ? item.getTitle() + " [" + variant.getTitle() + "]" : item.getTitle();
+        }
+    }
+}
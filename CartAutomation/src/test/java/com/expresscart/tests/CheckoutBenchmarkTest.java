@@ -0,0 +1,155 @@
+package com.expresscart.tests;
+
+import com.expresscart.pages.CheckoutInformationPage;
+import com.expresscart.pages.CheckoutPaymentPage;
+import com.expresscart.pages.HomePage;
+import com.expresscart.pages.OrderCompletePage;
+import com.expresscart.utils.DriverProcessAccountant;
+import com.expresscart.utils.LatencyRecorder;
+import com.expresscart.utils.WebDriverFactory;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmark del proceso de compra: latencia de cada paso y pedidos por segundo
+ *
+ * Varios navegadores en paralelo repiten el checkout completo con pago en tienda, cada
+ * pedido con una sesión nueva. La latencia de cada paso (Checkout.information,
+ * Checkout.shipping, Checkout.payment, Checkout.placeOrder) y del pedido completo
+ * (Checkout.order) se registra en LatencyRecorder; el rendimiento sostenido se escribe
+ * en target/latency/checkout-throughput.csv. El tiempo empieza a contar cuando todos los
+ * navegadores han arrancado, para que su arranque no rebaje los pedidos por segundo.
+ *
+ * Propiedades del sistema:
+ * - checkout.workers: navegadores en paralelo (por defecto 4)
+ * - checkout.orders: pedidos por navegador (por defecto 5)
+ */
+public class CheckoutBenchmarkTest extends BaseTest {
+
+    private static final String REPORT_PATH = "target/latency/checkout-throughput.csv";
+    private static final int WORKERS = Integer.getInteger("checkout.workers", 4);
+    private static final int ORDERS_PER_WORKER = Integer.getInteger("checkout.orders", 5);
+
+    /**
+     * Mide los pedidos por segundo que sostiene la tienda con varios navegadores en paralelo
+     * @param browser Navegador de los workers
+     * @param headless Si los workers se ejecutan en modo headless
+     * @param throttling Perfiles de limitación de los workers
+     */
+    @Test(description = "Pedidos por segundo con varios navegadores en paralelo")
+    @Parameters({"browser", "headless", "throttling"})
+    public void testCheckoutThroughput(@Optional("chrome") String browser, @Optional("false") String headless,
+                                       @Optional("none") String throttling) throws Exception {
+        // Un pedido con el navegador del test comprueba que el pago en tienda está activo
+        placeOrder(getDriver(), "warmup");
+
+        String profile = LatencyRecorder.getProfile();
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        List<Future<?>> workers = new ArrayList<>();
+        CountDownLatch ready = new CountDownLatch(WORKERS);
+        CountDownLatch go = new CountDownLatch(1);
+        for (int w = 0; w < WORKERS; w++) {
+            String worker = "w" + w;
+            workers.add(executor.submit(() -> {
+                LatencyRecorder.setProfile(profile);
+                WebDriver workerDriver;
+                try {
+                    workerDriver = WebDriverFactory.createDriver(browser, Boolean.parseBoolean(headless), throttling);
+                } finally {
+                    // Un navegador que no arranca no bloquea a los demás
+                    ready.countDown();
+                }
+                try {
+                    go.await();
+                    for (int i = 0; i < ORDERS_PER_WORKER; i++) {
+                        try {
+                            placeOrder(workerDriver, worker + "-" + i);
+                            placed.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                            log.warn("Pedido {}-{} fallido: {}", worker, i, e.getMessage());
+                        }
+                    }
+                } finally {
+                    try {
+                        workerDriver.quit();
+                    } finally {
+                        DriverProcessAccountant.release(workerDriver);
+                    }
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        // Todos los workers salen a la vez con su navegador ya arrancado
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        double ordersPerSecond = placed.get() / seconds;
+
+        log.info(String.format(Locale.ROOT, "Checkout con %d navegadores: %d pedidos (%d fallidos) en %.1f s, %.2f pedidos/s",
+                WORKERS, placed.get(), failed.get(), seconds, ordersPerSecond));
+        writeReport(profile, placed.get(), failed.get(), seconds, ordersPerSecond);
+        Assert.assertEquals(failed.get(), 0, "Todos los pedidos deberían completarse");
+    }
+
+    /**
+     * Realiza un pedido completo en una sesión nueva y registra su duración total
+     */
+    private void placeOrder(WebDriver browser, String orderTag) {
+        long start = System.nanoTime();
+        browser.manage().deleteAllCookies();
+        HomePage homePage = new HomePage(browser);
+        homePage.navigate();
+        CheckoutPaymentPage paymentPage = homePage.selectProduct(CheckoutTest.PRODUCT)
+                .addToCart()
+                .goToCart()
+                .proceedToCheckout()
+                .enterCustomerDetails(CheckoutInformationPage.Customer.sample("bench-" + orderTag + "@test.com"))
+                .continueToShipping()
+                .proceedToPayment();
+        if (!paymentPage.isInstorePaymentAvailable()) {
+            throw new SkipException("El módulo de pago instore no está activo en expressCart");
+        }
+        OrderCompletePage completePage = paymentPage.placeInstoreOrder();
+        if (!completePage.isOrderPlaced()) {
+            throw new IllegalStateException("Pedido rechazado: " + completePage.getStatusMessage());
+        }
+        LatencyRecorder.record("Checkout.order", System.nanoTime() - start);
+    }
+
+    private void writeReport(String profile, int placed, int failed, double seconds, double ordersPerSecond) {
+        File report = new File(REPORT_PATH);
+        report.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(report, StandardCharsets.UTF_8)) {
+            out.println("profile,workers,orders,failed,seconds,orders_per_second");
+            out.println(String.format(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.2f",
+                    profile, WORKERS, placed, failed, seconds, ordersPerSecond));
+        } catch (IOException e) {
+            log.error("Error al escribir el rendimiento del checkout: {}", e.getMessage());
+        }
+    }
+}
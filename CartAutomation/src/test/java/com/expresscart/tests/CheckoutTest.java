@@ -0,0 +1,51 @@
+package com.expresscart.tests;
+
+import com.expresscart.pages.CartPage;
+import com.expresscart.pages.CheckoutInformationPage;
+import com.expresscart.pages.CheckoutPaymentPage;
+import com.expresscart.pages.CheckoutShippingPage;
+import com.expresscart.pages.HomePage;
+import com.expresscart.pages.OrderCompletePage;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+/**
+ * Pruebas del proceso de compra completo con pago en tienda (instore)
+ */
+public class CheckoutTest extends BaseTest {
+
+    static final String PRODUCT = "Camiseta Basica";
+
+    /**
+     * Prueba el checkout de principio a fin: datos del cliente, envío, pago y pedido
+     */
+    @Test(description = "Completar un pedido con pago en tienda")
+    public void testInstoreCheckout() {
+        HomePage homePage = new HomePage(getDriver());
+        homePage.navigate();
+
+        CartPage cartPage = homePage.selectProduct(PRODUCT).addToCart().goToCart();
+        Assert.assertFalse(cartPage.isCartEmpty(), "El carrito no debería estar vacío");
+
+        CheckoutInformationPage informationPage = cartPage.proceedToCheckout();
+        informationPage.enterCustomerDetails(
+                CheckoutInformationPage.Customer.sample("checkout-" + System.currentTimeMillis() + "@test.com"));
+
+        CheckoutShippingPage shippingPage = informationPage.continueToShipping();
+        Assert.assertFalse(shippingPage.getShippingMessage().isEmpty(), "Debería mostrarse la opción de envío");
+
+        CheckoutPaymentPage paymentPage = shippingPage.proceedToPayment();
+        if (!paymentPage.isInstorePaymentAvailable()) {
+            throw new SkipException("El módulo de pago instore no está activo en expressCart");
+        }
+
+        OrderCompletePage completePage = paymentPage.placeInstoreOrder();
+        Assert.assertTrue(completePage.isOrderPlaced(), "El pedido debería quedar registrado: "
+                + completePage.getStatusMessage());
+        Assert.assertFalse(completePage.getOrderId().isEmpty(), "Debería mostrarse el identificador del pedido");
+
+        // El pedido vacía el carrito
+        Assert.assertTrue(new HomePage(getDriver()).goToCart().isCartEmpty(), "El carrito debería quedar vacío");
+    }
+}
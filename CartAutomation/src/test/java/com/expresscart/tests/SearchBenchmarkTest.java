@@ -0,0 +1,102 @@
+package com.expresscart.tests;
+
+import com.expresscart.pages.BasePage;
+import com.expresscart.pages.CategoryPage;
+import com.expresscart.pages.HomePage;
+import com.expresscart.pages.SearchPage;
+import com.expresscart.utils.ExpressCartInstance;
+import com.expresscart.utils.LatencyRecorder;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de búsqueda, categorías y paginación según el tamaño del catálogo
+ *
+ * Para cada tamaño se siembra una instancia propia de expressCart (otro puerto y otra
+ * base de datos) y se miden la primera y la última página de cada listado. Las muestras
+ * se registran en LatencyRecorder con el perfil "catalogo-N", así que aparecen en
+ * target/latency/latency-summary.csv una fila por tamaño y paso.
+ *
+ * Propiedades del sistema:
+ * - benchmark.sizes: tamaños del catálogo separados por coma (por defecto 100,10000,100000)
+ * - benchmark.iterations: mediciones por paso y tamaño (por defecto 5)
+ * - benchmark.port: puerto de la instancia de benchmark (por defecto 1112)
+ */
+public class SearchBenchmarkTest extends BaseTest {
+
+    private static final String SEARCH_TERM = "benchmark";
+    private static final String CATEGORY = "backpack";
+    private static final String DATABASE = "expresscart-bench";
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    private static final int PORT = Integer.getInteger("benchmark.port", 1112);
+
+    @DataProvider(name = "catalogSizes")
+    public Object[][] catalogSizes() {
+        return Arrays.stream(System.getProperty("benchmark.sizes", "100,10000,100000").split(","))
+                .map(String::trim)
+                .filter(size -> !size.isEmpty())
+                .map(size -> new Object[]{Integer.parseInt(size)})
+                .toArray(Object[][]::new);
+    }
+
+    /**
+     * Mide búsqueda, categoría y paginación con un catálogo de un tamaño dado
+     * @param size Número de productos del catálogo
+     */
+    @Test(dataProvider = "catalogSizes", description = "Latencia de búsqueda y paginación según el tamaño del catálogo")
+    public void testSearchLatencyByCatalogSize(int size) throws Exception {
+        LatencyRecorder.setProfile("catalogo-" + size);
+
+        try (ExpressCartInstance instance = ExpressCartInstance.create(PORT, DATABASE)) {
+            long seedMillis = instance.seed(size);
+            LatencyRecorder.record("Benchmark.seed", TimeUnit.MILLISECONDS.toNanos(seedMillis));
+            // El índice de búsqueda se construye al arrancar la aplicación
+            long startMillis = instance.start();
+            LatencyRecorder.record("Benchmark.startAndIndex", TimeUnit.MILLISECONDS.toNanos(startMillis));
+            log.info("Catálogo de {} productos: sembrado en {} ms, arranque e indexado en {} ms",
+                    size, seedMillis, startMillis);
+
+            SearchPage searchPage = new SearchPage(getDriver(), instance.getBaseUrl());
+            CategoryPage categoryPage = new CategoryPage(getDriver(), instance.getBaseUrl());
+            HomePage homePage = new HomePage(getDriver(), instance.getBaseUrl());
+
+            // Calentamiento: la primera carga compila las vistas y llena las cachés
+            searchPage.navigate(SEARCH_TERM);
+            Assert.assertEquals(searchPage.getTotalItemCount(), size,
+                    "La búsqueda debería encontrar todo el catálogo");
+            int searchPages = searchPage.getTotalPages();
+            categoryPage.navigate(CATEGORY);
+            Assert.assertTrue(categoryPage.getTotalItemCount() > 0, "La categoría no debería estar vacía");
+            int categoryPages = categoryPage.getTotalPages();
+
+            for (int i = 0; i < ITERATIONS; i++) {
+                measure("SearchPage.firstPage", searchPage, () -> searchPage.navigate(SEARCH_TERM));
+                measure("SearchPage.lastPage", searchPage, () -> searchPage.navigate(SEARCH_TERM, searchPages));
+                measure("CategoryPage.firstPage", categoryPage, () -> categoryPage.navigate(CATEGORY));
+                measure("CategoryPage.lastPage", categoryPage, () -> categoryPage.navigate(CATEGORY, categoryPages));
+                measure("HomePage.lastPage", homePage, () -> homePage.navigateToPage(searchPages));
+            }
+            Assert.assertEquals(searchPage.navigate(SEARCH_TERM, searchPages).getPageNum(), searchPages,
+                    "La última página de resultados debería ser accesible");
+        }
+    }
+
+    /**
+     * Registra el tiempo total de un paso y, si el navegador los expone, su desglose
+     * en respuesta del servidor (.response) y renderizado (.render)
+     */
+    private void measure(String step, BasePage page, Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        LatencyRecorder.record(step, System.nanoTime() - start);
+        double[] timing = page.getNavigationTiming();
+        if (timing != null) {
+            LatencyRecorder.record(step + ".response", (long) (timing[0] * 1_000_000));
+            LatencyRecorder.record(step + ".render", (long) (timing[1] * 1_000_000));
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.LogInspector;
+import org.openqa.selenium.bidi.Network;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestResult;
+
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Eventos del navegador publicados a medida que ocurren: mensajes de consola, excepciones
+ * de JavaScript no capturadas y respuestas de red
+ *
+ * Cada navegador creado por WebDriverFactory tiene su propio bus. En chrome y edge se
+ * suscribe por DevTools y en firefox por WebDriver BiDi; los eventos llegan por el
+ * websocket del protocolo en cuanto el navegador los emite, sin consultar el DOM. Los
+ * tests y las esperas pueden suscribirse (subscribe) o esperar, mientras ejecutan una
+ * acción, al primer evento que cumpla una condición (waitFor).
+ *
+ * Los últimos eventos se guardan en un buffer acotado. BaseTest lo vacía al empezar cada
+ * test y, si el test falla, lo adjunta al resultado (BROWSER_EVENTS_ATTRIBUTE) y a la
+ * salida. Las respuestas correctas de recursos estáticos (css, js, imágenes, fuentes) se
+ * descartan para que no desplacen a las de la tienda.
+ *
+ * Propiedades del sistema:
+ * - browser.events: suscribirse a los eventos del navegador (por defecto true)
+ * - browser.events.buffer: eventos que se guardan por navegador (por defecto 200)
+ */
+public final class BrowserEvents {
+
+    public static final String BROWSER_EVENTS_ATTRIBUTE = "browserEvents";
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserEvents.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("browser.events", "true"));
+    private static final int CAPACITY = Integer.getInteger("browser.events.buffer", 200);
+    private static final Pattern STATIC_ASSET = Pattern.compile(
+            "\\.(css|js|map|png|jpe?g|gif|svg|webp|ico|woff2?|ttf|eot)$", Pattern.CASE_INSENSITIVE);
+
+    // El bus no guarda referencias al driver: se libera cuando el driver deja de usarse
+    private static final Map<WebDriver, BrowserEvents> BUSES = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final BrowserEvents UNSUPPORTED = new BrowserEvents(false);
+
+    private final boolean supported;
+    private final Deque<Event> buffer = new ArrayDeque<>();
+    private final List<Consumer<Event>> listeners = new CopyOnWriteArrayList<>();
+
+    private BrowserEvents(boolean supported) {
+        this.supported = supported;
+    }
+
+    /**
+     * Prepara las opciones de firefox: solo publica eventos BiDi si la sesión se crea con
+     * el websocket habilitado
+     * @param options Opciones del navegador
+     */
+    static void configure(MutableCapabilities options) {
+        if (ENABLED) {
+            options.setCapability("webSocketUrl", true);
+        }
+    }
+
+    /**
+     * Suscribe un navegador recién creado a sus eventos
+     * @param driver Navegador
+     * @param browser Nombre del navegador (chrome, firefox, edge)
+     */
+    static void register(WebDriver driver, String browser) {
+        if (!ENABLED) {
+            return;
+        }
+        BrowserEvents bus = new BrowserEvents(true);
+        try {
+            if ("firefox".equalsIgnoreCase(browser)) {
+                bus.listenBiDi(driver);
+            } else if (driver instanceof HasDevTools) {
+                bus.listenDevTools(((HasDevTools) driver).getDevTools());
+            } else {
+                log.debug("{} no publica eventos del navegador", browser);
+                return;
+            }
+            BUSES.put(driver, bus);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo suscribir a los eventos de {}: {}", browser, e.getMessage());
+        }
+    }
+
+    /**
+     * Bus de eventos de un navegador
+     * @param driver Navegador creado por WebDriverFactory
+     * @return Bus del navegador; si no publica eventos, uno vacío (isSupported() es false)
+     */
+    public static BrowserEvents of(WebDriver driver) {
+        BrowserEvents bus = driver == null ? null : BUSES.get(driver);
+        return bus != null ? bus : UNSUPPORTED;
+    }
+
+    public boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * Recibe cada evento en cuanto llega, en el hilo del protocolo: el listener no debe bloquear
+     * @param listener Receptor de eventos
+     */
+    public void subscribe(Consumer<Event> listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Consumer<Event> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Ejecuta una acción y espera al primer evento posterior que cumpla la condición
+     * @param condition Condición del evento (ej: BrowserEvents.response("/product/addtocart"))
+     * @param timeout Tiempo máximo de espera
+     * @param action Acción que provoca el evento
+     * @return Evento recibido
+     * @throws TimeoutException Si no llega el evento a tiempo
+     */
+    public Event waitFor(Predicate<Event> condition, Duration timeout, Runnable action) {
+        if (!supported) {
+            throw new UnsupportedOperationException("El navegador no publica eventos (DevTools/BiDi)");
+        }
+        CompletableFuture<Event> found = new CompletableFuture<>();
+        Consumer<Event> listener = event -> {
+            if (condition.test(event)) {
+                found.complete(event);
+            }
+        };
+        // Suscrito antes de la acción para no perder un evento que llegue enseguida
+        subscribe(listener);
+        try {
+            action.run();
+            return found.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (java.util.concurrent.TimeoutException e) {
+            throw new TimeoutException("No llegó el evento esperado del navegador en " + timeout.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando un evento del navegador", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            unsubscribe(listener);
+        }
+    }
+
+    /**
+     * Eventos guardados, del más antiguo al más reciente
+     * @return Copia del buffer
+     */
+    public List<Event> snapshot() {
+        synchronized (buffer) {
+            return new ArrayList<>(buffer);
+        }
+    }
+
+    /**
+     * Eventos guardados que indican un error (ver Event.isError())
+     * @return Errores del buffer en orden
+     */
+    public List<Event> errors() {
+        return snapshot().stream().filter(Event::isError).collect(Collectors.toList());
+    }
+
+    public void clear() {
+        synchronized (buffer) {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Condición para respuestas de la tienda a una ruta
+     * @param path Inicio de la ruta (ej: "/product/" para todas las llamadas de producto)
+     * @return Condición para waitFor
+     */
+    public static Predicate<Event> response(String path) {
+        return event -> event.type == Type.RESPONSE && event.getPath().startsWith(path);
+    }
+
+    /**
+     * Adjunta los eventos del navegador a un test fallido
+     * @param result Resultado del test
+     * @param driver Navegador del test
+     */
+    public static void attachTo(ITestResult result, WebDriver driver) {
+        List<Event> events = of(driver).snapshot();
+        if (events.isEmpty()) {
+            return;
+        }
+        result.setAttribute(BROWSER_EVENTS_ATTRIBUTE, events);
+
+        StringBuilder block = new StringBuilder();
+        events.forEach(event -> block.append(System.lineSeparator()).append(event));
+        log.info("Eventos del navegador de {}:{}", result.getMethod().getQualifiedName(), block);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void listenDevTools(DevTools devTools) {
+        devTools.createSessionIfThereIsNotOne();
+        devTools.send(new Command<>("Runtime.enable", Collections.emptyMap()));
+        devTools.send(new Command<>("Network.enable", Collections.emptyMap()));
+
+        devTools.addListener(cdpEvent("Runtime.consoleAPICalled"), params -> {
+            List<Object> args = (List<Object>) params.getOrDefault("args", Collections.emptyList());
+            String text = args.stream()
+                    .map(arg -> (Map<String, Object>) arg)
+                    .map(arg -> String.valueOf(arg.containsKey("value") ? arg.get("value") : arg.get("description")))
+                    .collect(Collectors.joining(" "));
+            publish(new Event(Type.CONSOLE, consoleLevel(String.valueOf(params.get("type"))), text, null, 0));
+        });
+        devTools.addListener(cdpEvent("Runtime.exceptionThrown"), params -> {
+            Map<String, Object> details = (Map<String, Object>) params.get("exceptionDetails");
+            Map<String, Object> exception = (Map<String, Object>) details.get("exception");
+            Object text = exception != null && exception.get("description") != null
+                    ? exception.get("description") : details.get("text");
+            publish(new Event(Type.EXCEPTION, "error", String.valueOf(text), (String) details.get("url"), 0));
+        });
+        devTools.addListener(cdpEvent("Network.responseReceived"), params -> {
+            Map<String, Object> response = (Map<String, Object>) params.get("response");
+            publish(new Event(Type.RESPONSE, null, (String) response.get("statusText"),
+                    (String) response.get("url"), ((Number) response.get("status")).intValue()));
+        });
+    }
+
+    private void listenBiDi(WebDriver driver) {
+        LogInspector logs = new LogInspector(driver);
+        logs.onConsoleEntry(entry -> publish(new Event(Type.CONSOLE,
+                entry.getLevel().toString().toLowerCase(Locale.ROOT), entry.getText(), null, 0)));
+        logs.onJavaScriptException(entry -> publish(new Event(Type.EXCEPTION, "error", entry.getText(), null, 0)));
+
+        Network network = new Network(driver);
+        network.onResponseCompleted(details -> publish(new Event(Type.RESPONSE, null,
+                details.getResponseData().getStatusText(), details.getResponseData().getUrl(),
+                (int) details.getResponseData().getStatus())));
+    }
+
+    private static org.openqa.selenium.devtools.Event<Map<String, Object>> cdpEvent(String method) {
+        return new org.openqa.selenium.devtools.Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    private static String consoleLevel(String type) {
+        switch (type) {
+            case "error":
+            case "assert":
+                return "error";
+            case "warning":
+                return "warning";
+            case "debug":
+                return "debug";
+            default:
+                return "info";
+        }
+    }
+
+    private void publish(Event event) {
+        if (event.type == Type.RESPONSE && !event.isError() && STATIC_ASSET.matcher(event.getPath()).find()) {
+            return;
+        }
+        synchronized (buffer) {
+            if (buffer.size() >= CAPACITY) {
+                buffer.removeFirst();
+            }
+            buffer.addLast(event);
+        }
+        for (Consumer<Event> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.debug("Error en un listener de eventos del navegador: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Tipo de evento del navegador
+     */
+    public enum Type {
+        CONSOLE, EXCEPTION, RESPONSE
+    }
+
+    /**
+     * Evento del navegador
+     */
+    public static final class Event {
+        private final Type type;
+        private final long timestamp = System.currentTimeMillis();
+        private final String level;
+        private final String text;
+        private final String url;
+        private final int status;
+
+        Event(Type type, String level, String text, String url, int status) {
+            this.type = type;
+            this.level = level;
+            this.text = text;
+            this.url = url;
+            this.status = status;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Momento en que se recibió el evento
+         * @return Milisegundos desde epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Nivel de un mensaje de consola
+         * @return error, warning, info o debug; null en las respuestas
+         */
+        public String getLevel() {
+            return level;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Ruta de la URL del evento, sin consulta ni fragmento
+         * @return Ruta (ej: "/product/addtocart"); vacía si el evento no tiene URL
+         */
+        public String getPath() {
+            if (url == null) {
+                return "";
+            }
+            String path = url.replaceFirst("^[a-zA-Z][a-zA-Z0-9+.-]*://[^/]*", "");
+            int end = path.indexOf('?') >= 0 ? path.indexOf('?') : path.indexOf('#');
+            return end >= 0 ? path.substring(0, end) : path;
+        }
+
+        /**
+         * Código de estado HTTP de una respuesta
+         * @return Código de estado; 0 en los demás eventos
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Excepción de JavaScript, error de consola o respuesta con código 4xx/5xx
+         * @return true si el evento indica un error
+         */
+        public boolean isError() {
+            switch (type) {
+                case EXCEPTION:
+                    return true;
+                case CONSOLE:
+                    return "error".equals(level);
+                default:
+                    return status >= 400;
+            }
+        }
+
+        @Override
+        public String toString() {
+            String time = new SimpleDateFormat("HH:mm:ss.SSS").format(new Date(timestamp));
+            switch (type) {
+                case RESPONSE:
+                    return time + " RESPONSE " + status + " " + url;
+                case CONSOLE:
+                    return time + " CONSOLE " + level + " " + text;
+                default:
+                    return time + " EXCEPTION " + text + (url != null && !url.isEmpty() ? " (" + url + ")" : "");
+            }
+        }
+    }
+}
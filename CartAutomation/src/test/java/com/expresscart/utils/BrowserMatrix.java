@@ -0,0 +1,273 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IAlterSuiteListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Ejecución de la suite en varios navegadores a la vez, en una sola JVM
+ *
+ * Con matrix.browsers (ej: "chrome,firefox,edge") cada <test> de la suite se duplica una
+ * vez por navegador, con el parámetro "browser" correspondiente, y los <test> se ejecutan
+ * en paralelo. Cada navegador recibe una parte igual de los núcleos y la memoria del
+ * equipo, y BaseTest no arranca una sesión más de un navegador si no cabe en su parte
+ * según el coste por sesión medido por DriverProcessAccountant (o uno estimado hasta que
+ * haya muestras). Así un navegador pesado no satura el equipo y los demás no esperan.
+ *
+ * Al terminar se escribe target/browser-matrix.csv con el resultado de cada test en cada
+ * navegador, y en el log el resumen por navegador.
+ *
+ * Propiedades del sistema:
+ * - matrix.browsers: navegadores separados por coma (vacío por defecto: sin matriz)
+ * - matrix.cpu: núcleos disponibles para los navegadores (por defecto todos los del equipo)
+ * - matrix.memory: MB disponibles para los navegadores (por defecto el 75% de la memoria física)
+ */
+public class BrowserMatrix implements IAlterSuiteListener, ISuiteListener, ITestListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserMatrix.class);
+
+    private static final List<String> BROWSERS = Collections.unmodifiableList(
+            Arrays.stream(System.getProperty("matrix.browsers", "").split(","))
+                    .map(browser -> browser.trim().toLowerCase())
+                    .filter(browser -> !browser.isEmpty())
+                    .distinct()
+                    .collect(Collectors.toList()));
+    private static final String REPORT_PATH = "target/browser-matrix.csv";
+    private static final String DEFAULT_BROWSER = "chrome";
+
+    // Coste estimado de una sesión (RSS en MB, CPU en % de un núcleo) hasta tener muestras
+    private static final double ESTIMATED_RSS_MB = 700;
+    private static final double ESTIMATED_CPU_PERCENT = 100;
+
+    private static final Object LOCK = new Object();
+    private static final Map<String, Integer> RUNNING = new HashMap<>();
+    private static final Map<String, Integer> PEAK = new HashMap<>();
+
+    // test -> navegador -> resultado
+    private static final Map<String, Map<String, String>> RESULTS = new TreeMap<>();
+
+    public static boolean isEnabled() {
+        return !BROWSERS.isEmpty();
+    }
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (XmlSuite suite : suites) {
+            List<XmlTest> originals = new ArrayList<>(suite.getTests());
+            List<XmlTest> tests = new ArrayList<>();
+            for (XmlTest original : originals) {
+                for (String browser : BROWSERS) {
+                    // clone() añade la copia a la suite: la lista se sustituye al final
+                    XmlTest copy = (XmlTest) original.clone();
+                    copy.setName(original.getName() + " [" + browser + "]");
+                    copy.addParameter("browser", browser);
+                    copy.setIndex(tests.size());
+                    tests.add(copy);
+                }
+            }
+            suite.setTests(tests);
+            suite.setParallel(XmlSuite.ParallelMode.TESTS);
+            // Los hilos de más esperan en acquire a que su navegador tenga hueco
+            suite.setThreadCount(Math.max(suite.getThreadCount(), 1) * BROWSERS.size());
+            log.info("Matriz de navegadores {}: {} tests en {} hilos", BROWSERS, tests.size(), suite.getThreadCount());
+        }
+    }
+
+    /**
+     * Espera a que haya hueco para una sesión más del navegador
+     * @param browser Navegador de la sesión
+     */
+    public static void acquire(String browser) {
+        if (!isEnabled()) {
+            return;
+        }
+        String key = browser.toLowerCase();
+        synchronized (LOCK) {
+            while (RUNNING.getOrDefault(key, 0) >= capacity(key)) {
+                try {
+                    LOCK.wait(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrumpido esperando una sesión de " + browser, e);
+                }
+            }
+            int running = RUNNING.merge(key, 1, Integer::sum);
+            PEAK.merge(key, running, Math::max);
+        }
+    }
+
+    /**
+     * Libera el hueco de una sesión cerrada o devuelta al pool
+     * @param browser Navegador de la sesión
+     */
+    public static void release(String browser) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (LOCK) {
+            RUNNING.computeIfPresent(browser.toLowerCase(), (key, running) -> running > 1 ? running - 1 : null);
+            LOCK.notifyAll();
+        }
+    }
+
+    /**
+     * Perfil de latencias de un test: en la matriz se separan las latencias de cada
+     * navegador, salvo las del navegador por defecto, que siguen comparándose con la
+     * línea base
+     * @param throttling Perfiles de limitación
+     * @param browser Navegador
+     * @return Perfil para LatencyRecorder
+     */
+    public static String profile(String throttling, String browser) {
+        if (!isEnabled() || DEFAULT_BROWSER.equalsIgnoreCase(browser)) {
+            return throttling;
+        }
+        return throttling + "@" + browser.toLowerCase();
+    }
+
+    /**
+     * Sesiones simultáneas que caben en la parte del equipo de un navegador
+     * @param browser Navegador
+     * @return Sesiones (al menos una)
+     */
+    static int capacity(String browser) {
+        double share = 1.0 / BROWSERS.size();
+        DriverProcessAccountant.BrowserCost cost = DriverProcessAccountant.getBrowserCost(browser);
+        double rssMb = cost != null && cost.getRssMb() > 0 ? cost.getRssMb() : ESTIMATED_RSS_MB;
+        double cpuPercent = cost != null && cost.getCpuPercent() > 0 ? cost.getCpuPercent() : ESTIMATED_CPU_PERCENT;
+        int byCpu = (int) (cpuBudget() * 100 * share / cpuPercent);
+        int byMemory = (int) (memoryBudgetMb() * share / rssMb);
+        return Math.max(1, Math.min(byCpu, byMemory));
+    }
+
+    private static double cpuBudget() {
+        String value = System.getProperty("matrix.cpu");
+        return value != null ? Double.parseDouble(value) : Runtime.getRuntime().availableProcessors();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static double memoryBudgetMb() {
+        String value = System.getProperty("matrix.memory");
+        if (value != null) {
+            return Double.parseDouble(value);
+        }
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean) {
+            long total = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                    .getTotalPhysicalMemorySize();
+            return total * 0.75 / (1024 * 1024);
+        }
+        return 4096;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, "PASS");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, "FAIL");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        // Un intento que se va a repetir no es el resultado final
+        record(result, result.wasRetried() ? "RETRY" : "SKIP");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        record(result, "PASS");
+    }
+
+    private static void record(ITestResult result, String status) {
+        if (!isEnabled()) {
+            return;
+        }
+        String browser = result.getTestContext().getCurrentXmlTest().getParameter("browser");
+        String test = result.getMethod().getQualifiedName();
+        if (result.getParameters().length > 0) {
+            test += Arrays.toString(result.getParameters());
+        }
+        synchronized (RESULTS) {
+            RESULTS.computeIfAbsent(test, k -> new LinkedHashMap<>()).put(browser == null ? DEFAULT_BROWSER : browser, status);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!isEnabled()) {
+            return;
+        }
+        writeReport();
+    }
+
+    /**
+     * Escribe la matriz de resultados en target/browser-matrix.csv y el resumen por
+     * navegador en el log
+     */
+    public static void writeReport() {
+        Map<String, Map<String, String>> results;
+        synchronized (RESULTS) {
+            if (RESULTS.isEmpty()) {
+                return;
+            }
+            results = new TreeMap<>(RESULTS);
+        }
+        File report = new File(REPORT_PATH);
+        report.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(report, StandardCharsets.UTF_8)) {
+            out.println("test," + String.join(",", BROWSERS));
+            results.forEach((test, byBrowser) -> out.println("\"" + test.replace("\"", "\"\"") + "\","
+                    + BROWSERS.stream().map(browser -> byBrowser.getOrDefault(browser, "")).collect(Collectors.joining(","))));
+        } catch (IOException e) {
+            log.error("Error al escribir la matriz de navegadores: {}", e.getMessage());
+        }
+
+        log.info("Matriz de navegadores ({}):", REPORT_PATH);
+        for (String browser : BROWSERS) {
+            Map<String, Integer> counts = new TreeMap<>();
+            results.values().forEach(byBrowser -> {
+                String status = byBrowser.get(browser);
+                if (status != null) {
+                    counts.merge(status, 1, Integer::sum);
+                }
+            });
+            DriverProcessAccountant.BrowserCost cost = DriverProcessAccountant.getBrowserCost(browser);
+            String measured = cost == null ? "sin muestras"
+                    : String.format(Locale.ROOT, "%.0f MB y %.0f%% CPU por sesión", cost.getRssMb(), cost.getCpuPercent());
+            int peak;
+            synchronized (LOCK) {
+                peak = PEAK.getOrDefault(browser, 0);
+            }
+            log.info("  {}: {} superados, {} fallidos, {} saltados; {} sesiones simultáneas (límite {}), {}",
+                    browser, counts.getOrDefault("PASS", 0), counts.getOrDefault("FAIL", 0),
+                    counts.getOrDefault("SKIP", 0), peak, capacity(browser), measured);
+        }
+    }
+}
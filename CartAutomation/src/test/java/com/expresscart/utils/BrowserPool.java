@@ -0,0 +1,152 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Navegadores calientes reutilizables entre tests
+ *
+ * Solo está activo con browser.pool=true (lo activa TestDaemon): en una ejecución normal
+ * de Maven cada test sigue arrancando y cerrando su navegador. Con el pool activo, al
+ * terminar un test su navegador se limpia (cookies, almacenamiento local, about:blank) y
+ * queda libre para el siguiente test que pida el mismo navegador, modo headless y
+ * perfiles de limitación, que se aplican al crearlo.
+ */
+public final class BrowserPool {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserPool.class);
+
+    private static final Map<String, Deque<WebDriver>> IDLE = new HashMap<>();
+    private static final Map<WebDriver, String> KEYS = new IdentityHashMap<>();
+
+    private BrowserPool() {
+        // Clase de utilidad
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("browser.pool");
+    }
+
+    /**
+     * Obtiene un navegador libre del pool o crea uno nuevo
+     * @param browser Navegador (chrome, firefox, edge)
+     * @param headless Si se ejecuta en modo headless
+     * @param throttling Perfiles de limitación separados por coma
+     * @return Navegador listo para usar
+     */
+    public static WebDriver acquire(String browser, boolean headless, String throttling) {
+        if (!isEnabled()) {
+            return WebDriverFactory.createDriver(browser, headless, throttling);
+        }
+        String key = key(browser, headless, throttling);
+        synchronized (BrowserPool.class) {
+            Deque<WebDriver> idle = IDLE.get(key);
+            if (idle != null && !idle.isEmpty()) {
+                log.debug("Reutilizando navegador del pool ({})", key);
+                return idle.pop();
+            }
+        }
+        WebDriver driver = WebDriverFactory.createDriver(browser, headless, throttling);
+        synchronized (BrowserPool.class) {
+            KEYS.put(driver, key);
+        }
+        return driver;
+    }
+
+    /**
+     * Arranca navegadores por adelantado para que el primer test no espere
+     * @param count Número de navegadores
+     * @param browser Navegador
+     * @param headless Si se ejecutan en modo headless
+     * @param throttling Perfiles de limitación
+     */
+    public static void warm(int count, String browser, boolean headless, String throttling) {
+        List<WebDriver> drivers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            drivers.add(acquire(browser, headless, throttling));
+        }
+        drivers.forEach(BrowserPool::offer);
+    }
+
+    /**
+     * Devuelve un navegador al pool tras limpiarlo
+     * @param driver Navegador que ya no usa el test
+     * @return true si queda en el pool; false si el pool no está activo o el navegador
+     *         no se puede reutilizar, y el llamador debe cerrarlo
+     */
+    public static boolean offer(WebDriver driver) {
+        if (!isEnabled() || driver == null) {
+            return false;
+        }
+        String key;
+        synchronized (BrowserPool.class) {
+            key = KEYS.get(driver);
+        }
+        if (key == null || !reset(driver)) {
+            synchronized (BrowserPool.class) {
+                KEYS.remove(driver);
+            }
+            return false;
+        }
+        synchronized (BrowserPool.class) {
+            IDLE.computeIfAbsent(key, k -> new ArrayDeque<>()).push(driver);
+        }
+        return true;
+    }
+
+    /**
+     * Cierra todos los navegadores libres del pool
+     */
+    public static void shutdown() {
+        List<WebDriver> drivers = new ArrayList<>();
+        synchronized (BrowserPool.class) {
+            IDLE.values().forEach(drivers::addAll);
+            IDLE.clear();
+            KEYS.clear();
+        }
+        for (WebDriver driver : drivers) {
+            try {
+                driver.quit();
+            } catch (RuntimeException e) {
+                log.warn("Error al cerrar un navegador del pool: {}", e.getMessage());
+            } finally {
+                DriverProcessAccountant.release(driver);
+            }
+        }
+    }
+
+    /**
+     * Número de navegadores libres en el pool
+     * @return Navegadores libres
+     */
+    public static synchronized int idleCount() {
+        return IDLE.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    private static boolean reset(WebDriver driver) {
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            driver.manage().deleteAllCookies();
+            driver.get("about:blank");
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("El navegador no se puede devolver al pool: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static String key(String browser, boolean headless, String throttling) {
+        return browser.toLowerCase() + "|" + headless + "|" + (throttling == null ? "none" : throttling.trim());
+    }
+}
@@ -0,0 +1,271 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Llamadas a los endpoints del carrito de expressCart desde el propio navegador
+ *
+ * Las peticiones se hacen con fetch en la página actual, así que comparten la sesión
+ * (cookie) del navegador y el navegador debe estar en una página de la tienda. La
+ * duración se mide dentro de la página, sin el coste de ida y vuelta de WebDriver, por
+ * lo que refleja la latencia del servidor para cada operación. Con send() se envían varias
+ * peticiones, una tras otra, en una sola llamada a WebDriver.
+ */
+public final class CartApi {
+
+    private static final Json JSON = new Json();
+
+    // Las peticiones van una tras otra: la sesión de expressCart guarda el carrito completo
+    // en cada petición y dos peticiones simultáneas se pisarían
+    private static final String REQUESTS_SCRIPT =
+            "var requests = arguments[0], done = arguments[arguments.length - 1], results = [];"
+            + "requests.reduce(function(chain, request) {"
+            + "  return chain.then(function() {"
+            + "    var start = performance.now();"
+            + "    var options = {method: request[0], credentials: 'same-origin'};"
+            + "    if (request[2] !== null) {"
+            + "      options.headers = {'Content-Type': 'application/json'};"
+            + "      options.body = request[2];"
+            + "    }"
+            + "    return fetch(request[1], options)"
+            + "      .then(function(r) { return r.text().then(function(b) { results.push([r.status, performance.now() - start, b]); }); })"
+            + "      .catch(function(e) { results.push([0, performance.now() - start, String(e)]); });"
+            + "  });"
+            + "}, Promise.resolve()).then(function() { done(results); });";
+
+    private static final String COLLECT_IDS_SCRIPT =
+            "var path = arguments[0], count = arguments[1], done = arguments[2];"
+            + "var ids = [], seen = {};"
+            + "var re = /add-(?:variant-)?to-cart\" data-id=\"([0-9a-f]{24})\"/g;"
+            + "function next(page) {"
+            + "  fetch(path + '/' + page, {credentials: 'same-origin'}).then(function(r) { return r.text(); })"
+            + "  .then(function(html) {"
+            + "    var m, found = 0;"
+            + "    re.lastIndex = 0;"
+            + "    while ((m = re.exec(html)) && ids.length < count) {"
+            + "      if (!seen[m[1]]) { seen[m[1]] = true; ids.push(m[1]); found++; }"
+            + "    }"
+            + "    if (ids.length >= count || found === 0) { done(ids); } else { next(page + 1); }"
+            + "  }).catch(function() { done(ids); });"
+            + "}"
+            + "next(1);";
+
+    private CartApi() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Añade un producto al carrito (POST /product/addtocart)
+     * @param driver WebDriver en una página de la tienda
+     * @param productId Identificador del producto
+     * @param quantity Cantidad
+     * @return Respuesta de la tienda
+     */
+    public static Response addToCart(WebDriver driver, String productId, int quantity) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("productId", productId);
+        body.put("productQuantity", quantity);
+        return send(driver, Request.post("/product/addtocart", body));
+    }
+
+    /**
+     * Cambia la cantidad de una línea del carrito (POST /product/updatecart)
+     * @param driver WebDriver en una página de la tienda
+     * @param cartId Identificador de la línea (el del producto o la variante)
+     * @param productId Identificador del producto
+     * @param quantity Nueva cantidad
+     * @return Respuesta de la tienda
+     */
+    public static Response updateCart(WebDriver driver, String cartId, String productId, int quantity) {
+        return send(driver, Request.updateCart(cartId, productId, quantity));
+    }
+
+    /**
+     * Elimina una línea del carrito (POST /product/removefromcart)
+     * @param driver WebDriver en una página de la tienda
+     * @param cartId Identificador de la línea
+     * @return Respuesta de la tienda
+     */
+    public static Response removeFromCart(WebDriver driver, String cartId) {
+        return send(driver, Request.removeFromCart(cartId));
+    }
+
+    /**
+     * Obtiene el carrito y los totales de la sesión (GET /checkout/cartdata)
+     * @param driver WebDriver en una página de la tienda
+     * @return Respuesta de la tienda; getJson() devuelve {cart, session}
+     */
+    public static Response cartData(WebDriver driver) {
+        return send(driver, Request.cartData());
+    }
+
+    /**
+     * Obtiene identificadores de productos distintos recorriendo un listado paginado
+     * @param driver WebDriver en una página de la tienda
+     * @param listingPath Listado a recorrer sin número de página (ej: "/page", "/search/benchmark")
+     * @param count Número de productos que se necesitan
+     * @return Identificadores encontrados (menos de count si el listado se acaba)
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> collectProductIds(WebDriver driver, String listingPath, int count) {
+        Object ids = ((JavascriptExecutor) driver).executeAsyncScript(COLLECT_IDS_SCRIPT, listingPath, count);
+        return ids instanceof List ? new ArrayList<>((List<String>) ids) : new ArrayList<>();
+    }
+
+    /**
+     * Envía varias peticiones en orden con una sola llamada a WebDriver
+     * @param driver WebDriver en una página de la tienda
+     * @param requests Peticiones; cada una empieza cuando ha terminado la anterior
+     * @return Una respuesta por petición, en el mismo orden
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Response> send(WebDriver driver, List<Request> requests) {
+        List<List<Object>> encoded = new ArrayList<>();
+        for (Request request : requests) {
+            encoded.add(Arrays.asList(request.method, request.path,
+                    request.body == null ? null : JSON.toJson(request.body)));
+        }
+        List<Object> results = (List<Object>) ((JavascriptExecutor) driver).executeAsyncScript(REQUESTS_SCRIPT, encoded);
+        List<Response> responses = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            List<Object> result = (List<Object>) results.get(i);
+            responses.add(new Response(requests.get(i).path, ((Number) result.get(0)).intValue(),
+                    ((Number) result.get(1)).doubleValue(), String.valueOf(result.get(2))));
+        }
+        return responses;
+    }
+
+    private static Response send(WebDriver driver, Request request) {
+        return send(driver, Collections.singletonList(request)).get(0);
+    }
+
+    /**
+     * Petición a un endpoint del carrito, para enviarla en un lote con send()
+     */
+    public static final class Request {
+        private final String method;
+        private final String path;
+        private final Map<String, Object> body;
+
+        private Request(String method, String path, Map<String, Object> body) {
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        static Request post(String path, Map<String, Object> body) {
+            return new Request("POST", path, body);
+        }
+
+        /**
+         * POST /product/updatecart
+         * @param cartId Identificador de la línea
+         * @param productId Identificador del producto
+         * @param quantity Nueva cantidad
+         * @return Petición
+         */
+        public static Request updateCart(String cartId, String productId, int quantity) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("cartId", cartId);
+            body.put("productId", productId);
+            body.put("quantity", quantity);
+            return post("/product/updatecart", body);
+        }
+
+        /**
+         * POST /product/removefromcart
+         * @param cartId Identificador de la línea
+         * @return Petición
+         */
+        public static Request removeFromCart(String cartId) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("cartId", cartId);
+            return post("/product/removefromcart", body);
+        }
+
+        /**
+         * GET /checkout/cartdata
+         * @return Petición
+         */
+        public static Request cartData() {
+            return new Request("GET", "/checkout/cartdata", null);
+        }
+
+        public String getPath() {
+            return path;
+        }
+    }
+
+    /**
+     * Respuesta de un endpoint del carrito
+     */
+    public static final class Response {
+        private final String path;
+        private final int status;
+        private final double millis;
+        private final String body;
+
+        Response(String path, int status, double millis, String body) {
+            this.path = path;
+            this.status = status;
+            this.millis = millis;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Duración de la petición medida en el navegador
+         * @return Milisegundos
+         */
+        public double getMillis() {
+            return millis;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * Cuerpo de la respuesta como objeto JSON
+         * @return Objeto, o vacío si el cuerpo no es un objeto JSON
+         */
+        public Map<String, Object> getJson() {
+            try {
+                Map<String, Object> json = JSON.toType(body, Json.MAP_TYPE);
+                return json == null ? Collections.emptyMap() : json;
+            } catch (JsonException | ClassCastException e) {
+                return Collections.emptyMap();
+            }
+        }
+
+        /**
+         * Descripción del error para los mensajes de los tests
+         * @return Ruta, estado y mensaje de la tienda
+         */
+        public String describe() {
+            Object message = getJson().get("message");
+            return path + " (" + status + ")" + (message == null ? "" : ": " + message);
+        }
+
+        public boolean isOk() {
+            return status == 200;
+        }
+
+        public long getNanos() {
+            return (long) (millis * 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Informe de cómo crecen las latencias con el tamaño del carrito
+ *
+ * Lee de LatencyRecorder las muestras de los perfiles "carrito-N" (N = líneas del
+ * carrito) y escribe, por paso y tamaño, la mediana y el p95 en
+ * target/latency/cart-scaling.csv y una gráfica log-log de las medianas en
+ * target/latency/cart-scaling.svg. Para cada paso estima el exponente de crecimiento k
+ * (latencia ~ N^k) por mínimos cuadrados sobre los logaritmos: k≈0 no depende del
+ * tamaño, k≈1 es lineal.
+ */
+public final class CartScalingReport {
+
+    private static final Logger log = LoggerFactory.getLogger(CartScalingReport.class);
+
+    public static final String PROFILE_PREFIX = "carrito-";
+    private static final String CSV_PATH = "target/latency/cart-scaling.csv";
+    private static final String SVG_PATH = "target/latency/cart-scaling.svg";
+    private static final String[] COLORS = {"#1f77b4", "#ff7f0e", "#2ca02c", "#d62728", "#9467bd",
+            "#8c564b", "#e377c2", "#7f7f7f", "#bcbd22", "#17becf"};
+
+    private CartScalingReport() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Nombre del perfil de LatencyRecorder para un tamaño de carrito
+     * @param lineItems Líneas del carrito
+     * @return Nombre del perfil (ej: "carrito-100")
+     */
+    public static String profile(int lineItems) {
+        return PROFILE_PREFIX + lineItems;
+    }
+
+    /**
+     * Escribe la tabla y la gráfica con las muestras registradas hasta ahora
+     * @return Ruta de la tabla, o null si no hay muestras de carritos
+     */
+    public static String write() {
+        // paso -> tamaño -> muestras ordenadas
+        Map<String, TreeMap<Integer, double[]>> series = new TreeMap<>();
+        LatencyRecorder.snapshot().forEach((key, values) -> {
+            String[] parts = key.split("\\|", 2);
+            if (!parts[0].startsWith(PROFILE_PREFIX) || values.length == 0) {
+                return;
+            }
+            int size;
+            try {
+                size = Integer.parseInt(parts[0].substring(PROFILE_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                return;
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            series.computeIfAbsent(parts[1], k -> new TreeMap<>()).put(size, sorted);
+        });
+        if (series.isEmpty()) {
+            return null;
+        }
+
+        File csv = new File(CSV_PATH);
+        csv.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(csv, StandardCharsets.UTF_8)) {
+            out.println("step,line_items,count,p50_ms,p95_ms,growth_exponent");
+            log.info("Crecimiento de latencias con el tamaño del carrito:");
+            for (Map.Entry<String, TreeMap<Integer, double[]>> step : series.entrySet()) {
+                double exponent = growthExponent(step.getValue());
+                for (Map.Entry<Integer, double[]> point : step.getValue().entrySet()) {
+                    double[] values = point.getValue();
+                    out.println(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.1f,%.2f", step.getKey(), point.getKey(),
+                            values.length, LatencyRecorder.percentile(values, 50),
+                            LatencyRecorder.percentile(values, 95), exponent));
+                }
+                log.info(String.format(Locale.ROOT, "  %s: %s -> ~N^%.2f", step.getKey(),
+                        describe(step.getValue()), exponent));
+            }
+        } catch (IOException e) {
+            log.error("Error al escribir el informe de escalado del carrito: {}", e.getMessage());
+            return null;
+        }
+        writeChart(series);
+        return CSV_PATH;
+    }
+
+    /**
+     * Pendiente de la recta de mínimos cuadrados de log(mediana) frente a log(tamaño)
+     */
+    static double growthExponent(TreeMap<Integer, double[]> points) {
+        int n = 0;
+        double sumX = 0;
+        double sumY = 0;
+        double sumXY = 0;
+        double sumXX = 0;
+        for (Map.Entry<Integer, double[]> point : points.entrySet()) {
+            double median = LatencyRecorder.percentile(point.getValue(), 50);
+            if (point.getKey() <= 0 || median <= 0) {
+                continue;
+            }
+            double x = Math.log(point.getKey());
+            double y = Math.log(median);
+            n++;
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        double denominator = n * sumXX - sumX * sumX;
+        if (n < 2 || denominator == 0) {
+            return Double.NaN;
+        }
+        return (n * sumXY - sumX * sumY) / denominator;
+    }
+
+    private static String describe(TreeMap<Integer, double[]> points) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<Integer, double[]> point : points.entrySet()) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(String.format(Locale.ROOT, "%d=%.1f ms", point.getKey(),
+                    LatencyRecorder.percentile(point.getValue(), 50)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Gráfica log-log de la mediana de cada paso frente al número de líneas del carrito
+     */
+    private static void writeChart(Map<String, TreeMap<Integer, double[]>> series) {
+        int width = 800;
+        int height = 500;
+        int left = 70;
+        int right = 260;
+        int top = 30;
+        int bottom = 50;
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (TreeMap<Integer, double[]> points : series.values()) {
+            for (Map.Entry<Integer, double[]> point : points.entrySet()) {
+                double x = Math.log10(Math.max(1, point.getKey()));
+                double y = Math.log10(Math.max(0.1, LatencyRecorder.percentile(point.getValue(), 50)));
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+        }
+        minY = Math.floor(minY);
+        maxY = Math.max(Math.ceil(maxY), minY + 1);
+        if (maxX == minX) {
+            maxX = minX + 1;
+        }
+        double plotWidth = width - left - right;
+        double plotHeight = height - top - bottom;
+
+        StringBuilder svg = new StringBuilder();
+        svg.append(String.format(Locale.ROOT, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\""
+                + " font-family=\"sans-serif\" font-size=\"12\">%n", width, height));
+        svg.append("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"18\">Mediana por paso según líneas del carrito"
+                + " (escala log-log)</text>%n", left));
+        // Rejilla de décadas en el eje Y
+        for (int decade = (int) minY; decade <= (int) maxY; decade++) {
+            double y = top + plotHeight - (decade - minY) / (maxY - minY) * plotHeight;
+            svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%.1f\" x2=\"%.1f\" y2=\"%.1f\" stroke=\"#ddd\"/>%n",
+                    left, y, left + plotWidth, y));
+            svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%.1f\" text-anchor=\"end\">%s ms</text>%n",
+                    left - 5, y + 4, formatDecade(decade)));
+        }
+        // Marcas de los tamaños medidos en el eje X
+        Set<Integer> sizes = new TreeSet<>();
+        series.values().forEach(points -> sizes.addAll(points.keySet()));
+        for (Integer size : sizes) {
+            double x = left + (Math.log10(Math.max(1, size)) - minX) / (maxX - minX) * plotWidth;
+            svg.append(String.format(Locale.ROOT, "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%d</text>%n",
+                    x, height - bottom + 18, size));
+        }
+        svg.append(String.format(Locale.ROOT, "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">Líneas del carrito</text>%n",
+                left + plotWidth / 2, height - 10));
+
+        int index = 0;
+        for (Map.Entry<String, TreeMap<Integer, double[]>> step : series.entrySet()) {
+            String color = COLORS[index % COLORS.length];
+            StringBuilder path = new StringBuilder();
+            for (Map.Entry<Integer, double[]> point : step.getValue().entrySet()) {
+                double x = left + (Math.log10(Math.max(1, point.getKey())) - minX) / (maxX - minX) * plotWidth;
+                double y = top + plotHeight - (Math.log10(Math.max(0.1, LatencyRecorder.percentile(point.getValue(), 50)))
+                        - minY) / (maxY - minY) * plotHeight;
+                path.append(path.length() == 0 ? "M" : " L").append(String.format(Locale.ROOT, "%.1f %.1f", x, y));
+                svg.append(String.format(Locale.ROOT, "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"3\" fill=\"%s\"/>%n", x, y, color));
+            }
+            svg.append(String.format(Locale.ROOT, "<path d=\"%s\" fill=\"none\" stroke=\"%s\" stroke-width=\"2\"/>%n",
+                    path, color));
+            double legendY = top + 10 + index * 18;
+            svg.append(String.format(Locale.ROOT, "<rect x=\"%.1f\" y=\"%.1f\" width=\"12\" height=\"12\" fill=\"%s\"/>%n",
+                    left + plotWidth + 15, legendY - 10, color));
+            svg.append(String.format(Locale.ROOT, "<text x=\"%.1f\" y=\"%.1f\">%s (~N^%.2f)</text>%n",
+                    left + plotWidth + 32, legendY, step.getKey(), growthExponent(step.getValue())));
+            index++;
+        }
+        svg.append("</svg>\n");
+
+        try (PrintWriter out = new PrintWriter(new File(SVG_PATH), StandardCharsets.UTF_8)) {
+            out.print(svg);
+        } catch (IOException e) {
+            log.error("Error al escribir la gráfica de escalado del carrito: {}", e.getMessage());
+        }
+    }
+
+    private static String formatDecade(int decade) {
+        double value = Math.pow(10, decade);
+        return decade < 0 ? String.format(Locale.ROOT, "%.1f", value) : String.format(Locale.ROOT, "%.0f", value);
+    }
+}
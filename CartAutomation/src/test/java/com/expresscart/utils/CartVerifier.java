@@ -0,0 +1,355 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verificación de los totales del carrito a partir del JSON de la tienda
+ *
+ * En una sola llamada a WebDriver se piden /checkout/cartdata (carrito y totales de la
+ * sesión) y /cart/retrieve (carrito guardado en la base de datos) desde la sesión del
+ * navegador. Los importes esperados se calculan con BigDecimal a partir de los precios del
+ * catálogo, con las mismas reglas que expressCart:
+ * - línea: precio unitario redondeado a 2 decimales por la cantidad
+ * - envío: el del módulo shipping-basic (gratis con suscripción o desde 100, 10 sin país
+ *   o nacional, 25 internacional)
+ * - descuento: importe fijo o porcentaje del neto, según el código aplicado
+ * - total: neto - descuento + envío
+ *
+ * El coste no depende del número de líneas del carrito: no se lee el DOM.
+ */
+public final class CartVerifier {
+
+    private static final Json JSON = new Json();
+
+    // Reglas del módulo lib/modules/shipping-basic.js de expressCart
+    private static final BigDecimal DOMESTIC_SHIPPING = new BigDecimal("10");
+    private static final BigDecimal INTERNATIONAL_SHIPPING = new BigDecimal("25");
+    private static final BigDecimal FREE_SHIPPING_THRESHOLD = new BigDecimal("100");
+    private static final String SHIPPING_FROM_COUNTRY = "Australia";
+
+    private static final String FETCH_SCRIPT =
+            "var done = arguments[arguments.length - 1];"
+            + "function get(url) {"
+            + "  return fetch(url, {credentials: 'same-origin'}).then(function(r) { return r.text(); });"
+            + "}"
+            + "Promise.all([get('/checkout/cartdata'), get('/cart/retrieve')])"
+            + "  .then(function(bodies) { done(bodies); })"
+            + "  .catch(function(e) { done([null, null, String(e)]); });";
+
+    private CartVerifier() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Comprueba todo el carrito de la sesión del navegador contra el catálogo
+     * @param driver WebDriver en una página de la tienda
+     * @param catalog Precios del catálogo
+     * @return Resultado con las diferencias encontradas
+     */
+    @SuppressWarnings("unchecked")
+    public static Verification verify(WebDriver driver, Catalog catalog) {
+        long start = System.nanoTime();
+        List<Object> bodies = (List<Object>) ((JavascriptExecutor) driver).executeAsyncScript(FETCH_SCRIPT);
+        LatencyRecorder.record("CartVerifier.fetch", System.nanoTime() - start);
+        if (bodies.get(0) == null || bodies.get(1) == null) {
+            throw new IllegalStateException("No se pudo obtener el carrito de la tienda: " + bodies.get(2));
+        }
+        Map<String, Object> cartData = JSON.toType((String) bodies.get(0), Map.class);
+        Map<String, Object> retrieved = JSON.toType((String) bodies.get(1), Map.class);
+        return compare(cartData, retrieved, catalog);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Verification compare(Map<String, Object> cartData, Map<String, Object> retrieved, Catalog catalog) {
+        Map<String, Object> session = map(cartData.get("session"));
+        Map<String, Object> cart = map(cartData.get("cart"));
+        Map<String, Object> stored = map(retrieved.get("cart"));
+        List<String> mismatches = new ArrayList<>();
+
+        BigDecimal net = BigDecimal.ZERO;
+        int products = 0;
+        for (Map.Entry<String, Object> entry : cart.entrySet()) {
+            Map<String, Object> line = map(entry.getValue());
+            String title = String.valueOf(line.get("title"));
+            int quantity = decimal(line.get("quantity")).intValue();
+            products += quantity;
+
+            BigDecimal unitPrice = catalog.unitPrice(String.valueOf(line.get("productId")), (String) line.get("variantId"));
+            if (unitPrice == null) {
+                mismatches.add("Línea '" + title + "': no está en el catálogo");
+                continue;
+            }
+            BigDecimal expectedLine = unitPrice.setScale(2, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(quantity));
+            net = net.add(expectedLine);
+            check(mismatches, "Línea '" + title + "'", expectedLine, line.get("totalItemPrice"));
+
+            Map<String, Object> storedLine = map(stored.get(entry.getKey()));
+            if (storedLine.isEmpty()) {
+                mismatches.add("Línea '" + title + "': no está en el carrito guardado (/cart/retrieve)");
+            } else {
+                check(mismatches, "Línea guardada '" + title + "'", expectedLine, storedLine.get("totalItemPrice"));
+                if (decimal(storedLine.get("quantity")).intValue() != quantity) {
+                    mismatches.add("Línea guardada '" + title + "': cantidad " + storedLine.get("quantity")
+                            + ", en la sesión " + quantity);
+                }
+            }
+        }
+        for (String cartId : stored.keySet()) {
+            if (!cart.containsKey(cartId)) {
+                mismatches.add("Línea " + cartId + ": está en el carrito guardado pero no en la sesión");
+            }
+        }
+
+        // Con el carrito vacío expressCart deja todos los totales a cero
+        // shipping-basic solo mira la suscripción de la sesión (la de la última línea añadida)
+        Object cartSubscription = session.get("cartSubscription");
+        boolean subscription = cartSubscription != null && !"".equals(cartSubscription)
+                && !Boolean.FALSE.equals(cartSubscription);
+        BigDecimal shipping = cart.isEmpty() ? BigDecimal.ZERO
+                : expectedShipping(net, subscription, (String) session.get("customerCountry"));
+        BigDecimal discount = BigDecimal.ZERO;
+        String discountCode = (String) session.get("discountCode");
+        if (discountCode != null && !cart.isEmpty()) {
+            Catalog.Discount rule = catalog.discount(discountCode);
+            if (rule == null) {
+                mismatches.add("Descuento '" + discountCode + "': no está en el catálogo");
+            } else {
+                discount = rule.apply(net);
+            }
+        }
+        BigDecimal total = net.subtract(discount).add(shipping);
+
+        if (!cart.isEmpty()) {
+            check(mismatches, "Neto", net, session.get("totalCartNetAmount"));
+            check(mismatches, "Envío", shipping, session.get("totalCartShipping"));
+            check(mismatches, "Descuento", discount, session.getOrDefault("totalCartDiscount", 0));
+        }
+        check(mismatches, "Total", total, session.getOrDefault("totalCartAmount", 0));
+        if (decimal(session.getOrDefault("totalCartItems", 0)).intValue() != cart.size()) {
+            mismatches.add("Líneas: esperadas " + cart.size() + ", la sesión indica " + session.get("totalCartItems"));
+        }
+        if (!cart.isEmpty() && decimal(session.get("totalCartProducts")).intValue() != products) {
+            mismatches.add("Unidades: esperadas " + products + ", la sesión indica " + session.get("totalCartProducts"));
+        }
+        return new Verification(total, decimal(session.getOrDefault("totalCartAmount", 0)), mismatches);
+    }
+
+    private static BigDecimal expectedShipping(BigDecimal net, boolean subscription, String country) {
+        if (subscription || net.compareTo(FREE_SHIPPING_THRESHOLD) >= 0) {
+            return BigDecimal.ZERO;
+        }
+        if (country != null && !country.equalsIgnoreCase(SHIPPING_FROM_COUNTRY)) {
+            return INTERNATIONAL_SHIPPING;
+        }
+        return DOMESTIC_SHIPPING;
+    }
+
+    /**
+     * Compara al céntimo: la tienda calcula con coma flotante
+     */
+    private static void check(List<String> mismatches, String label, BigDecimal expected, Object actual) {
+        BigDecimal value = decimal(actual);
+        if (expected.setScale(2, RoundingMode.HALF_UP).compareTo(value.setScale(2, RoundingMode.HALF_UP)) != 0) {
+            mismatches.add(label + ": esperado " + expected.setScale(2, RoundingMode.HALF_UP).toPlainString()
+                    + ", la tienda indica " + value.toPlainString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            // Representación decimal más corta del double, la misma que muestra JavaScript
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    /**
+     * Precios del catálogo: unitario por producto y por variante, y reglas de descuento
+     */
+    public static final class Catalog {
+        private final Map<String, BigDecimal> productPrices = new ConcurrentHashMap<>();
+        private final Map<String, String> productPaths = new ConcurrentHashMap<>();
+        private final Map<String, BigDecimal> variantPrices = new ConcurrentHashMap<>();
+        private final Map<String, Discount> discounts = new HashMap<>();
+        private final String baseUrl;
+
+        private Catalog(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        /**
+         * Catálogo vacío al que se añaden los precios a mano
+         * @return Catálogo
+         */
+        public static Catalog empty() {
+            return new Catalog(null);
+        }
+
+        /**
+         * Catálogo con los productos publicados del feed de la tienda (o de su listado en
+         * JSON si el feed todavía no se ha generado, ver ProductFeed); los precios de las
+         * variantes que no vienen en el listado se leen de la página del producto la
+         * primera vez que se necesitan
+         * @param baseUrl URL base de la tienda
+         * @return Catálogo
+         * @throws IllegalStateException Si la tienda no tiene productos publicados
+         */
+        public static Catalog fromFeed(String baseUrl) {
+            Catalog catalog = new Catalog(baseUrl);
+            try (ProductFeed feed = ProductFeed.open(baseUrl)) {
+                while (feed.hasNext()) {
+                    ProductFeed.Item item = feed.next();
+                    catalog.productPrices.put(item.getId(), BigDecimal.valueOf(item.getPrice()));
+                    catalog.productPaths.put(item.getId(), item.getPath());
+                    for (ProductFeed.Variant variant : item.getVariants()) {
+                        catalog.variantPrices.put(variant.getId(), BigDecimal.valueOf(variant.getPrice()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer el feed de productos", e);
+            }
+            // Sin precios cada línea saldría como "no está en el catálogo"
+            if (catalog.productPrices.isEmpty()) {
+                throw new IllegalStateException("La tienda " + baseUrl + " no tiene productos publicados:"
+                        + " no hay precios con los que verificar el carrito");
+            }
+            return catalog;
+        }
+
+        /**
+         * Añade o sustituye el precio de un producto
+         * @param productId Identificador del producto
+         * @param price Precio unitario (ej: "19.99")
+         * @return El catálogo para encadenamiento
+         */
+        public Catalog withProduct(String productId, String price) {
+            productPrices.put(productId, new BigDecimal(price));
+            return this;
+        }
+
+        /**
+         * Añade o sustituye el precio de una variante
+         * @param variantId Identificador de la variante
+         * @param price Precio unitario
+         * @return El catálogo para encadenamiento
+         */
+        public Catalog withVariant(String variantId, String price) {
+            variantPrices.put(variantId, new BigDecimal(price));
+            return this;
+        }
+
+        /**
+         * Añade un código de descuento
+         * @param code Código
+         * @param type "amount" (importe fijo) o "percent" (porcentaje del neto)
+         * @param value Importe o porcentaje
+         * @return El catálogo para encadenamiento
+         */
+        public synchronized Catalog withDiscount(String code, String type, String value) {
+            discounts.put(code, new Discount(type, new BigDecimal(value)));
+            return this;
+        }
+
+        synchronized Discount discount(String code) {
+            return discounts.get(code);
+        }
+
+        BigDecimal unitPrice(String productId, String variantId) {
+            if (variantId == null) {
+                return productPrices.get(productId);
+            }
+            BigDecimal price = variantPrices.get(variantId);
+            String path = productPaths.get(productId);
+            if (price == null && baseUrl != null && path != null) {
+                for (ProductFeed.Variant variant : ProductFeed.variants(baseUrl, path)) {
+                    variantPrices.put(variant.getId(), BigDecimal.valueOf(variant.getPrice()));
+                }
+                price = variantPrices.get(variantId);
+            }
+            return price;
+        }
+
+        /**
+         * Regla de un código de descuento (módulo discount-voucher)
+         */
+        static final class Discount {
+            private static final BigDecimal HUNDRED = new BigDecimal("100");
+            private final String type;
+            private final BigDecimal value;
+
+            Discount(String type, BigDecimal value) {
+                this.type = type;
+                this.value = value;
+            }
+
+            BigDecimal apply(BigDecimal net) {
+                if ("percent".equals(type)) {
+                    return value.multiply(net).divide(HUNDRED);
+                }
+                return "amount".equals(type) ? value : BigDecimal.ZERO;
+            }
+        }
+    }
+
+    /**
+     * Resultado de la verificación de un carrito
+     */
+    public static final class Verification {
+        private final BigDecimal expectedTotal;
+        private final BigDecimal actualTotal;
+        private final List<String> mismatches;
+
+        Verification(BigDecimal expectedTotal, BigDecimal actualTotal, List<String> mismatches) {
+            this.expectedTotal = expectedTotal;
+            this.actualTotal = actualTotal;
+            this.mismatches = Collections.unmodifiableList(mismatches);
+        }
+
+        public BigDecimal getExpectedTotal() {
+            return expectedTotal;
+        }
+
+        public BigDecimal getActualTotal() {
+            return actualTotal;
+        }
+
+        /**
+         * Diferencias entre lo esperado y lo que indica la tienda
+         * @return Una descripción por diferencia; vacía si el carrito es correcto
+         */
+        public List<String> getMismatches() {
+            return mismatches;
+        }
+
+        public boolean isValid() {
+            return mismatches.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return isValid() ? "Carrito correcto (total " + actualTotal.toPlainString() + ")"
+                    : String.join("; ", mismatches);
+        }
+    }
+}
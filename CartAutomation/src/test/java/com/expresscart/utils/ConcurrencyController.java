@@ -0,0 +1,361 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IAlterSuiteListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Número de tests en paralelo ajustado durante la ejecución, como una ventana de congestión
+ *
+ * En lugar de fijar thread-count, la suite se ejecuta con un máximo de hilos y BaseTest
+ * pide hueco (acquire) antes de arrancar cada test. Se empieza con pocos tests a la vez y,
+ * cada vez que termina una ventana de tests, se compara su rendimiento (tests por minuto)
+ * y el p95 de los pasos de los Page Objects (LatencyRecorder) con los de ventanas
+ * anteriores:
+ * - si el p95 supera el de referencia de cada paso en más del factor permitido, o el
+ *   rendimiento ha caído al subir la concurrencia, la concurrencia se reduce a la mitad y
+ *   la que ha fallado queda como techo
+ * - si el rendimiento no mejora al subir la concurrencia, se mantiene
+ * - en otro caso se permite un test más a la vez, sin llegar al techo
+ *
+ * Una ventana solo cuenta los tests que arrancaron con la concurrencia actual, y su tiempo
+ * empieza cuando ocupan todos los huecos (o ya no queda ninguno de la anterior en curso),
+ * para que el arranque y los tests que quedaban en curso no falseen la medida.
+ *
+ * Al terminar la suite se escribe target/concurrency.csv con cada ventana y se indica en
+ * el log la concurrencia con mejor rendimiento dentro del límite de latencia, que es el
+ * thread-count recomendado para el equipo.
+ *
+ * Solo limita los tests que heredan de BaseTest, y nunca supera las unidades que la suite
+ * ejecuta en paralelo. Para que la ventana pueda crecer de verdad, la suite debe ejecutar
+ * en paralelo métodos o clases (parallel="methods" o "classes"; BaseTest tiene un
+ * navegador por hilo): con parallel="tests" no puede pasar del número de &lt;test&gt;.
+ *
+ * El estado del ajuste (concurrencia, techo, p95 de referencia e historial) se reinicia al
+ * empezar cada suite, para que una suite no herede el techo de la anterior en la misma JVM
+ * (modo daemon o varias suites seguidas).
+ *
+ * Propiedades del sistema:
+ * - concurrency.adaptive: activar el ajuste (por defecto false)
+ * - concurrency.max: tests simultáneos como máximo (por defecto los núcleos del equipo)
+ * - concurrency.initial: tests simultáneos al empezar (por defecto 1)
+ * - concurrency.window: tests mínimos por ventana (por defecto 4; al menos el doble de la concurrencia)
+ * - concurrency.latency.factor: aumento permitido del p95 de los pasos (por defecto 1.5)
+ */
+public class ConcurrencyController implements IAlterSuiteListener, ISuiteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyController.class);
+
+    private static final boolean ENABLED = Boolean.getBoolean("concurrency.adaptive");
+    private static final int MAX = Math.max(1, Integer.getInteger("concurrency.max", Runtime.getRuntime().availableProcessors()));
+    private static final int INITIAL = Math.max(1, Math.min(MAX, Integer.getInteger("concurrency.initial", 1)));
+    private static final int WINDOW = Math.max(1, Integer.getInteger("concurrency.window", 4));
+    private static final double LATENCY_FACTOR = Double.parseDouble(System.getProperty("concurrency.latency.factor", "1.5"));
+    private static final String REPORT_PATH = "target/concurrency.csv";
+
+    // Variación de rendimiento entre ventanas que se considera ruido
+    private static final double THROUGHPUT_TOLERANCE = 0.05;
+    // Caída de rendimiento al subir la concurrencia que provoca la reducción
+    private static final double THROUGHPUT_BACKOFF = 0.10;
+    // Muestras mínimas de un paso en una ventana para calcular su p95
+    private static final int MIN_STEP_SAMPLES = 2;
+
+    private static final Object LOCK = new Object();
+
+    private static int limit = INITIAL;
+    // Concurrencia que ha degradado el rendimiento o la latencia: no se vuelve a alcanzar
+    private static int ceiling = MAX + 1;
+    private static int running;
+    // Cambia con cada ajuste de la concurrencia; cada test recuerda con cuál arrancó
+    private static int epoch;
+    private static final ThreadLocal<Integer> TEST_EPOCH = new ThreadLocal<>();
+    // Tests en curso que arrancaron con la concurrencia actual
+    private static int epochRunning;
+    private static long windowStart;
+    private static int windowTests;
+    private static final Map<String, List<Long>> WINDOW_STEPS = new HashMap<>();
+    // p95 de referencia de cada paso: el menor medido en una ventana
+    private static final Map<String, Double> BASELINE_P95 = new HashMap<>();
+    private static int lastConcurrency;
+    private static double lastThroughput;
+    private static double bestThroughput;
+    private static int settled = INITIAL;
+    private static final List<Window> HISTORY = new ArrayList<>();
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (!ENABLED) {
+            return;
+        }
+        for (XmlSuite suite : suites) {
+            if (suite.getParallel() == null || !suite.getParallel().isParallel()) {
+                log.warn("La suite '{}' no se ejecuta en paralelo: la concurrencia adaptativa no tiene efecto",
+                        suite.getName());
+                continue;
+            }
+            if (suite.getParallel() == XmlSuite.ParallelMode.TESTS && suite.getTests().size() < MAX) {
+                log.warn("La suite '{}' solo ejecuta en paralelo sus {} <test>: la ventana no pasará de ahí;"
+                        + " usa parallel=\"methods\" o \"classes\" para ajustarla hasta {}",
+                        suite.getName(), suite.getTests().size(), MAX);
+            }
+            // Los hilos que sobran esperan en acquire a que la ventana les deje entrar
+            suite.setThreadCount(Math.max(suite.getThreadCount(), MAX));
+            log.info("Concurrencia adaptativa en '{}': de {} a {} tests simultáneos", suite.getName(), INITIAL, MAX);
+        }
+    }
+
+    /**
+     * Espera a que la ventana de concurrencia deje arrancar un test más
+     */
+    public static void acquire() {
+        if (!ENABLED) {
+            return;
+        }
+        synchronized (LOCK) {
+            while (running >= limit) {
+                try {
+                    LOCK.wait(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrumpido esperando hueco para el test", e);
+                }
+            }
+            TEST_EPOCH.set(epoch);
+            running++;
+            epochRunning++;
+            startWindowIfRampedUp();
+        }
+    }
+
+    /**
+     * Libera el hueco de un test terminado y, al completar una ventana, ajusta la concurrencia
+     */
+    public static void release() {
+        if (!ENABLED) {
+            return;
+        }
+        synchronized (LOCK) {
+            running = Math.max(0, running - 1);
+            if (isCurrentEpoch()) {
+                epochRunning--;
+                // Los que terminan antes de empezar la ventana son parte del arranque
+                if (windowStart != 0 && ++windowTests >= Math.max(WINDOW, limit * 2)) {
+                    evaluate();
+                }
+            }
+            TEST_EPOCH.remove();
+            startWindowIfRampedUp();
+            LOCK.notifyAll();
+        }
+    }
+
+    /**
+     * Registra la duración de un paso para el p95 de la ventana actual
+     * @param step Nombre del paso
+     * @param nanos Duración en nanosegundos
+     */
+    static void recordStep(String step, long nanos) {
+        if (!ENABLED) {
+            return;
+        }
+        synchronized (LOCK) {
+            if (isCurrentEpoch()) {
+                WINDOW_STEPS.computeIfAbsent(step, k -> new ArrayList<>()).add(nanos);
+            }
+        }
+    }
+
+    private static void startWindowIfRampedUp() {
+        if (windowStart == 0 && running > 0 && (epochRunning >= limit || epochRunning == running)) {
+            windowStart = System.nanoTime();
+        }
+    }
+
+    private static boolean isCurrentEpoch() {
+        Integer testEpoch = TEST_EPOCH.get();
+        return testEpoch != null && testEpoch == epoch;
+    }
+
+    /**
+     * Cierra la ventana actual y decide la concurrencia de la siguiente (con LOCK tomado)
+     */
+    private static void evaluate() {
+        long now = System.nanoTime();
+        double minutes = Math.max(now - windowStart, 1) / 60e9;
+        double throughput = windowTests / minutes;
+        double latencyRatio = latencyRatio();
+
+        String decision;
+        int previous = limit;
+        // El rendimiento solo se compara con la ventana anterior si se acaba de subir la concurrencia
+        boolean grew = lastConcurrency > 0 && previous > lastConcurrency;
+        if (latencyRatio > LATENCY_FACTOR) {
+            decision = "backoff-latency";
+            ceiling = Math.min(ceiling, previous);
+            limit = Math.max(1, previous / 2);
+        } else if (grew && throughput < lastThroughput * (1 - THROUGHPUT_BACKOFF)) {
+            decision = "backoff-throughput";
+            ceiling = Math.min(ceiling, previous);
+            limit = Math.max(1, previous / 2);
+        } else if (grew && throughput <= lastThroughput * (1 + THROUGHPUT_TOLERANCE)) {
+            // Un test más a la vez no ha mejorado el rendimiento: no se sigue subiendo
+            decision = "hold";
+            ceiling = Math.min(ceiling, previous + 1);
+        } else if (previous < MAX && previous + 1 < ceiling) {
+            decision = "increase";
+            limit = previous + 1;
+        } else {
+            decision = "hold";
+        }
+        if (latencyRatio <= LATENCY_FACTOR && throughput > bestThroughput) {
+            bestThroughput = throughput;
+            settled = previous;
+        }
+        lastConcurrency = previous;
+        lastThroughput = throughput;
+
+        HISTORY.add(new Window(HISTORY.size() + 1, previous, windowTests, throughput, latencyRatio, decision));
+        log.info(String.format(Locale.ROOT, "Ventana %d: %d simultáneos, %.1f tests/min, p95 x%.2f -> %s (%d)",
+                HISTORY.size(), previous, throughput, latencyRatio, decision, limit));
+
+        windowTests = 0;
+        WINDOW_STEPS.clear();
+        if (limit != previous) {
+            // La siguiente ventana solo cuenta los tests que arranquen con la nueva concurrencia
+            epoch++;
+            epochRunning = 0;
+            windowStart = 0;
+        } else {
+            windowStart = now;
+        }
+    }
+
+    /**
+     * Aumento del p95 de los pasos de la ventana respecto a su referencia, ponderado por
+     * el número de muestras de cada paso
+     * @return Cociente medio (1.0 si no hay pasos con muestras suficientes)
+     */
+    private static double latencyRatio() {
+        double weighted = 0;
+        int samples = 0;
+        for (Map.Entry<String, List<Long>> entry : WINDOW_STEPS.entrySet()) {
+            List<Long> nanos = entry.getValue();
+            if (nanos.size() < MIN_STEP_SAMPLES) {
+                continue;
+            }
+            double[] sorted = nanos.stream().mapToDouble(n -> n / 1_000_000.0).toArray();
+            Arrays.sort(sorted);
+            double p95 = LatencyRecorder.percentile(sorted, 95);
+            Double baseline = BASELINE_P95.get(entry.getKey());
+            if (baseline != null && baseline > 0) {
+                weighted += p95 / baseline * nanos.size();
+                samples += nanos.size();
+            }
+            BASELINE_P95.merge(entry.getKey(), p95, Math::min);
+        }
+        return samples == 0 ? 1.0 : weighted / samples;
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!ENABLED) {
+            return;
+        }
+        synchronized (LOCK) {
+            limit = INITIAL;
+            ceiling = MAX + 1;
+            // Los tests que sigan en curso de otra suite ya no cuentan para la ventana
+            epoch++;
+            epochRunning = 0;
+            windowStart = 0;
+            windowTests = 0;
+            WINDOW_STEPS.clear();
+            BASELINE_P95.clear();
+            lastConcurrency = 0;
+            lastThroughput = 0;
+            bestThroughput = 0;
+            settled = INITIAL;
+            HISTORY.clear();
+            LOCK.notifyAll();
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!ENABLED) {
+            return;
+        }
+        writeReport();
+    }
+
+    /**
+     * Escribe el historial de ventanas en target/concurrency.csv y la concurrencia
+     * recomendada en el log
+     */
+    public static void writeReport() {
+        List<Window> history;
+        int recommended;
+        double throughput;
+        synchronized (LOCK) {
+            history = new ArrayList<>(HISTORY);
+            recommended = settled;
+            throughput = bestThroughput;
+        }
+        if (history.isEmpty()) {
+            log.info("Concurrencia adaptativa: no se completó ninguna ventana de {} tests", Math.max(WINDOW, INITIAL * 2));
+            return;
+        }
+        File report = new File(REPORT_PATH);
+        report.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(report, StandardCharsets.UTF_8)) {
+            out.println("window,concurrency,tests,tests_per_min,p95_ratio,decision");
+            history.forEach(window -> out.println(String.format(Locale.ROOT, "%d,%d,%d,%.2f,%.3f,%s",
+                    window.index, window.concurrency, window.tests, window.throughput, window.latencyRatio,
+                    window.decision)));
+        } catch (IOException e) {
+            log.error("Error al escribir el historial de concurrencia: {}", e.getMessage());
+        }
+        log.info(String.format(Locale.ROOT,
+                "Concurrencia recomendada para este equipo: %d tests simultáneos (%.1f tests/min, thread-count=\"%d\"); ver %s",
+                recommended, throughput, recommended, REPORT_PATH));
+    }
+
+    /**
+     * Resultado de una ventana de tests
+     */
+    private static final class Window {
+        final int index;
+        final int concurrency;
+        final int tests;
+        final double throughput;
+        final double latencyRatio;
+        final String decision;
+
+        Window(int index, int concurrency, int tests, double throughput, double latencyRatio, String decision) {
+            this.index = index;
+            this.concurrency = concurrency;
+            this.tests = tests;
+            this.throughput = throughput;
+            this.latencyRatio = latencyRatio;
+            this.decision = decision;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ISuite;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Contabilidad de los procesos de driver y navegador de cada WebDriver
+ *
+ * WebDriverFactory registra el proceso del driver (chromedriver, geckodriver,
+ * msedgedriver) de cada sesión. Un muestreador periódico suma la CPU y la memoria
+ * residente (RSS) de todo su árbol de procesos, incluido el navegador, y acumula por
+ * hilo de ejecución el pico de RSS, el pico de uso de CPU y la CPU total consumida.
+ *
+ * Al cerrar una sesión se eliminan los procesos de su árbol que sigan vivos. Al terminar
+ * una suite se liberan solo las sesiones que se abrieron durante ella, y al empezar y
+ * terminar se eliminan los drivers y navegadores huérfanos (su proceso padre ya no existe)
+ * de ejecuciones anteriores de este proyecto.
+ *
+ * WebDriverFactory arranca cada driver con la variable de entorno EXPRESSCART_AUTOMATION
+ * (ver environment()), que heredan el navegador y sus procesos hijos. Solo se eliminan
+ * los huérfanos que la tienen: los drivers y navegadores de otros proyectos que comparten
+ * la máquina (Selenium, Puppeteer, Playwright...) no se tocan aunque estén huérfanos.
+ *
+ * También se guarda por navegador el coste de una sesión (el mayor pico de RSS y de CPU
+ * medido en una sola sesión), que BrowserMatrix usa para limitar las sesiones simultáneas.
+ *
+ * Propiedades del sistema:
+ * - process.sample.ms: intervalo de muestreo en milisegundos (por defecto 1000)
+ * - process.reap: false para no eliminar procesos huérfanos (por defecto true)
+ *
+ * La RSS y el entorno de los procesos se leen de /proc, por lo que solo están disponibles
+ * en Linux; en otros sistemas no se elimina ningún huérfano.
+ */
+public final class DriverProcessAccountant {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverProcessAccountant.class);
+
+    private static final long SAMPLE_MILLIS = Long.getLong("process.sample.ms", 1000);
+    private static final boolean REAP = Boolean.parseBoolean(System.getProperty("process.reap", "true"));
+    private static final String REPORT_PATH = "target/process-usage.csv";
+
+    // Marca de los procesos arrancados por este módulo; el valor es el PID de la JVM
+    private static final String MARKER = "EXPRESSCART_AUTOMATION";
+
+    private static final Map<WebDriver, Tracked> TRACKED = new ConcurrentHashMap<>();
+    private static final Set<ISuite> SUITES = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Usage> USAGE = new ConcurrentHashMap<>();
+    private static final Map<String, BrowserCost> COSTS = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService sampler;
+
+    private DriverProcessAccountant() {
+    }
+
+    /**
+     * Entorno con el que se deben arrancar los servicios de los drivers para que sus
+     * procesos (y los navegadores que lanzan) se reconozcan como propios
+     * @return Variables de entorno que se añaden al servicio
+     */
+    public static Map<String, String> environment() {
+        return Collections.singletonMap(MARKER, String.valueOf(ProcessHandle.current().pid()));
+    }
+
+    /**
+     * Registra el proceso del driver de una sesión recién creada de un navegador concreto
+     * @param driver WebDriver de la sesión
+     * @param port Puerto en el que escucha el servicio del driver
+     * @param browser Navegador de la sesión (chrome, firefox, edge)
+     */
+    public static void track(WebDriver driver, int port, String browser) {
+        Optional<ProcessHandle> process = findDriverProcess(port);
+        if (!process.isPresent()) {
+            log.debug("No se encontró el proceso del driver en el puerto {}", port);
+            return;
+        }
+        String worker = Thread.currentThread().getName();
+        TRACKED.put(driver, new Tracked(worker, browser.toLowerCase(), process.get(), currentSuite()));
+        USAGE.computeIfAbsent(worker, k -> new Usage()).addDriver();
+    }
+
+    /**
+     * Termina la contabilidad de una sesión ya cerrada (o que no se pudo cerrar) y
+     * elimina los procesos de su árbol que sigan vivos
+     * @param driver WebDriver de la sesión
+     */
+    public static void release(WebDriver driver) {
+        Tracked tracked = driver == null ? null : TRACKED.remove(driver);
+        if (tracked == null) {
+            return;
+        }
+        sample(tracked);
+        List<ProcessHandle> alive = tree(tracked.root).stream().filter(ProcessHandle::isAlive).collect(Collectors.toList());
+        if (!alive.isEmpty()) {
+            log.warn("La sesión de {} dejó {} procesos vivos; se eliminan", tracked.worker, alive.size());
+            USAGE.computeIfAbsent(tracked.worker, k -> new Usage()).addReaped(kill(tracked.root));
+        }
+    }
+
+    /**
+     * Coste medido de una sesión de un navegador
+     * @param browser Navegador (chrome, firefox, edge)
+     * @return Coste, o null si todavía no hay muestras de ese navegador
+     */
+    public static BrowserCost getBrowserCost(String browser) {
+        return COSTS.get(browser.toLowerCase());
+    }
+
+    /**
+     * Arranca el muestreo periódico de CPU y RSS para una suite
+     * @param suite Suite que empieza
+     */
+    public static synchronized void start(ISuite suite) {
+        SUITES.add(suite);
+        if (sampler != null) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "driver-process-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> TRACKED.values().forEach(DriverProcessAccountant::sample),
+                SAMPLE_MILLIS, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Libera las sesiones de una suite que no se cerraron y escribe el informe. Las
+     * sesiones de otras suites de la misma JVM siguen en marcha; el muestreo se detiene
+     * cuando termina la última.
+     * @param suite Suite que termina
+     */
+    public static synchronized void stop(ISuite suite) {
+        SUITES.remove(suite);
+        boolean last = SUITES.isEmpty();
+        if (last && sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+        // Las sesiones sin suite conocida se liberan con la última suite
+        TRACKED.entrySet().stream()
+                .filter(entry -> entry.getValue().suite == suite || (last && entry.getValue().suite == null))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(DriverProcessAccountant::release);
+        writeReport();
+    }
+
+    /**
+     * Elimina los drivers y navegadores huérfanos arrancados por este módulo: los que
+     * tienen la marca de environment() y ya no tienen proceso padre o han sido adoptados
+     * por init. No toca los procesos de otras ejecuciones en curso, cuyo padre (su JVM o
+     * su driver) sigue vivo, ni los de otros proyectos, que no llevan la marca.
+     * @return Número de procesos eliminados
+     */
+    public static int reapOrphans() {
+        if (!REAP) {
+            return 0;
+        }
+        int reaped = 0;
+        for (ProcessHandle process : ProcessHandle.allProcesses().collect(Collectors.toList())) {
+            if (isOrphan(process) && isMarked(process) && !isTracked(process)) {
+                log.warn("Eliminando proceso huérfano {} ({})", process.pid(),
+                        process.info().command().orElse("?"));
+                reaped += kill(process);
+            }
+        }
+        if (reaped > 0) {
+            USAGE.computeIfAbsent("huérfanos", k -> new Usage()).addReaped(reaped);
+        }
+        return reaped;
+    }
+
+    /**
+     * Escribe el uso de recursos por hilo en target/process-usage.csv y en el log
+     */
+    public static void writeReport() {
+        if (USAGE.isEmpty()) {
+            return;
+        }
+        Map<String, Usage> usage = new TreeMap<>(USAGE);
+        File report = new File(REPORT_PATH);
+        report.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(report, StandardCharsets.UTF_8)) {
+            out.println("worker,drivers,peak_rss_mb,peak_cpu_pct,cpu_s,reaped");
+            log.info("Uso de recursos de los drivers por hilo:");
+            usage.forEach((worker, u) -> {
+                synchronized (u) {
+                    out.println(String.format(Locale.ROOT, "%s,%d,%.1f,%.0f,%.1f,%d", worker, u.drivers,
+                            u.peakRssKb / 1024.0, u.peakCpuPercent, u.cpuNanos() / 1e9, u.reaped));
+                    log.info(String.format(Locale.ROOT,
+                            "  %s: %d sesiones, pico RSS %.1f MB, pico CPU %.0f%%, CPU total %.1f s, %d procesos eliminados",
+                            worker, u.drivers, u.peakRssKb / 1024.0, u.peakCpuPercent, u.cpuNanos() / 1e9, u.reaped));
+                }
+            });
+        } catch (IOException e) {
+            log.error("Error al escribir el uso de recursos de los drivers: {}", e.getMessage());
+        }
+    }
+
+    private static Optional<ProcessHandle> findDriverProcess(int port) {
+        String portArgument = String.valueOf(port);
+        // Los servicios de Selenium arrancan todos los drivers con --port=N
+        return ProcessHandle.current().descendants()
+                .filter(process -> process.info().arguments()
+                        .map(args -> Arrays.asList(args).contains("--port=" + portArgument))
+                        .orElse(false))
+                .findFirst();
+    }
+
+    /**
+     * Suite en curso del hilo actual. Los hilos propios de un test (sin resultado de
+     * TestNG) se asignan a la suite en curso si solo hay una.
+     */
+    private static ISuite currentSuite() {
+        ITestResult result = Reporter.getCurrentTestResult();
+        if (result != null && result.getTestContext() != null) {
+            return result.getTestContext().getSuite();
+        }
+        List<ISuite> running = new ArrayList<>(SUITES);
+        return running.size() == 1 ? running.get(0) : null;
+    }
+
+    private static boolean isMarked(ProcessHandle process) {
+        try {
+            byte[] environ = Files.readAllBytes(Paths.get("/proc", String.valueOf(process.pid()), "environ"));
+            // Variables separadas por el carácter nulo
+            for (String variable : new String(environ, StandardCharsets.UTF_8).split("\0")) {
+                if (variable.startsWith(MARKER + "=")) {
+                    return true;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Proceso terminado, de otro usuario o sistema sin /proc
+        }
+        return false;
+    }
+
+    private static boolean isOrphan(ProcessHandle process) {
+        Optional<ProcessHandle> parent = process.parent();
+        return !parent.isPresent() || !parent.get().isAlive() || parent.get().pid() == 1;
+    }
+
+    private static boolean isTracked(ProcessHandle process) {
+        return TRACKED.values().stream().anyMatch(tracked -> tracked.root.pid() == process.pid()
+                || tracked.root.descendants().anyMatch(child -> child.pid() == process.pid()));
+    }
+
+    private static List<ProcessHandle> tree(ProcessHandle root) {
+        List<ProcessHandle> tree = new ArrayList<>();
+        tree.add(root);
+        root.descendants().forEach(tree::add);
+        return tree;
+    }
+
+    /**
+     * Elimina un proceso y sus descendientes, primero de forma ordenada y después forzada
+     * @return Número de procesos que estaban vivos
+     */
+    private static int kill(ProcessHandle root) {
+        List<ProcessHandle> tree = tree(root);
+        // Primero los hijos, para que el navegador no sobreviva a su driver
+        for (int i = tree.size() - 1; i >= 0; i--) {
+            tree.get(i).destroy();
+        }
+        int killed = 0;
+        for (ProcessHandle process : tree) {
+            try {
+                process.onExit().get(2, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                process.destroyForcibly();
+            }
+            killed++;
+        }
+        return killed;
+    }
+
+    /**
+     * Toma una muestra del árbol de procesos de una sesión. Se sincroniza porque el
+     * muestreador y el cierre de la sesión pueden muestrear a la vez.
+     */
+    private static synchronized void sample(Tracked tracked) {
+        long rssKb = 0;
+        long cpuNanos = 0;
+        for (ProcessHandle process : tree(tracked.root)) {
+            rssKb += rssKb(process.pid());
+            long cpu = process.info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+            // Los procesos que ya han terminado conservan su último valor
+            tracked.cpuByPid.merge(process.pid(), cpu, Math::max);
+        }
+        for (long cpu : tracked.cpuByPid.values()) {
+            cpuNanos += cpu;
+        }
+        long now = System.nanoTime();
+        double percent = 0;
+        if (tracked.lastSampleNanos > 0 && now > tracked.lastSampleNanos) {
+            percent = 100.0 * (cpuNanos - tracked.lastCpuNanos) / (now - tracked.lastSampleNanos);
+        }
+        COSTS.computeIfAbsent(tracked.browser, BrowserCost::new).update(rssKb, percent);
+        Usage usage = USAGE.computeIfAbsent(tracked.worker, k -> new Usage());
+        synchronized (usage) {
+            usage.peakRssKb = Math.max(usage.peakRssKb, rssKb);
+            usage.peakCpuPercent = Math.max(usage.peakCpuPercent, percent);
+            usage.cpuBySession.put(tracked, cpuNanos);
+        }
+        tracked.lastSampleNanos = now;
+        tracked.lastCpuNanos = cpuNanos;
+    }
+
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Proceso terminado o sistema sin /proc
+        }
+        return 0;
+    }
+
+    /**
+     * Sesión registrada: hilo que la creó, navegador, proceso raíz (el driver) y suite
+     */
+    private static final class Tracked {
+        final String worker;
+        final String browser;
+        final ProcessHandle root;
+        final ISuite suite;
+        final Map<Long, Long> cpuByPid = new HashMap<>();
+        long lastSampleNanos;
+        long lastCpuNanos;
+
+        Tracked(String worker, String browser, ProcessHandle root, ISuite suite) {
+            this.worker = worker;
+            this.browser = browser;
+            this.root = root;
+            this.suite = suite;
+        }
+    }
+
+    /**
+     * Uso acumulado de recursos de un hilo de ejecución
+     */
+    private static final class Usage {
+        int drivers;
+        int reaped;
+        long peakRssKb;
+        double peakCpuPercent;
+        final Map<Tracked, Long> cpuBySession = new HashMap<>();
+
+        synchronized void addDriver() {
+            drivers++;
+        }
+
+        synchronized void addReaped(int processes) {
+            reaped += processes;
+        }
+
+        long cpuNanos() {
+            return cpuBySession.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    /**
+     * Mayor coste de una sesión de un navegador: RSS de todo su árbol de procesos y CPU
+     * (100% equivale a un núcleo)
+     */
+    public static final class BrowserCost {
+        private final String browser;
+        private long peakRssKb;
+        private double peakCpuPercent;
+
+        BrowserCost(String browser) {
+            this.browser = browser;
+        }
+
+        synchronized void update(long rssKb, double cpuPercent) {
+            peakRssKb = Math.max(peakRssKb, rssKb);
+            peakCpuPercent = Math.max(peakCpuPercent, cpuPercent);
+        }
+
+        public String getBrowser() {
+            return browser;
+        }
+
+        public synchronized double getRssMb() {
+            return peakRssKb / 1024.0;
+        }
+
+        public synchronized double getCpuPercent() {
+            return peakCpuPercent;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.expresscart.utils;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Listener de TestNG que elimina los procesos huérfanos de ejecuciones anteriores al
+ * empezar la suite, muestrea los procesos de los drivers durante la ejecución y, al
+ * terminar, elimina los de la suite que hayan quedado vivos y escribe el uso de recursos
+ * por hilo
+ */
+public class DriverProcessListener implements ISuiteListener {
+
+    @Override
+    public void onStart(ISuite suite) {
+        DriverProcessAccountant.reapOrphans();
+        DriverProcessAccountant.start(suite);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        DriverProcessAccountant.stop(suite);
+        DriverProcessAccountant.reapOrphans();
+    }
+}
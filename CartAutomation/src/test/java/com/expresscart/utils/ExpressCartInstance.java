@@ -0,0 +1,165 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instancia propia de expressCart para benchmarks, separada de la que usan las pruebas
+ *
+ * Se arranca con node en otro puerto y contra otra base de datos de MongoDB, usando
+ * las variables de entorno que expressCart acepta para sobrescribir su configuración
+ * (PORT y databaseConnectionString), de forma que sembrar catálogos grandes no toca
+ * los datos de las pruebas funcionales.
+ *
+ * Propiedades del sistema:
+ * - node.bin: ejecutable de node (por defecto "node")
+ * - benchmark.mongo: servidor de MongoDB (por defecto mongodb://127.0.0.1:27017)
+ * - benchmark.startTimeout: segundos máximos de arranque e indexado (por defecto 600)
+ */
+public final class ExpressCartInstance implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpressCartInstance.class);
+
+    private static final String NODE = System.getProperty("node.bin", "node");
+    private static final String MONGO = System.getProperty("benchmark.mongo", "mongodb://127.0.0.1:27017");
+    private static final long START_TIMEOUT_SECONDS = Long.getLong("benchmark.startTimeout", 600);
+    private static final String STARTED_MESSAGE = "expressCart running on host";
+
+    private final File appDir;
+    private final int port;
+    private final String databaseUrl;
+    private Process process;
+
+    private ExpressCartInstance(File appDir, int port, String databaseUrl) {
+        this.appDir = appDir;
+        this.port = port;
+        this.databaseUrl = databaseUrl;
+    }
+
+    /**
+     * Prepara una instancia de expressCart (sin arrancarla)
+     * @param port Puerto HTTP de la instancia
+     * @param database Nombre de la base de datos de MongoDB
+     * @return Instancia sin arrancar
+     */
+    public static ExpressCartInstance create(int port, String database) {
+        return new ExpressCartInstance(ExpressCartRoutes.appDirectory(), port, MONGO + "/" + database);
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    /**
+     * Siembra la base de datos de la instancia con un catálogo generado por
+     * lib/benchmarkdata.js a partir de los datos de prueba de expressCart
+     * @param productCount Número de productos del catálogo
+     * @return Milisegundos empleados
+     * @throws IOException Si el script falla
+     * @throws InterruptedException Si se interrumpe la espera
+     */
+    public long seed(int productCount) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Process seeder = processBuilder(NODE, "lib/benchmarkdata.js", String.valueOf(productCount)).start();
+        CountDownLatch done = new CountDownLatch(1);
+        pipeOutput(seeder, "benchmarkdata", null, done);
+        int exit = seeder.waitFor();
+        done.await(5, TimeUnit.SECONDS);
+        if (exit != 0) {
+            throw new IOException("lib/benchmarkdata.js terminó con código " + exit);
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Arranca la instancia y espera a que escuche, lo que incluye construir los índices
+     * de búsqueda de lib/indexing.js sobre el catálogo sembrado
+     * @return Milisegundos de arranque
+     * @throws IOException Si la aplicación termina o no arranca a tiempo
+     * @throws InterruptedException Si se interrumpe la espera
+     */
+    public long start() throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        process = processBuilder(NODE, "app.js").start();
+        CountDownLatch started = new CountDownLatch(1);
+        pipeOutput(process, "expressCart:" + port, started, null);
+        while (!started.await(1, TimeUnit.SECONDS)) {
+            if (!process.isAlive()) {
+                throw new IOException("expressCart terminó al arrancar con código " + process.exitValue());
+            }
+            if (System.currentTimeMillis() - start > TimeUnit.SECONDS.toMillis(START_TIMEOUT_SECONDS)) {
+                close();
+                throw new IOException("expressCart no arrancó en " + START_TIMEOUT_SECONDS + " s");
+            }
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Detiene la instancia y sus procesos hijos
+     */
+    @Override
+    public void close() {
+        if (process == null) {
+            return;
+        }
+        process.descendants().forEach(ProcessHandle::destroy);
+        process.destroy();
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        process = null;
+    }
+
+    private ProcessBuilder processBuilder(String... command) {
+        List<String> arguments = Arrays.asList(command);
+        ProcessBuilder builder = new ProcessBuilder(arguments).directory(appDir).redirectErrorStream(true);
+        builder.environment().put("PORT", String.valueOf(port));
+        builder.environment().put("databaseConnectionString", databaseUrl);
+        // NODE_ENV=test desactiva el indexado al arrancar y cambia de base de datos
+        builder.environment().remove("NODE_ENV");
+        return builder;
+    }
+
+    /**
+     * Vuelca la salida del proceso al log de depuración y avisa cuando aparece el
+     * mensaje de arranque o cuando termina la salida
+     */
+    private static void pipeOutput(Process source, String name, CountDownLatch started, CountDownLatch finished) {
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(source.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    log.debug("[{}] {}", name, line);
+                    if (started != null && line.contains(STARTED_MESSAGE)) {
+                        started.countDown();
+                    }
+                }
+            } catch (IOException e) {
+                // El proceso se ha cerrado
+            } finally {
+                if (finished != null) {
+                    finished.countDown();
+                }
+            }
+        }, name + "-output");
+        reader.setDaemon(true);
+        reader.start();
+    }
+}
@@ -0,0 +1,273 @@
+package com.expresscart.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Catálogo de rutas de expressCart obtenido de los ficheros routes/*.js
+ *
+ * Para cada declaración router.get/router.post guarda el patrón, el rango de líneas
+ * de su handler (hasta la siguiente declaración) y las vistas que renderiza, de forma
+ * que se puedan relacionar URLs visitadas, vistas y líneas modificadas con rutas.
+ */
+public final class ExpressCartRoutes {
+
+    private static final Pattern ROUTE = Pattern.compile("router\\.(get|post|put|delete|all)\\(\\s*'([^']+)'");
+    private static final Pattern THEME_VIEW = Pattern.compile("\\$\\{config\\.themeViews}([\\w-]+)");
+    private static final Pattern PLAIN_VIEW = Pattern.compile("\\.render\\(\\s*'([\\w-]+)'");
+    private static final Pattern REQUIRE_ROUTES = Pattern.compile("const (\\w+) = require\\('\\./routes/([\\w-]+)'\\)");
+    private static final Pattern MOUNT_ROUTES = Pattern.compile("app\\.use\\('/', (\\w+)\\)");
+    private static final Pattern THEME_SETTING = Pattern.compile("\"theme\"\\s*:\\s*\"([^\"]+)\"");
+
+    /**
+     * Ruta declarada en expressCart
+     */
+    public static final class Route {
+        private final String method;
+        private final String path;
+        private final String file;
+        private final int firstLine;
+        private int lastLine;
+        private final Set<String> views = new LinkedHashSet<>();
+        private final Pattern regex;
+
+        Route(String method, String path, String file, int firstLine) {
+            this.method = method;
+            this.path = path;
+            this.file = file;
+            this.firstLine = firstLine;
+            this.regex = Pattern.compile(toRegex(path));
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return Identificador de la ruta, por ejemplo "POST /product/addtocart"
+         */
+        public String getKey() {
+            return method + " " + path;
+        }
+
+        /**
+         * @return Vistas renderizadas por el handler, relativas a views/ (ej: "themes/Cloth/product.hbs")
+         */
+        public Set<String> getViews() {
+            return Collections.unmodifiableSet(views);
+        }
+
+        boolean matches(String requestPath) {
+            return regex.matcher(requestPath).matches();
+        }
+
+        boolean isLiteral() {
+            return !path.contains(":") && !path.contains("*");
+        }
+
+        boolean contains(String routeFile, int line) {
+            return file.equals(routeFile) && line >= firstLine && line <= lastLine;
+        }
+    }
+
+    private final List<Route> routes;
+    private final String theme;
+
+    private ExpressCartRoutes(List<Route> routes, String theme) {
+        this.routes = routes;
+        this.theme = theme;
+    }
+
+    /**
+     * Directorio de expressCart, configurable con la propiedad expresscart.dir
+     * @return Directorio raíz de la aplicación
+     */
+    public static File appDirectory() {
+        return new File(System.getProperty("expresscart.dir", "../expressCart"));
+    }
+
+    /**
+     * Lee las rutas de routes/*.js y el tema activo de config/settings.json
+     * @param appDir Directorio raíz de expressCart
+     * @return Catálogo de rutas
+     * @throws IOException Si no se pueden leer los ficheros de la aplicación
+     */
+    public static ExpressCartRoutes load(File appDir) throws IOException {
+        String settings = new String(Files.readAllBytes(new File(appDir, "config/settings.json").toPath()),
+                StandardCharsets.UTF_8);
+        Matcher themeMatcher = THEME_SETTING.matcher(settings);
+        String theme = themeMatcher.find() ? themeMatcher.group(1) : "Cloth";
+
+        List<Route> routes = new ArrayList<>();
+        for (File file : mountOrder(appDir)) {
+            if (!file.exists()) {
+                continue;
+            }
+            String relative = "routes/" + file.getName();
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            Route current = null;
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                Matcher route = ROUTE.matcher(line);
+                if (route.find()) {
+                    if (current != null) {
+                        current.lastLine = i;
+                    }
+                    current = new Route(route.group(1).toUpperCase(), route.group(2), relative, i + 1);
+                    routes.add(current);
+                }
+                if (current != null) {
+                    Matcher themeView = THEME_VIEW.matcher(line);
+                    while (themeView.find()) {
+                        current.views.add("themes/" + theme + "/" + themeView.group(1) + ".hbs");
+                    }
+                    Matcher plainView = PLAIN_VIEW.matcher(line);
+                    while (plainView.find()) {
+                        current.views.add(plainView.group(1) + ".hbs");
+                    }
+                }
+            }
+            if (current != null) {
+                current.lastLine = lines.size();
+            }
+        }
+        return new ExpressCartRoutes(routes, theme);
+    }
+
+    /**
+     * Ficheros de rutas en el orden en que app.js los monta, que es el orden en que
+     * Express los evalúa. Si no se puede determinar, se usa el orden alfabético.
+     */
+    private static List<File> mountOrder(File appDir) throws IOException {
+        List<File> ordered = new ArrayList<>();
+        File appJs = new File(appDir, "app.js");
+        if (appJs.exists()) {
+            String app = new String(Files.readAllBytes(appJs.toPath()), StandardCharsets.UTF_8);
+            Map<String, String> requires = new HashMap<>();
+            Matcher require = REQUIRE_ROUTES.matcher(app);
+            while (require.find()) {
+                requires.put(require.group(1), require.group(2));
+            }
+            Matcher mount = MOUNT_ROUTES.matcher(app);
+            while (mount.find()) {
+                String module = requires.get(mount.group(1));
+                if (module != null) {
+                    ordered.add(new File(appDir, "routes/" + module + ".js"));
+                }
+            }
+        }
+        if (ordered.isEmpty()) {
+            File[] files = new File(appDir, "routes").listFiles((dir, name) -> name.endsWith(".js"));
+            if (files == null) {
+                throw new IOException("No se encontró el directorio de rutas en " + appDir);
+            }
+            ordered.addAll(Arrays.asList(files));
+            ordered.sort(null);
+        }
+        return ordered;
+    }
+
+    public String getTheme() {
+        return theme;
+    }
+
+    public List<Route> getRoutes() {
+        return Collections.unmodifiableList(routes);
+    }
+
+    /**
+     * Busca la ruta que atiende una URL visitada
+     *
+     * Resource Timing no informa del método HTTP, así que para las peticiones AJAX se
+     * prefiere una ruta literal (ej: POST /product/addtocart) frente a una con parámetros
+     * declarada antes (GET /product/:id). Las navegaciones solo pueden ser GET.
+     *
+     * @param requestPath Ruta de la URL (sin dominio ni query)
+     * @param navigation true si fue una navegación del documento, false si fue AJAX
+     * @return Ruta que la atiende, si existe
+     */
+    public Optional<Route> match(String requestPath, boolean navigation) {
+        Route firstMatch = null;
+        for (Route route : routes) {
+            if (navigation && !route.method.equals("GET") && !route.method.equals("ALL")) {
+                continue;
+            }
+            if (route.matches(requestPath)) {
+                if (navigation || route.isLiteral()) {
+                    return Optional.of(route);
+                }
+                if (firstMatch == null) {
+                    firstMatch = route;
+                }
+            }
+        }
+        return Optional.ofNullable(firstMatch);
+    }
+
+    /**
+     * Rutas cuyo handler contiene una línea de un fichero de rutas
+     * @param routeFile Fichero relativo a expressCart (ej: "routes/index.js")
+     * @param line Número de línea (base 1)
+     * @return Ruta que contiene la línea, o vacío si está fuera de cualquier handler
+     */
+    public Optional<Route> routeAtLine(String routeFile, int line) {
+        return routes.stream().filter(route -> route.contains(routeFile, line)).findFirst();
+    }
+
+    /**
+     * Rutas que renderizan una vista
+     * @param view Vista relativa a views/ (ej: "themes/Cloth/checkout-payment.hbs")
+     * @return Rutas que la renderizan
+     */
+    public List<Route> routesRendering(String view) {
+        List<Route> result = new ArrayList<>();
+        for (Route route : routes) {
+            if (route.views.contains(view)) {
+                result.add(route);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Convierte un patrón de Express (/search/:searchTerm/:pageNum?) en una expresión regular
+     */
+    static String toRegex(String expressPath) {
+        StringBuilder regex = new StringBuilder();
+        for (String segment : expressPath.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.startsWith(":") && segment.endsWith("?")) {
+                regex.append("(?:/[^/]+)?");
+            } else if (segment.startsWith(":")) {
+                regex.append("/[^/]+");
+            } else if (segment.equals("*")) {
+                regex.append("/.*");
+            } else {
+                regex.append("/").append(Pattern.quote(segment));
+            }
+        }
+        if (regex.length() == 0) {
+            return "/?";
+        }
+        return regex + "/?";
+    }
+}
@@ -0,0 +1,174 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Clasificador de fallos de test
+ *
+ * Distingue los fallos de infraestructura (elementos obsoletos, esperas agotadas y clicks
+ * interceptados en clickElement, tiempos agotados del driver o de su conexión HTTP,
+ * navegador o driver caído), que se pueden reintentar, de los fallos reales del producto
+ * (aserciones y cualquier otra excepción), que nunca se reintentan.
+ *
+ * Una espera de WebDriverWait que se agota fuera de clickElement (el elemento no llega a
+ * aparecer, el carrito no se actualiza) es un fallo real del producto, igual que un click
+ * interceptado fuera de clickElement (algo tapa el control).
+ */
+public final class FailureClassifier {
+
+    /**
+     * Categoría de un fallo
+     */
+    public enum Category {
+        INFRASTRUCTURE,
+        PRODUCT
+    }
+
+    /**
+     * Resultado de la clasificación: categoría y motivo legible
+     */
+    public static final class Classification {
+        private final Category category;
+        private final String reason;
+        private final boolean driverLost;
+
+        Classification(Category category, String reason, boolean driverLost) {
+            this.category = category;
+            this.reason = reason;
+            this.driverLost = driverLost;
+        }
+
+        public Category getCategory() {
+            return category;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * @return true si el navegador ya no es utilizable y hay que crear uno nuevo
+         */
+        public boolean isDriverLost() {
+            return driverLost;
+        }
+
+        public boolean isInfrastructure() {
+            return category == Category.INFRASTRUCTURE;
+        }
+
+        @Override
+        public String toString() {
+            return category + " (" + reason + ")";
+        }
+    }
+
+    // Fragmentos de mensaje con los que los drivers informan de que el navegador ha caído
+    private static final List<String> DRIVER_CRASH_MESSAGES = Arrays.asList(
+            "chrome not reachable", "disconnected: ", "session deleted because of page crash",
+            "target window already closed", "browsing context has been discarded",
+            "failed to decode response from marionette", "tab crashed", "connection refused");
+
+    private static final String BASE_PAGE = "com.expresscart.pages.BasePage";
+    private static final String REMOTE_PACKAGE = "org.openqa.selenium.remote.";
+
+    private FailureClassifier() {
+    }
+
+    /**
+     * Clasifica un fallo recorriendo su cadena de causas
+     * @param failure Excepción o error con el que terminó el test
+     * @return Clasificación del fallo
+     */
+    public static Classification classify(Throwable failure) {
+        if (failure == null) {
+            return new Classification(Category.PRODUCT, "sin excepción", false);
+        }
+        Set<Throwable> seen = new HashSet<>();
+        for (Throwable t = failure; t != null && seen.add(t); t = t.getCause()) {
+            if (t instanceof AssertionError) {
+                // Una aserción fallida es un fallo real aunque envuelva otra excepción
+                return new Classification(Category.PRODUCT, "aserción", false);
+            }
+            Classification infrastructure = classifyInfrastructure(t);
+            if (infrastructure != null) {
+                return infrastructure;
+            }
+        }
+        return new Classification(Category.PRODUCT, failure.getClass().getSimpleName(), false);
+    }
+
+    /**
+     * Indica si un fallo es de infraestructura
+     * @param failure Excepción a evaluar
+     * @return true si se trata de un fallo de infraestructura reintentable
+     */
+    public static boolean isInfrastructure(Throwable failure) {
+        return classify(failure).isInfrastructure();
+    }
+
+    private static Classification classifyInfrastructure(Throwable t) {
+        if (t instanceof StaleElementReferenceException) {
+            return new Classification(Category.INFRASTRUCTURE, "elemento obsoleto", false);
+        }
+        if (t instanceof TimeoutException) {
+            if (thrownBy(t, REMOTE_PACKAGE, null)) {
+                // Respuesta del driver o de su cliente HTTP, no una espera del test
+                return new Classification(Category.INFRASTRUCTURE, "tiempo agotado del driver", false);
+            }
+            if (thrownBy(t, BASE_PAGE, "clickElement")) {
+                return new Classification(Category.INFRASTRUCTURE, "espera agotada en clickElement", false);
+            }
+            return null;
+        }
+        if (t instanceof SocketTimeoutException || t instanceof HttpTimeoutException) {
+            return new Classification(Category.INFRASTRUCTURE, "tiempo agotado en la conexión con el driver", false);
+        }
+        if (t instanceof ElementClickInterceptedException && thrownBy(t, BASE_PAGE, "clickElement")) {
+            // clickElement ya recurre al click por JavaScript; fuera de él, algo tapa el
+            // control y es un fallo de la interfaz
+            return new Classification(Category.INFRASTRUCTURE, "click interceptado en clickElement", false);
+        }
+        if (t instanceof NoSuchSessionException || t instanceof UnreachableBrowserException
+                || t instanceof SessionNotCreatedException) {
+            return new Classification(Category.INFRASTRUCTURE, "driver caído", true);
+        }
+        if (t instanceof WebDriverException && t.getMessage() != null) {
+            String message = t.getMessage().toLowerCase(Locale.ROOT);
+            for (String fragment : DRIVER_CRASH_MESSAGES) {
+                if (message.contains(fragment)) {
+                    return new Classification(Category.INFRASTRUCTURE, "driver caído", true);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indica si la pila de la excepción pasa por una clase o paquete (y, si se indica, por
+     * un método cuyo nombre contiene el texto, lo que incluye sus lambdas)
+     */
+    private static boolean thrownBy(Throwable t, String className, String method) {
+        for (StackTraceElement frame : t.getStackTrace()) {
+            if (frame.getClassName().startsWith(className)
+                    && (method == null || frame.getMethodName().contains(method))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
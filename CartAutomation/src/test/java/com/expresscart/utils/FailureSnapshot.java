@@ -0,0 +1,167 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.testng.ITestResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot ligero del estado de la página cuando falla un test, alternativa a la captura PNG
+ *
+ * Con una sola llamada a WebDriver se serializa el DOM (con los valores actuales de los
+ * formularios y sin scripts), la URL, el título, el localStorage y el carrito de la sesión
+ * (/checkout/cartdata). Se añaden los últimos eventos del navegador (consola, excepciones
+ * y respuestas, ver BrowserEvents) y todo se guarda como JSON comprimido con gzip en
+ * target/failure-snapshots/[nombre_test]_[timestamp].json.gz: no hace falta renderizar la
+ * página, ocupa una fracción de un PNG y se puede buscar con zgrep.
+ *
+ * En el mismo directorio se deja viewer.html, que abre los snapshots sin conexión: la
+ * página reconstruida, el DOM con búsqueda, el carrito y los eventos.
+ *
+ * La captura PNG de ScreenshotUtils queda como extra opcional para los fallos visuales.
+ *
+ * Propiedades del sistema:
+ * - failure.snapshot: guardar el snapshot al fallar (por defecto true)
+ * - failure.screenshot: guardar también la captura PNG (por defecto false)
+ */
+public final class FailureSnapshot {
+
+    public static final String SNAPSHOT_ATTRIBUTE = "snapshot";
+
+    private static final Logger log = TestLogger.getLogger(FailureSnapshot.class);
+
+    private static final boolean SNAPSHOT = Boolean.parseBoolean(System.getProperty("failure.snapshot", "true"));
+    private static final boolean SCREENSHOT = Boolean.getBoolean("failure.screenshot");
+    private static final String SNAPSHOT_DIR = "target/failure-snapshots";
+    private static final String VIEWER = "viewer.html";
+
+    private static final String SNAPSHOT_SCRIPT =
+            "var done = arguments[arguments.length - 1], finished = false;"
+            + "function finish(result) { if (!finished) { finished = true; done(result); } }"
+            + "var root = document.documentElement, clone = root.cloneNode(true);"
+            // Los valores escritos por el test no están en los atributos del DOM
+            + "var live = root.querySelectorAll('input, textarea, select'),"
+            + "    copy = clone.querySelectorAll('input, textarea, select');"
+            + "for (var i = 0; i < live.length && i < copy.length; i++) {"
+            + "  var el = live[i], c = copy[i];"
+            + "  if (el.tagName === 'TEXTAREA') { c.textContent = el.value; }"
+            + "  else if (el.tagName === 'SELECT') {"
+            + "    for (var j = 0; j < el.options.length; j++) {"
+            + "      if (el.options[j].selected) { c.options[j].setAttribute('selected', ''); }"
+            + "      else { c.options[j].removeAttribute('selected'); }"
+            + "    }"
+            + "  } else if (el.type === 'checkbox' || el.type === 'radio') {"
+            + "    if (el.checked) { c.setAttribute('checked', ''); } else { c.removeAttribute('checked'); }"
+            + "  } else if (el.type !== 'password') { c.setAttribute('value', el.value); }"
+            + "}"
+            + "Array.prototype.forEach.call(clone.querySelectorAll('script'), function(s) { s.parentNode.removeChild(s); });"
+            + "var snapshot = {url: location.href, title: document.title, userAgent: navigator.userAgent,"
+            + "    viewport: [window.innerWidth, window.innerHeight], scroll: [window.scrollX, window.scrollY],"
+            + "    dom: '<!DOCTYPE html>\\n' + clone.outerHTML, localStorage: {}, cart: null};"
+            + "try {"
+            + "  for (var k = 0; k < localStorage.length; k++) {"
+            + "    snapshot.localStorage[localStorage.key(k)] = localStorage.getItem(localStorage.key(k));"
+            + "  }"
+            + "} catch (e) {}"
+            + "if (!window.fetch || location.protocol.indexOf('http') !== 0) { finish(snapshot); }"
+            + "else {"
+            + "  setTimeout(function() { finish(snapshot); }, 3000);"
+            + "  fetch('/checkout/cartdata', {credentials: 'same-origin'})"
+            + "    .then(function(r) { return r.ok ? r.json() : null; })"
+            + "    .then(function(data) { snapshot.cart = data; }, function() {})"
+            + "    .then(function() { finish(snapshot); });"
+            + "}";
+
+    private FailureSnapshot() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Guarda el estado de un test fallido: el snapshot y, si se ha pedido, la captura PNG
+     * @param result Resultado del test fallido
+     * @param driver Navegador del test (puede ser null)
+     */
+    public static void capture(ITestResult result, WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        if (SNAPSHOT) {
+            result.setAttribute(SNAPSHOT_ATTRIBUTE, takeSnapshot(driver, result.getName()));
+        }
+        if (SCREENSHOT) {
+            result.setAttribute(ScreenshotUtils.SCREENSHOT_ATTRIBUTE, ScreenshotUtils.takeScreenshot(driver, result.getName()));
+        }
+    }
+
+    /**
+     * Guarda el snapshot de la página actual
+     * @param driver Navegador
+     * @param testName Nombre del test para identificar el snapshot
+     * @return Ruta del snapshot, o null si no se ha podido guardar
+     */
+    @SuppressWarnings("unchecked")
+    public static String takeSnapshot(WebDriver driver, String testName) {
+        long start = System.nanoTime();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("test", testName);
+        snapshot.put("timestamp", System.currentTimeMillis());
+        try {
+            snapshot.putAll((Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(SNAPSHOT_SCRIPT));
+        } catch (WebDriverException | ClassCastException e) {
+            // Sin la página se guardan igualmente los eventos del navegador
+            snapshot.put("error", e.getClass().getSimpleName() + ": " + String.valueOf(e.getMessage()).split("\n")[0]);
+        }
+        snapshot.put("events", BrowserEvents.of(driver).snapshot().stream()
+                .map(String::valueOf).collect(Collectors.toList()));
+
+        File dir = new File(SNAPSHOT_DIR);
+        dir.mkdirs();
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        File file = new File(dir, testName + "_" + timestamp + ".json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file.toPath()));
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            new Json().newOutput(writer).setPrettyPrint(false).write(snapshot);
+        } catch (IOException e) {
+            log.error("Error al guardar el snapshot: {}", e.getMessage());
+            return null;
+        }
+        copyViewer(dir);
+        LatencyRecorder.record("FailureSnapshot.capture", System.nanoTime() - start);
+        log.info("Snapshot guardado en: {} ({} KB)", file.getPath(), Math.max(1, file.length() / 1024));
+        return file.getPath();
+    }
+
+    private static synchronized void copyViewer(File dir) {
+        File viewer = new File(dir, VIEWER);
+        if (viewer.exists()) {
+            return;
+        }
+        try (InputStream in = FailureSnapshot.class.getResourceAsStream("/failure-snapshots/" + VIEWER)) {
+            if (in == null) {
+                log.warn("No se encontró el visor de snapshots en el classpath");
+                return;
+            }
+            Files.copy(in, viewer.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("No se pudo copiar el visor de snapshots: {}", e.getMessage());
+        }
+    }
+}
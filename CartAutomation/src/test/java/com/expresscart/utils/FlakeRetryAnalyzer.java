@@ -0,0 +1,35 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+
+/**
+ * Reintenta inmediatamente los tests que fallan por causas de infraestructura
+ *
+ * Los fallos del producto (aserciones y demás excepciones) no se reintentan nunca.
+ * El número máximo de reintentos por test se configura con la propiedad del
+ * sistema retry.max (por defecto 1; 0 desactiva los reintentos).
+ */
+public class FlakeRetryAnalyzer implements IRetryAnalyzer {
+
+    public static final String CLASSIFICATION_ATTRIBUTE = "failureClassification";
+
+    private static final Logger log = TestLogger.getLogger(FlakeRetryAnalyzer.class);
+    private static final int MAX_RETRIES = Integer.getInteger("retry.max", 1);
+
+    private int retries;
+
+    @Override
+    public boolean retry(ITestResult result) {
+        FailureClassifier.Classification classification = FailureClassifier.classify(result.getThrowable());
+        result.setAttribute(CLASSIFICATION_ATTRIBUTE, classification);
+        if (!classification.isInfrastructure() || retries >= MAX_RETRIES) {
+            return false;
+        }
+        retries++;
+        log.warn("Fallo de infraestructura en {} ({}); reintento {}/{}",
+                result.getMethod().getQualifiedName(), classification.getReason(), retries, MAX_RETRIES);
+        return true;
+    }
+}
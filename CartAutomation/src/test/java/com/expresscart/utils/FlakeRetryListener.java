@@ -0,0 +1,108 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IAnnotationTransformer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Listener de TestNG que asigna FlakeRetryAnalyzer a todos los tests y lleva la
+ * cuenta de intentos, flakes y fallos reales por test.
+ *
+ * Al terminar la suite acumula los contadores en test-history/flake-stats.properties
+ * y muestra la tasa de flakes histórica de los tests que han tenido alguno.
+ */
+public class FlakeRetryListener implements IAnnotationTransformer, ITestListener, ISuiteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FlakeRetryListener.class);
+    private static final String HISTORY_FILE = "flake-stats.properties";
+
+    private static final Map<String, Counters> COUNTERS = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        if (annotation.getRetryAnalyzerClass() == null
+                || annotation.getRetryAnalyzerClass().getName().startsWith("org.testng.")) {
+            annotation.setRetryAnalyzer(FlakeRetryAnalyzer.class);
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        counters(result).attempts.incrementAndGet();
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        Counters counters = counters(result);
+        counters.attempts.incrementAndGet();
+        counters.failures.incrementAndGet();
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        // Un intento reintentado se notifica como skip
+        if (result.wasRetried()) {
+            Counters counters = counters(result);
+            counters.attempts.incrementAndGet();
+            counters.flakes.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (COUNTERS.isEmpty()) {
+            return;
+        }
+        Properties history = TestHistory.load(HISTORY_FILE);
+        Map<String, long[]> totals = new TreeMap<>();
+        COUNTERS.forEach((test, counters) -> {
+            long attempts = add(history, test + ".attempts", counters.attempts.getAndSet(0));
+            long flakes = add(history, test + ".flakes", counters.flakes.getAndSet(0));
+            long failures = add(history, test + ".failures", counters.failures.getAndSet(0));
+            totals.put(test, new long[]{attempts, flakes, failures});
+        });
+        COUNTERS.clear();
+        TestHistory.store(HISTORY_FILE, history, "Intentos, flakes de infraestructura y fallos reales por test");
+
+        totals.forEach((test, t) -> {
+            if (t[1] > 0) {
+                log.info(String.format(Locale.ROOT, "Tasa de flakes %s: %.1f%% (%d de %d intentos, %d fallos reales)",
+                        test, 100.0 * t[1] / t[0], t[1], t[0], t[2]));
+            }
+        });
+    }
+
+    private static long add(Properties history, String key, long delta) {
+        long value = Long.parseLong(history.getProperty(key, "0")) + delta;
+        history.setProperty(key, String.valueOf(value));
+        return value;
+    }
+
+    private static Counters counters(ITestResult result) {
+        return COUNTERS.computeIfAbsent(result.getMethod().getQualifiedName(), k -> new Counters());
+    }
+
+    /**
+     * Contadores de un test durante la ejecución actual
+     */
+    private static final class Counters {
+        final AtomicLong attempts = new AtomicLong();
+        final AtomicLong flakes = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+    }
+}
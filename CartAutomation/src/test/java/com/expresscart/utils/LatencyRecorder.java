@@ -0,0 +1,144 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registro de latencias de los pasos de los Page Objects (añadir, actualizar, eliminar...)
+ *
+ * Cada muestra se guarda bajo el perfil de limitación activo en el hilo del test,
+ * de forma que una misma suite ejecutada con varios perfiles produce una
+ * distribución por paso y perfil.
+ */
+public final class LatencyRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyRecorder.class);
+
+    private static final String REPORT_PATH = "target/latency/latency-summary.csv";
+
+    private static final ThreadLocal<String> PROFILE = ThreadLocal.withInitial(() -> ThrottlingProfile.NONE.getProfileName());
+    private static final Map<String, Samples> SAMPLES = new ConcurrentHashMap<>();
+
+    private LatencyRecorder() {
+    }
+
+    /**
+     * Establece el perfil de limitación del hilo actual
+     * @param profile Nombre del perfil (ej: "slow-4g")
+     */
+    public static void setProfile(String profile) {
+        PROFILE.set(profile == null || profile.trim().isEmpty() ? ThrottlingProfile.NONE.getProfileName() : profile.trim());
+    }
+
+    public static String getProfile() {
+        return PROFILE.get();
+    }
+
+    /**
+     * Registra la duración de un paso
+     * @param step Nombre del paso (ej: "ProductPage.addToCart")
+     * @param nanos Duración en nanosegundos
+     */
+    public static void record(String step, long nanos) {
+        SAMPLES.computeIfAbsent(PROFILE.get() + "|" + step, k -> new Samples()).add(nanos);
+        ConcurrencyController.recordStep(step, nanos);
+    }
+
+    /**
+     * Ejecuta una acción y registra su duración
+     * @param step Nombre del paso
+     * @param action Acción a medir
+     * @return Resultado de la acción
+     */
+    public static <T> T time(String step, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(step, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Obtiene una copia de las muestras registradas, en milisegundos
+     * @return Mapa "perfil|paso" a muestras
+     */
+    public static Map<String, double[]> snapshot() {
+        Map<String, double[]> copy = new TreeMap<>();
+        SAMPLES.forEach((key, samples) -> copy.put(key, samples.toMillis()));
+        return copy;
+    }
+
+    /**
+     * Escribe el resumen de latencias (p50, p95 y máximo) por perfil y paso
+     * @return Ruta del resumen, o null si no hay muestras
+     */
+    public static String writeReport() {
+        Map<String, double[]> snapshot = snapshot();
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+        File report = new File(REPORT_PATH);
+        report.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(report, StandardCharsets.UTF_8)) {
+            out.println("profile,step,count,p50_ms,p95_ms,max_ms");
+            log.info("Latencias por perfil y paso:");
+            for (Map.Entry<String, double[]> entry : snapshot.entrySet()) {
+                String[] key = entry.getKey().split("\\|", 2);
+                double[] values = entry.getValue().clone();
+                Arrays.sort(values);
+                String line = String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.1f,%.1f", key[0], key[1], values.length,
+                        percentile(values, 50), percentile(values, 95), values[values.length - 1]);
+                out.println(line);
+                log.info(String.format(Locale.ROOT, "  [%s] %s: p50=%.1f ms p95=%.1f ms (n=%d)",
+                        key[0], key[1], percentile(values, 50), percentile(values, 95), values.length));
+            }
+        } catch (IOException e) {
+            log.error("Error al escribir el resumen de latencias: {}", e.getMessage());
+            return null;
+        }
+        return REPORT_PATH;
+    }
+
+    /**
+     * Percentil por el método del rango más cercano sobre valores ordenados
+     * @param sorted Valores ordenados de menor a mayor
+     * @param percentile Percentil entre 0 y 100
+     * @return Valor del percentil
+     */
+    public static double percentile(double[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    /**
+     * Muestras de un paso, protegidas para escrituras desde varios hilos
+     */
+    private static final class Samples {
+        private final List<Long> nanos = new ArrayList<>();
+
+        synchronized void add(long value) {
+            nanos.add(value);
+        }
+
+        synchronized double[] toMillis() {
+            return nanos.stream().mapToDouble(n -> n / 1_000_000.0).toArray();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.expresscart.utils;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Listener de TestNG que escribe el resumen del LatencyRecorder al terminar la suite
+ */
+public class LatencyReportListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        LatencyRecorder.writeReport();
+    }
+}
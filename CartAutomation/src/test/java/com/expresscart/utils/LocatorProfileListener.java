@@ -0,0 +1,15 @@
+package com.expresscart.utils;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Listener de TestNG que genera el informe del LocatorProfiler al terminar la suite
+ */
+public class LocatorProfileListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        LocatorProfiler.writeReport();
+    }
+}
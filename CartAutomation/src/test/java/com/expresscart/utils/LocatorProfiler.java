@@ -0,0 +1,251 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Perfilador de localizadores usados por los Page Objects
+ *
+ * Mide el coste y el número de coincidencias de cada localizador (campos @FindBy y
+ * búsquedas directas) contra la página real, y propone selectores CSS equivalentes
+ * para los XPath que se pueden traducir con seguridad.
+ *
+ * Se controla con propiedades del sistema:
+ * - locators.profile=true: activa la medición y el informe al final de la suite
+ * - locators.css=true: sustituye en tiempo de ejecución los XPath traducibles por su CSS
+ */
+public final class LocatorProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(LocatorProfiler.class);
+
+    private static final boolean PROFILE = Boolean.getBoolean("locators.profile");
+    private static final boolean CSS_REWRITE = Boolean.getBoolean("locators.css");
+    private static final String REPORT_PATH = "target/locator-profile.csv";
+
+    private static final Map<String, LocatorStats> STATS = new ConcurrentHashMap<>();
+
+    private LocatorProfiler() {
+    }
+
+    public static boolean isProfilingEnabled() {
+        return PROFILE;
+    }
+
+    public static boolean isCssRewriteEnabled() {
+        return CSS_REWRITE;
+    }
+
+    /**
+     * Devuelve el localizador que debe usarse realmente para una búsqueda
+     * @param by Localizador declarado en el Page Object
+     * @param elementContext true si la búsqueda parte de un elemento
+     * @return El CSS equivalente si la reescritura está activa y es segura, o el original
+     */
+    public static By resolve(By by, boolean elementContext) {
+        if (!CSS_REWRITE) {
+            return by;
+        }
+        return cssCandidate(by, elementContext).map(By::cssSelector).orElse(by);
+    }
+
+    /**
+     * Calcula el selector CSS equivalente a un localizador XPath
+     * @param by Localizador original
+     * @param elementContext true si la búsqueda parte de un elemento
+     * @return Selector CSS o vacío si el localizador no es XPath o no es traducible
+     */
+    public static Optional<String> cssCandidate(By by, boolean elementContext) {
+        if (!(by instanceof By.Remotable)) {
+            return Optional.empty();
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) by).getRemoteParameters();
+        if (!"xpath".equals(parameters.using())) {
+            return Optional.empty();
+        }
+        return XPathToCss.translate(String.valueOf(parameters.value()), elementContext);
+    }
+
+    /**
+     * Busca un elemento aplicando la reescritura y midiendo el coste si está activo
+     * @param context Driver o elemento desde el que buscar
+     * @param by Localizador declarado
+     * @return Elemento encontrado
+     */
+    public static WebElement findElement(SearchContext context, By by) {
+        boolean elementContext = !(context instanceof WebDriver);
+        By effective = resolve(by, elementContext);
+        if (!PROFILE) {
+            return context.findElement(effective);
+        }
+        long start = System.nanoTime();
+        try {
+            WebElement element = context.findElement(effective);
+            record(context, by, elementContext, System.nanoTime() - start, 1);
+            return element;
+        } catch (NoSuchElementException e) {
+            record(context, by, elementContext, System.nanoTime() - start, 0);
+            throw e;
+        }
+    }
+
+    /**
+     * Busca todos los elementos aplicando la reescritura y midiendo el coste si está activo
+     * @param context Driver o elemento desde el que buscar
+     * @param by Localizador declarado
+     * @return Lista de elementos encontrados
+     */
+    public static List<WebElement> findElements(SearchContext context, By by) {
+        boolean elementContext = !(context instanceof WebDriver);
+        By effective = resolve(by, elementContext);
+        if (!PROFILE) {
+            return context.findElements(effective);
+        }
+        long start = System.nanoTime();
+        List<WebElement> elements = context.findElements(effective);
+        record(context, by, elementContext, System.nanoTime() - start, elements.size());
+        return elements;
+    }
+
+    /**
+     * Registra una búsqueda ya realizada. La primera vez que se ve un localizador con
+     * candidato CSS se mide también el candidato y se compara el número de coincidencias.
+     */
+    static void record(SearchContext context, By by, boolean elementContext, long nanos, int matches) {
+        LocatorStats stats = STATS.computeIfAbsent(key(by, elementContext),
+                k -> new LocatorStats(by.toString(), elementContext, cssCandidate(by, elementContext).orElse(null)));
+        stats.record(nanos, matches);
+        if (stats.css != null && stats.probed.compareAndSet(false, true)) {
+            probe(context, by, stats);
+        }
+    }
+
+    private static void probe(SearchContext context, By by, LocatorStats stats) {
+        try {
+            long start = System.nanoTime();
+            int original = context.findElements(by).size();
+            stats.xpathProbeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int candidate = context.findElements(By.cssSelector(stats.css)).size();
+            stats.cssProbeNanos = System.nanoTime() - start;
+
+            stats.xpathProbeMatches = original;
+            stats.cssProbeMatches = candidate;
+        } catch (RuntimeException e) {
+            // Un selector rechazado por el navegador no es un candidato válido
+            stats.cssProbeMatches = -1;
+        }
+    }
+
+    private static String key(By by, boolean elementContext) {
+        return (elementContext ? "element|" : "driver|") + by;
+    }
+
+    /**
+     * Escribe el informe CSV con las estadísticas acumuladas, ordenado por coste total
+     * @return Ruta del informe, o null si el perfilado no está activo o no hay datos
+     */
+    public static String writeReport() {
+        if (!PROFILE || STATS.isEmpty()) {
+            return null;
+        }
+        List<LocatorStats> rows = new ArrayList<>(STATS.values());
+        rows.sort(Comparator.comparingLong((LocatorStats s) -> s.totalNanos.sum()).reversed());
+
+        File report = new File(REPORT_PATH);
+        report.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(report, StandardCharsets.UTF_8)) {
+            out.println("locator,context,calls,total_ms,avg_ms,max_ms,last_matches,css_candidate,"
+                    + "xpath_probe_ms,css_probe_ms,css_equivalent");
+            for (LocatorStats s : rows) {
+                out.println(String.join(",",
+                        quote(s.locator),
+                        s.elementContext ? "element" : "driver",
+                        String.valueOf(s.calls.sum()),
+                        millis(s.totalNanos.sum()),
+                        millis(s.totalNanos.sum() / Math.max(1, s.calls.sum())),
+                        millis(s.maxNanos.get()),
+                        String.valueOf(s.lastMatches.get()),
+                        quote(s.css == null ? "" : s.css),
+                        s.css == null ? "" : millis(s.xpathProbeNanos),
+                        s.css == null ? "" : millis(s.cssProbeNanos),
+                        s.css == null ? "" : String.valueOf(s.isCssEquivalent())));
+            }
+        } catch (IOException e) {
+            log.error("Error al escribir el perfil de localizadores: {}", e.getMessage());
+            return null;
+        }
+
+        log.info("Perfil de localizadores (más costosos primero):");
+        rows.stream().limit(10).forEach(s -> log.info(String.format(Locale.ROOT,
+                "  %8s ms  %4d llamadas  %3d coincidencias  %s%s",
+                millis(s.totalNanos.sum()), s.calls.sum(), s.lastMatches.get(), s.locator,
+                s.css == null ? "" : "  -> css: " + s.css)));
+        log.info("Perfil completo en: {}", REPORT_PATH);
+        return REPORT_PATH;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Estadísticas acumuladas de un localizador
+     */
+    private static final class LocatorStats {
+        final String locator;
+        final boolean elementContext;
+        final String css;
+        final LongAdder calls = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final AtomicInteger lastMatches = new AtomicInteger();
+        final AtomicBoolean probed = new AtomicBoolean();
+        volatile long xpathProbeNanos;
+        volatile long cssProbeNanos;
+        volatile int xpathProbeMatches;
+        volatile int cssProbeMatches;
+
+        LocatorStats(String locator, boolean elementContext, String css) {
+            this.locator = locator;
+            this.elementContext = elementContext;
+            this.css = css;
+        }
+
+        void record(long nanos, int matches) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            lastMatches.set(matches);
+        }
+
+        boolean isCssEquivalent() {
+            return cssProbeMatches >= 0 && cssProbeMatches == xpathProbeMatches;
+        }
+    }
+}
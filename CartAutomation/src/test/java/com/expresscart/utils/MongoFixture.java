@@ -0,0 +1,222 @@
+package com.expresscart.utils;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixture de datos de expressCart en MongoDB: instantánea en memoria y restauración rápida
+ *
+ * Captura una sola vez las colecciones que ensucian los tests (products, variants, cart y
+ * sessions) y las restaura con una escritura en bloque por colección (borrado e inserción
+ * de los documentos originales con sus _id), en lugar de volver a sembrar. Antes de
+ * restaurar compara el hash de cada colección (comando dbHash) con el de la instantánea y
+ * solo reescribe las que han cambiado, así que restaurar una base de datos limpia cuesta
+ * una única consulta.
+ *
+ * Si la base de datos no tiene productos, se siembra con los productos y variantes de
+ * bin/testdata.json de expressCart, igual que su testhelper.
+ *
+ * La instantánea también se puede restaurar en otra base de datos (ej: una por worker,
+ * para una instancia propia de expressCart con ExpressCartInstance).
+ */
+public final class MongoFixture implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoFixture.class);
+
+    public static final String MONGO_URL = System.getProperty("fixture.mongo", "mongodb://127.0.0.1:27017");
+    public static final List<String> COLLECTIONS = Collections.unmodifiableList(
+            Arrays.asList("products", "variants", "cart", "sessions"));
+
+    // Hash de una colección vacía, que dbHash da igual que si no existiera
+    private static final String EMPTY_HASH = "d41d8cd98f00b204e9800998ecf8427e";
+
+    private final MongoClient client;
+    private final String database;
+
+    private MongoFixture(MongoClient client, String database) {
+        this.client = client;
+        this.database = database;
+    }
+
+    /**
+     * Conecta con la base de datos de expressCart
+     * @param database Nombre de la base de datos (ej: "expresscart")
+     * @return Fixture conectado
+     */
+    public static MongoFixture open(String database) {
+        return new MongoFixture(MongoClients.create(MONGO_URL), database);
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    /**
+     * Siembra productos y variantes de bin/testdata.json si no hay productos
+     * @return true si se ha sembrado
+     * @throws IOException Si no se puede leer testdata.json
+     */
+    @SuppressWarnings("unchecked")
+    public boolean seedIfEmpty() throws IOException {
+        MongoDatabase db = client.getDatabase(database);
+        if (db.getCollection("products").countDocuments() > 0) {
+            return false;
+        }
+        File testData = new File(ExpressCartRoutes.appDirectory(), "bin/testdata.json");
+        Map<String, Object> data = new Json().toType(
+                new String(Files.readAllBytes(testData.toPath()), StandardCharsets.UTF_8), Map.class);
+
+        List<Document> products = new ArrayList<>();
+        List<Document> variants = new ArrayList<>();
+        List<Map<String, Object>> jsonProducts = (List<Map<String, Object>>) data.get("products");
+        List<Map<String, Object>> jsonVariants = (List<Map<String, Object>>) data.get("variants");
+        for (int i = 0; i < jsonProducts.size(); i++) {
+            Document product = new Document(jsonProducts.get(i))
+                    .append("_id", new ObjectId())
+                    .append("productAddedDate", new Date());
+            products.add(product);
+            // Como el testhelper de expressCart: variantes solo en los productos pares
+            if (i % 2 == 0 && jsonVariants != null) {
+                for (Map<String, Object> jsonVariant : jsonVariants) {
+                    variants.add(new Document(jsonVariant).append("product", product.getObjectId("_id")));
+                }
+            }
+        }
+        db.getCollection("products").insertMany(products);
+        if (!variants.isEmpty()) {
+            db.getCollection("variants").insertMany(variants);
+        }
+        log.info("Base de datos {} sembrada con {} productos y {} variantes", database, products.size(), variants.size());
+        return true;
+    }
+
+    /**
+     * Captura el estado actual de las colecciones del fixture
+     * @return Instantánea en memoria
+     */
+    public Snapshot capture() {
+        long start = System.nanoTime();
+        MongoDatabase db = client.getDatabase(database);
+        Map<String, List<RawBsonDocument>> documents = new LinkedHashMap<>();
+        for (String name : COLLECTIONS) {
+            documents.put(name, db.getCollection(name, RawBsonDocument.class).find().into(new ArrayList<>()));
+        }
+        Snapshot snapshot = new Snapshot(documents, hashes(db));
+        log.info("Instantánea de {} capturada en {} ms ({} documentos)", database,
+                (System.nanoTime() - start) / 1_000_000, snapshot.size());
+        return snapshot;
+    }
+
+    /**
+     * Restaura la instantánea en la base de datos del fixture
+     * @param snapshot Instantánea
+     * @return Colecciones reescritas
+     */
+    public List<String> restore(Snapshot snapshot) {
+        return restoreInto(snapshot, database);
+    }
+
+    /**
+     * Restaura la instantánea en una base de datos, reescribiendo solo las colecciones
+     * que difieren de ella
+     * @param snapshot Instantánea
+     * @param target Base de datos de destino (puede ser distinta de la capturada)
+     * @return Colecciones reescritas
+     */
+    public List<String> restoreInto(Snapshot snapshot, String target) {
+        long start = System.nanoTime();
+        MongoDatabase db = client.getDatabase(target);
+        Map<String, String> current = hashes(db);
+        List<String> restored = new ArrayList<>();
+        for (String name : COLLECTIONS) {
+            String hash = current.get(name);
+            if (hash != null && hash.equals(snapshot.hashes.get(name))) {
+                continue;
+            }
+            List<RawBsonDocument> documents = snapshot.documents.get(name);
+            List<WriteModel<RawBsonDocument>> writes = new ArrayList<>(documents.size() + 1);
+            writes.add(new DeleteManyModel<>(new Document()));
+            for (RawBsonDocument document : documents) {
+                writes.add(new InsertOneModel<>(document));
+            }
+            db.getCollection(name, RawBsonDocument.class).bulkWrite(writes, new BulkWriteOptions().ordered(true));
+            restored.add(name);
+        }
+        log.debug("Base de datos {} restaurada en {} ms (reescritas: {})", target,
+                (System.nanoTime() - start) / 1_000_000, restored);
+        return restored;
+    }
+
+    /**
+     * Hash MD5 de cada colección calculado por el servidor; vacío si el servidor no
+     * admite el comando, y entonces se reescriben todas las colecciones
+     */
+    private static Map<String, String> hashes(MongoDatabase db) {
+        try {
+            Document result = db.runCommand(new Document("dbHash", 1).append("collections", COLLECTIONS));
+            Map<String, String> hashes = new LinkedHashMap<>();
+            Document collections = result.get("collections", Document.class);
+            if (collections != null) {
+                collections.forEach((name, hash) -> hashes.put(name, String.valueOf(hash)));
+            }
+            // Las colecciones que no existen no aparecen: equivalen a colecciones vacías
+            for (String name : COLLECTIONS) {
+                hashes.putIfAbsent(name, EMPTY_HASH);
+            }
+            return hashes;
+        } catch (MongoException e) {
+            log.debug("dbHash no disponible: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    /**
+     * Documentos de las colecciones del fixture en un momento dado
+     */
+    public static final class Snapshot {
+        private final Map<String, List<RawBsonDocument>> documents;
+        private final Map<String, String> hashes;
+
+        Snapshot(Map<String, List<RawBsonDocument>> documents, Map<String, String> hashes) {
+            this.documents = documents;
+            this.hashes = hashes;
+        }
+
+        /**
+         * Número total de documentos de la instantánea
+         * @return Documentos
+         */
+        public int size() {
+            return documents.values().stream().mapToInt(List::size).sum();
+        }
+    }
+}
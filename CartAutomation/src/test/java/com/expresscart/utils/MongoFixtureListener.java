@@ -0,0 +1,77 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IClassListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestClass;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Listener de TestNG que devuelve la base de datos de expressCart a un estado conocido
+ * antes de cada clase de tests
+ *
+ * Al empezar la suite siembra la base de datos si está vacía y captura la instantánea
+ * con MongoFixture; antes de cada clase restaura las colecciones que hayan cambiado.
+ * Con clases en paralelo sobre la misma tienda la restauración afectaría a las demás
+ * clases: en ese caso cada worker necesita su propia base de datos e instancia
+ * (MongoFixture.restoreInto y ExpressCartInstance).
+ *
+ * Propiedades del sistema:
+ * - fixture.restore: "class" para restaurar antes de cada clase, "off" (por defecto) para no tocar la base de datos
+ * - fixture.database: base de datos de expressCart (por defecto "expresscart")
+ * - fixture.mongo: servidor de MongoDB (por defecto mongodb://127.0.0.1:27017)
+ */
+public class MongoFixtureListener implements ISuiteListener, IClassListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoFixtureListener.class);
+
+    private static final String MODE = System.getProperty("fixture.restore", "off");
+    private static final String DATABASE = System.getProperty("fixture.database", "expresscart");
+
+    private MongoFixture fixture;
+    private MongoFixture.Snapshot snapshot;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!"class".equalsIgnoreCase(MODE)) {
+            return;
+        }
+        fixture = MongoFixture.open(DATABASE);
+        try {
+            fixture.seedIfEmpty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo sembrar " + DATABASE, e);
+        }
+        snapshot = fixture.capture();
+    }
+
+    @Override
+    public void onBeforeClass(ITestClass testClass) {
+        if (snapshot == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (this) {
+            fixture.restore(snapshot);
+        }
+        log.debug("Datos restaurados para {} en {} ms", testClass.getName(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void onAfterClass(ITestClass testClass) {
+        // La restauración se hace antes de cada clase
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (fixture != null) {
+            fixture.close();
+            fixture = null;
+            snapshot = null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.expresscart.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * Evento de Java Flight Recorder de una acción de un Page Object
+ *
+ * Cada acción de HomePage, ProductPage y CartPage (añadir al carrito, actualizar,
+ * eliminar...) y cada primitiva de BasePage (click, texto, esperas, búsquedas) queda en
+ * la grabación con el test, la página, la acción, el localizador, la duración y el
+ * resultado. Así las pausas de GC, la contención entre hilos y las lecturas de socket del
+ * cliente HTTP de WebDriver se pueden situar en la misma línea de tiempo que las acciones
+ * del carrito (ver el perfil de Maven "jfr").
+ *
+ * Sin una grabación activa el evento no llega a medirse: solo se crea el objeto y se
+ * comprueba isEnabled(). El test y el localizador se calculan únicamente al guardar.
+ */
+@Name("com.expresscart.PageAction")
+@Label("Page Action")
+@Category({"ExpressCart", "Page Objects"})
+@Description("Acción de un Page Object o primitiva de BasePage")
+@StackTrace(false)
+public class PageActionEvent extends Event {
+
+    @Label("Test")
+    String test;
+
+    @Label("Page")
+    String page;
+
+    @Label("Action")
+    String action;
+
+    @Label("Locator")
+    String locator;
+
+    @Label("Outcome")
+    @Description("\"ok\" o el nombre de la excepción que interrumpió la acción")
+    String outcome;
+
+    @Label("Primitive")
+    @Description("Primitiva de BasePage en lugar de una acción de la página")
+    boolean primitive;
+
+    private transient Object target;
+
+    /**
+     * Empieza a medir una acción
+     * @param page Clase del Page Object
+     * @param action Nombre de la acción (ej: "addToCart")
+     * @param target Localizador, elemento, ruta o producto sobre el que actúa (puede ser null)
+     * @param primitive true para las primitivas de BasePage
+     * @return Evento en curso; hay que terminarlo con end(...)
+     */
+    public static PageActionEvent begin(Class<?> page, String action, Object target, boolean primitive) {
+        PageActionEvent event = new PageActionEvent();
+        if (event.isEnabled()) {
+            event.page = page.getSimpleName();
+            event.action = action;
+            event.target = target;
+            event.primitive = primitive;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Termina la acción y la guarda en la grabación si supera el umbral configurado
+     * @param error Excepción que interrumpió la acción, o null si terminó bien
+     */
+    public void end(Throwable error) {
+        if (!isEnabled()) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            outcome = error == null ? "ok" : error.getClass().getSimpleName();
+            test = currentTest();
+            locator = describe(target);
+            commit();
+        }
+    }
+
+    private static String currentTest() {
+        ITestResult result = Reporter.getCurrentTestResult();
+        return result == null ? null : result.getMethod().getQualifiedName();
+    }
+
+    /**
+     * Texto del localizador sin los envoltorios de Selenium
+     * (ej: "Proxy element for: Located by By.id: add-to-cart" pasa a "By.id: add-to-cart")
+     */
+    static String describe(Object target) {
+        if (target == null) {
+            return null;
+        }
+        String text = String.valueOf(target)
+                .replace("Proxy element for: ", "")
+                .replace("Located by ", "");
+        // Elemento ya localizado: "[[ChromeDriver: chrome on linux (id)] -> xpath: //h3]"
+        int arrow = text.lastIndexOf(" -> ");
+        if (text.startsWith("[[") && arrow > 0) {
+            text = text.substring(arrow + 4, text.length() - (text.endsWith("]") ? 1 : 0));
+        }
+        return text;
+    }
+}
@@ -0,0 +1,337 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Control de regresiones de rendimiento contra una línea base almacenada
+ *
+ * La línea base (baseline/perf-baseline.json) guarda, por perfil de limitación, las
+ * muestras de cada paso de los Page Objects (ej: "ProductPage.addToCart") y de cada
+ * ruta de expressCart (ej: "POST /product/addtocart") de una ejecución de referencia.
+ * Al terminar la suite se compara cada distribución actual con la de referencia con
+ * el test U de Mann-Whitney (unilateral, ¿es la actual más lenta?) y una tolerancia
+ * sobre la mediana: un paso solo se considera regresión si la diferencia es
+ * estadísticamente significativa y además supera la tolerancia.
+ *
+ * Propiedades del sistema:
+ * - perf.gate: off, warn o fail (por defecto warn si la línea base tiene muestras, y si no off)
+ * - perf.baseline: fichero de línea base (por defecto baseline/perf-baseline.json)
+ * - perf.baseline.record=true: guarda las muestras de esta ejecución como nueva línea base
+ * - perf.tolerance: aumento de la mediana tolerado en porcentaje (por defecto 20)
+ * - perf.alpha: nivel de significación del test (por defecto 0.05)
+ * - perf.minSamples: muestras mínimas en cada lado para decidir (por defecto 5)
+ */
+public final class PerfRegressionGate {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfRegressionGate.class);
+
+    private static final boolean RECORD = Boolean.getBoolean("perf.baseline.record");
+    private static final String BASELINE_PATH = System.getProperty("perf.baseline", "baseline/perf-baseline.json");
+    private static final String MODE = mode();
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("perf.tolerance", "20")) / 100.0;
+    private static final double ALPHA = Double.parseDouble(System.getProperty("perf.alpha", "0.05"));
+    private static final int MIN_SAMPLES = Integer.getInteger("perf.minSamples", 5);
+    private static final String REPORT_PATH = "target/latency/perf-regression.csv";
+
+    private static List<Comparison> comparisons;
+
+    private PerfRegressionGate() {
+    }
+
+    /**
+     * Modo del control: el indicado en perf.gate o, si no se indica, warn solo cuando hay
+     * una línea base con muestras. Sin ella no se mide nada (RouteRecorder añadiría una
+     * llamada a WebDriver antes de cada click y navegación) y la tabla solo tendría filas
+     * SIN BASELINE.
+     */
+    private static String mode() {
+        String mode = System.getProperty("perf.gate");
+        if (mode != null) {
+            return mode.trim().toLowerCase(Locale.ROOT);
+        }
+        return new File(BASELINE_PATH).exists() && !loadBaseline().isEmpty() ? "warn" : "off";
+    }
+
+    /**
+     * @return true si hay que medir para comparar o para grabar la línea base
+     */
+    public static boolean isActive() {
+        return RECORD || !"off".equals(MODE);
+    }
+
+    /**
+     * @return true si una regresión debe hacer fallar la ejecución
+     */
+    public static boolean isFailing() {
+        return "fail".equals(MODE) && !RECORD;
+    }
+
+    public static boolean isRecording() {
+        return RECORD;
+    }
+
+    /**
+     * Resultado de comparar un paso con su línea base
+     */
+    public static final class Comparison {
+        private final String key;
+        private final double[] baseline;
+        private final double[] current;
+        private final double pValue;
+        private final String verdict;
+
+        Comparison(String key, double[] baseline, double[] current) {
+            this.key = key;
+            this.baseline = baseline;
+            this.current = current;
+            if (baseline.length < MIN_SAMPLES || current.length < MIN_SAMPLES) {
+                this.pValue = Double.NaN;
+                this.verdict = baseline.length == 0 ? "SIN BASELINE" : "POCAS MUESTRAS";
+            } else {
+                this.pValue = mannWhitneyGreater(current, baseline);
+                this.verdict = pValue < ALPHA && getMedianChange() > TOLERANCE ? "REGRESION" : "OK";
+            }
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getVerdict() {
+            return verdict;
+        }
+
+        public boolean isRegression() {
+            return "REGRESION".equals(verdict);
+        }
+
+        /**
+         * @return Variación relativa de la mediana actual respecto a la línea base
+         */
+        public double getMedianChange() {
+            double base = LatencyRecorder.percentile(baseline, 50);
+            return base <= 0 ? 0.0 : LatencyRecorder.percentile(current, 50) / base - 1.0;
+        }
+
+        String toRow() {
+            String[] key = this.key.split("\\|", 2);
+            return String.format(Locale.ROOT, "%s,%s,%d,%d,%.1f,%.1f,%+.1f%%,%.1f,%.1f,%s,%s",
+                    key[0], key[1], baseline.length, current.length,
+                    LatencyRecorder.percentile(baseline, 50), LatencyRecorder.percentile(current, 50),
+                    100.0 * getMedianChange(),
+                    LatencyRecorder.percentile(baseline, 95), LatencyRecorder.percentile(current, 95),
+                    Double.isNaN(pValue) ? "-" : String.format(Locale.ROOT, "%.4f", pValue), verdict);
+        }
+    }
+
+    /**
+     * Compara las muestras de esta ejecución con la línea base. El resultado se calcula
+     * una sola vez por ejecución, cuando ya se han registrado todas las muestras.
+     * @return Comparación por "perfil|paso" de los pasos medidos en esta ejecución
+     */
+    public static synchronized List<Comparison> compare() {
+        if (comparisons != null) {
+            return comparisons;
+        }
+        Map<String, double[]> baseline = loadBaseline();
+        List<Comparison> result = new ArrayList<>();
+        LatencyRecorder.snapshot().forEach((key, current) -> {
+            double[] sortedCurrent = current.clone();
+            Arrays.sort(sortedCurrent);
+            double[] sortedBaseline = baseline.getOrDefault(key, new double[0]).clone();
+            Arrays.sort(sortedBaseline);
+            result.add(new Comparison(key, sortedBaseline, sortedCurrent));
+        });
+        comparisons = Collections.unmodifiableList(result);
+        return comparisons;
+    }
+
+    /**
+     * Escribe la tabla de diferencias en target/latency/perf-regression.csv y en el log
+     * @return Número de regresiones detectadas
+     */
+    public static int writeReport() {
+        List<Comparison> result = compare();
+        if (result.isEmpty()) {
+            return 0;
+        }
+        String header = "profile,step,n_base,n_actual,p50_base_ms,p50_actual_ms,p50_delta,p95_base_ms,p95_actual_ms,p_value,verdict";
+        File report = new File(REPORT_PATH);
+        report.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(report, StandardCharsets.UTF_8)) {
+            out.println(header);
+            result.forEach(comparison -> out.println(comparison.toRow()));
+        } catch (IOException e) {
+            log.error("Error al escribir la comparación con la línea base: {}", e.getMessage());
+        }
+
+        int regressions = (int) result.stream().filter(Comparison::isRegression).count();
+        log.info("Comparación con la línea base {} (tolerancia {}%, alfa {}):", BASELINE_PATH,
+                Math.round(TOLERANCE * 100), ALPHA);
+        log.info("  {}", header);
+        for (Comparison comparison : result) {
+            if (comparison.isRegression()) {
+                log.warn("  {}", comparison.toRow());
+            } else {
+                log.info("  {}", comparison.toRow());
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Falla si hay regresiones y perf.gate=fail
+     * @throws AssertionError Con la lista de pasos que han empeorado
+     */
+    public static void enforce() {
+        if (!isFailing()) {
+            return;
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Comparison comparison : compare()) {
+            if (comparison.isRegression()) {
+                regressions.add(String.format(Locale.ROOT, "%s (%+.1f%%)", comparison.getKey(),
+                        100.0 * comparison.getMedianChange()));
+            }
+        }
+        if (!regressions.isEmpty()) {
+            throw new AssertionError("Regresiones de rendimiento respecto a " + BASELINE_PATH + ": " + regressions);
+        }
+    }
+
+    /**
+     * Guarda las muestras de esta ejecución en la línea base. Los pasos que no se han
+     * medido en esta ejecución (otros perfiles u otras suites) conservan sus muestras.
+     */
+    public static void recordBaseline() {
+        Map<String, double[]> snapshot = LatencyRecorder.snapshot();
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        Map<String, double[]> merged = new TreeMap<>(loadBaseline());
+        merged.putAll(snapshot);
+        Map<String, List<Double>> samples = new TreeMap<>();
+        merged.forEach((key, values) -> samples.put(key, Arrays.stream(values)
+                .map(v -> Math.round(v * 10) / 10.0).boxed().collect(Collectors.toList())));
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("recorded", Instant.now().toString());
+        document.put("samples", samples);
+        File file = new File(BASELINE_PATH);
+        if (file.getAbsoluteFile().getParentFile() != null) {
+            file.getAbsoluteFile().getParentFile().mkdirs();
+        }
+        try {
+            Files.write(file.toPath(), new Json().toJson(document).getBytes(StandardCharsets.UTF_8));
+            log.info("Línea base de rendimiento actualizada en {} ({} pasos medidos)", file, snapshot.size());
+        } catch (IOException e) {
+            log.error("No se pudo guardar la línea base de rendimiento: {}", e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, double[]> loadBaseline() {
+        File file = new File(BASELINE_PATH);
+        if (!file.exists()) {
+            log.warn("No existe la línea base de rendimiento {}", file);
+            return Collections.emptyMap();
+        }
+        Map<String, double[]> baseline = new TreeMap<>();
+        try {
+            Map<String, Object> document = new Json().toType(
+                    new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), Map.class);
+            Object samples = document.get("samples");
+            if (samples instanceof Map) {
+                ((Map<String, Object>) samples).forEach((key, values) -> {
+                    if (values instanceof Collection) {
+                        baseline.put(key, ((Collection<Object>) values).stream()
+                                .mapToDouble(v -> ((Number) v).doubleValue()).toArray());
+                    }
+                });
+            }
+        } catch (IOException | JsonException | ClassCastException e) {
+            log.warn("No se pudo leer la línea base de rendimiento {}: {}", file, e.getMessage());
+        }
+        return baseline;
+    }
+
+    /**
+     * Test U de Mann-Whitney unilateral con aproximación normal, corrección de
+     * continuidad y corrección por empates
+     * @param current Muestras actuales
+     * @param baseline Muestras de referencia
+     * @return p-valor de la hipótesis "las muestras actuales tienden a ser mayores"
+     */
+    static double mannWhitneyGreater(double[] current, double[] baseline) {
+        int n1 = current.length;
+        int n2 = baseline.length;
+        int n = n1 + n2;
+        double[][] pooled = new double[n][];
+        for (int i = 0; i < n1; i++) {
+            pooled[i] = new double[]{current[i], 1};
+        }
+        for (int i = 0; i < n2; i++) {
+            pooled[n1 + i] = new double[]{baseline[i], 0};
+        }
+        Arrays.sort(pooled, (a, b) -> Double.compare(a[0], b[0]));
+
+        double rankSumCurrent = 0;
+        double tieSum = 0;
+        int i = 0;
+        while (i < n) {
+            int j = i;
+            while (j + 1 < n && pooled[j + 1][0] == pooled[i][0]) {
+                j++;
+            }
+            double rank = (i + j) / 2.0 + 1;
+            int ties = j - i + 1;
+            tieSum += (double) ties * ties * ties - ties;
+            for (int k = i; k <= j; k++) {
+                if (pooled[k][1] == 1) {
+                    rankSumCurrent += rank;
+                }
+            }
+            i = j + 1;
+        }
+
+        double u = rankSumCurrent - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2.0;
+        double variance = n1 * (double) n2 / 12.0 * ((n + 1) - tieSum / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1.0;
+        }
+        double z = (u - mean - 0.5) / Math.sqrt(variance);
+        return 1.0 - normalCdf(z);
+    }
+
+    /**
+     * Función de distribución normal estándar (aproximación de Abramowitz y Stegun 7.1.26)
+     */
+    private static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1.0 / (1.0 + 0.3275911 * x);
+        double erf = 1.0 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1.0 + erf) : 0.5 * (1.0 - erf);
+    }
+}
@@ -0,0 +1,25 @@
+package com.expresscart.utils;
+
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+/**
+ * Reporter de TestNG que compara las latencias de la ejecución con la línea base
+ * y escribe la tabla de diferencias, o graba una nueva línea base con
+ * perf.baseline.record=true. El fallo de la ejecución lo provoca
+ * BaseTest.checkPerformanceBaseline, ya que TestNG ignora las excepciones de los reporters.
+ */
+public class PerfRegressionReporter implements IReporter {
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        if (PerfRegressionGate.isRecording()) {
+            PerfRegressionGate.recordBaseline();
+        } else if (PerfRegressionGate.isActive()) {
+            PerfRegressionGate.writeReport();
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.json.Json;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lectura en streaming del feed de productos de expressCart (/googleproducts.xml)
+ *
+ * El feed se recorre con StAX a medida que se piden elementos: nunca se carga entero en
+ * memoria, así que sirve igual para catálogos de decenas de miles de productos. Solo
+ * incluye productos publicados. Las variantes no aparecen en el feed: se leen de la
+ * página de cada producto con variants(), sin navegador.
+ *
+ * expressCart solo escribe el feed en su tarea programada de cada hora, así que en una
+ * tienda recién arrancada /googleproducts.xml responde vacío. En ese caso se recorre el
+ * listado de la portada en JSON (/page/N?json=true) página a página; cada producto del
+ * listado ya trae sus variantes.
+ */
+public final class ProductFeed implements Iterator<ProductFeed.Item>, AutoCloseable {
+
+    private static final String NS_GOOGLE = "http://base.google.com/ns/1.0";
+    private static final Pattern VARIANT_OPTION = Pattern.compile(
+            "<option value=\"([0-9a-f]{24})\" data-price=\"([^\"]*)\">([^<]*)</option>");
+
+    private static final Json JSON = new Json();
+
+    private final String baseUrl;
+    private final InputStream input;
+    private final XMLStreamReader reader;
+    // Listado en JSON cuando el feed está vacío: productos pendientes de la página actual
+    private final Deque<Item> listing = new ArrayDeque<>();
+    private int listingPage;
+    private Item next;
+    private boolean finished;
+
+    private ProductFeed(String baseUrl, InputStream input, boolean empty) throws XMLStreamException {
+        this.baseUrl = baseUrl;
+        this.input = input;
+        if (empty) {
+            this.reader = null;
+            return;
+        }
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.reader = factory.createXMLStreamReader(input, StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Abre el feed de una instancia de expressCart, o su listado en JSON si el feed
+     * todavía no se ha generado
+     * @param baseUrl URL base de la tienda (ej: "http://localhost:1111")
+     * @return Feed listo para recorrer; hay que cerrarlo si no se recorre entero
+     * @throws IOException Si no se puede descargar el feed
+     */
+    public static ProductFeed open(String baseUrl) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/googleproducts.xml").openConnection();
+        if (connection.getResponseCode() != 200) {
+            throw new IOException("El feed de productos respondió " + connection.getResponseCode());
+        }
+        PushbackInputStream input = new PushbackInputStream(connection.getInputStream());
+        try {
+            // La tienda responde vacío si todavía no ha generado el feed
+            int first = input.read();
+            if (first >= 0) {
+                input.unread(first);
+            }
+            return new ProductFeed(baseUrl, input, first < 0);
+        } catch (XMLStreamException e) {
+            input.close();
+            throw new IOException("El feed de productos no es XML válido", e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = readItem();
+            if (next == null) {
+                finished = true;
+                close();
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Item next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Item item = next;
+        next = null;
+        return item;
+    }
+
+    /**
+     * Lee el siguiente <item> del feed
+     * @return Producto, o null al final del feed
+     */
+    private Item readItem() {
+        if (reader == null) {
+            return readListingItem();
+        }
+        try {
+            String id = null;
+            String title = null;
+            String link = null;
+            String price = null;
+            boolean inItem = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("item".equals(name)) {
+                        inItem = true;
+                    } else if (inItem && NS_GOOGLE.equals(reader.getNamespaceURI())) {
+                        switch (name) {
+                            case "id":
+                                id = reader.getElementText().trim();
+                                break;
+                            case "title":
+                                title = reader.getElementText().trim();
+                                break;
+                            case "link":
+                                link = reader.getElementText().trim();
+                                break;
+                            case "price":
+                                price = reader.getElementText().trim();
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && inItem && "item".equals(reader.getLocalName())) {
+                    return new Item(id, title, link == null ? null : URI.create(link).getRawPath(), parsePrice(price), null);
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Error al leer el feed de productos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lee el siguiente producto publicado del listado en JSON, pidiendo la siguiente
+     * página cuando se termina la actual
+     * @return Producto, o null cuando una página viene vacía
+     */
+    private Item readListingItem() {
+        while (listing.isEmpty()) {
+            List<Map<String, Object>> products = listingPage(++listingPage);
+            if (products.isEmpty()) {
+                return null;
+            }
+            for (Map<String, Object> product : products) {
+                if (Boolean.FALSE.equals(product.get("productPublished"))) {
+                    continue;
+                }
+                Object permalink = product.get("productPermalink");
+                String path = "/product/" + (permalink == null || permalink.toString().isEmpty()
+                        ? product.get("_id") : permalink);
+                List<Variant> variants = new ArrayList<>();
+                if (product.get("variants") instanceof List) {
+                    for (Object value : (List<?>) product.get("variants")) {
+                        Map<?, ?> variant = (Map<?, ?>) value;
+                        variants.add(new Variant(String.valueOf(variant.get("_id")), String.valueOf(variant.get("title")),
+                                parsePrice(String.valueOf(variant.get("price")))));
+                    }
+                }
+                listing.add(new Item(String.valueOf(product.get("_id")), String.valueOf(product.get("productTitle")),
+                        path, parsePrice(String.valueOf(product.get("productPrice"))), variants));
+            }
+        }
+        return listing.poll();
+    }
+
+    private List<Map<String, Object>> listingPage(int page) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/page/" + page + "?json=true").openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                return JSON.toType(new String(body.readAllBytes(), StandardCharsets.UTF_8), Json.LIST_OF_MAPS_TYPE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la página " + page + " del listado de productos", e);
+        }
+    }
+
+    /**
+     * Variantes de un producto: las del listado si el producto viene de él, o si no las
+     * de su página
+     * @param baseUrl URL base de la tienda
+     * @param item Producto
+     * @return Variantes; vacía si el producto no tiene
+     */
+    public static List<Variant> variants(String baseUrl, Item item) {
+        return item.variants != null ? item.variants : variants(baseUrl, item.getPath());
+    }
+
+    /**
+     * Variantes de un producto según su página
+     * @param baseUrl URL base de la tienda
+     * @param productPath Ruta de la página del producto (ej: "/product/camiseta-basica")
+     * @return Variantes en el orden de la página; vacía si el producto no tiene
+     */
+    public static List<Variant> variants(String baseUrl, String productPath) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + productPath).openConnection();
+            String html;
+            try (InputStream input = connection.getInputStream()) {
+                html = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            int select = html.indexOf("id=\"product_variant\"");
+            if (select < 0) {
+                return Collections.emptyList();
+            }
+            List<Variant> variants = new ArrayList<>();
+            Matcher matcher = VARIANT_OPTION.matcher(html);
+            matcher.region(select, html.length());
+            while (matcher.find()) {
+                variants.add(new Variant(matcher.group(1), unescape(matcher.group(3).trim()), parsePrice(matcher.group(2))));
+            }
+            return variants;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la página " + productPath, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            finished = true;
+            if (reader != null) {
+                reader.close();
+            }
+            input.close();
+        } catch (XMLStreamException | IOException e) {
+            // El feed ya no se va a leer más
+        }
+    }
+
+    private static double parsePrice(String price) {
+        // El feed incluye la moneda (ej: "12.00 USD")
+        String value = price == null ? "" : price.replaceAll("[^\\d.]", "");
+        return value.isEmpty() ? 0.0 : Double.parseDouble(value);
+    }
+
+    private static String unescape(String text) {
+        return text.replace("&amp;", "&").replace("&lt;", "<").replace("&gt;", ">")
+                .replace("&quot;", "\"").replace("&#x27;", "'").replace("&#x3D;", "=");
+    }
+
+    /**
+     * Producto publicado del feed
+     */
+    public static final class Item {
+        private final String id;
+        private final String title;
+        private final String path;
+        private final double price;
+        // Variantes ya conocidas (listado en JSON), o null si hay que leerlas de la página
+        private final List<Variant> variants;
+
+        Item(String id, String title, String path, double price, List<Variant> variants) {
+            this.id = id;
+            this.title = title;
+            this.path = path;
+            this.price = price;
+            this.variants = variants == null ? null : Collections.unmodifiableList(variants);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * Ruta de la página del producto, sin la URL base configurada en la tienda
+         * @return Ruta (ej: "/product/camiseta-basica")
+         */
+        public String getPath() {
+            return path;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        /**
+         * Variantes que ya trae el producto (solo las del listado en JSON)
+         * @return Variantes conocidas; vacía si hay que leerlas de la página con variants()
+         */
+        public List<Variant> getVariants() {
+            return variants == null ? Collections.emptyList() : variants;
+        }
+    }
+
+    /**
+     * Variante de un producto
+     */
+    public static final class Variant {
+        private final String id;
+        private final String title;
+        private final double price;
+
+        Variant(String id, String title, double price) {
+            this.id = id;
+            this.title = title;
+            this.price = price;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+    }
+}
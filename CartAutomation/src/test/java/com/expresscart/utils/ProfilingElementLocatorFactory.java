@@ -0,0 +1,82 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.Annotations;
+import org.openqa.selenium.support.pagefactory.DefaultElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocatorFactory;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Factoría de localizadores para PageFactory que pasa los campos @FindBy por el
+ * LocatorProfiler: aplica la reescritura XPath a CSS y mide cada búsqueda.
+ * Con ambas opciones desactivadas se comporta igual que la factoría por defecto.
+ */
+public class ProfilingElementLocatorFactory implements ElementLocatorFactory {
+
+    private final SearchContext searchContext;
+
+    public ProfilingElementLocatorFactory(SearchContext searchContext) {
+        this.searchContext = searchContext;
+    }
+
+    @Override
+    public ElementLocator createLocator(Field field) {
+        Annotations annotations = new Annotations(field) {
+            @Override
+            public By buildBy() {
+                return LocatorProfiler.resolve(super.buildBy(), false);
+            }
+        };
+        DefaultElementLocator locator = new DefaultElementLocator(searchContext, annotations);
+        if (!LocatorProfiler.isProfilingEnabled()) {
+            return locator;
+        }
+        return new ProfilingElementLocator(locator, searchContext, new Annotations(field).buildBy());
+    }
+
+    /**
+     * Localizador que mide el tiempo y las coincidencias de cada búsqueda del campo
+     */
+    private static class ProfilingElementLocator implements ElementLocator {
+        private final ElementLocator delegate;
+        private final SearchContext searchContext;
+        private final By declared;
+
+        ProfilingElementLocator(ElementLocator delegate, SearchContext searchContext, By declared) {
+            this.delegate = delegate;
+            this.searchContext = searchContext;
+            this.declared = declared;
+        }
+
+        @Override
+        public WebElement findElement() {
+            long start = System.nanoTime();
+            try {
+                WebElement element = delegate.findElement();
+                LocatorProfiler.record(searchContext, declared, false, System.nanoTime() - start, 1);
+                return element;
+            } catch (RuntimeException e) {
+                LocatorProfiler.record(searchContext, declared, false, System.nanoTime() - start, 0);
+                throw e;
+            }
+        }
+
+        @Override
+        public List<WebElement> findElements() {
+            long start = System.nanoTime();
+            List<WebElement> elements = delegate.findElements();
+            LocatorProfiler.record(searchContext, declared, false, System.nanoTime() - start, elements.size());
+            return elements;
+        }
+
+        @Override
+        public String toString() {
+            return "Located by " + declared;
+        }
+    }
+}
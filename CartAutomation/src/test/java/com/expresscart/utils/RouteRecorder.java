@@ -0,0 +1,157 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de las URLs de expressCart que visita cada test
+ *
+ * Antes de abandonar un documento (navegación o click) se leen de la Performance API
+ * la navegación del documento y sus peticiones AJAX del mismo origen. Cada entrada se
+ * guarda como "nav:/ruta" o "xhr:/ruta" en el hilo del test, y al terminar el test se
+ * asocia a su nombre. Este registro solo está activo con la propiedad del sistema
+ * impact.record=true.
+ *
+ * Si el control de regresiones de rendimiento está activo, además se registra en el
+ * LatencyRecorder el tiempo de respuesta de cada petición bajo la ruta de expressCart
+ * que la atiende (ej: "POST /product/addtocart").
+ */
+public final class RouteRecorder {
+
+    private static final boolean ENABLED = Boolean.getBoolean("impact.record");
+    private static final boolean TIMING = PerfRegressionGate.isActive();
+
+    // Cada documento recuerda lo ya leído para no contar dos veces la misma petición
+    private static final String HARVEST_SCRIPT =
+            "var out = [];"
+            + "if (!window.performance || !performance.getEntriesByType) { return out; }"
+            + "var origin = location.origin;"
+            + "if (!window.__routeRecorderNav) {"
+            + "  window.__routeRecorderNav = true;"
+            + "  performance.getEntriesByType('navigation').forEach(function (e) {"
+            + "    if (e.name.indexOf(origin) === 0) {"
+            + "      out.push(['nav', new URL(e.name).pathname, e.responseEnd - e.startTime]);"
+            + "    }"
+            + "  });"
+            + "}"
+            + "var resources = performance.getEntriesByType('resource');"
+            + "for (var i = window.__routeRecorderSeen || 0; i < resources.length; i++) {"
+            + "  var e = resources[i];"
+            + "  if ((e.initiatorType === 'xmlhttprequest' || e.initiatorType === 'fetch')"
+            + "      && e.name.indexOf(origin) === 0 && e.responseEnd > 0) {"
+            + "    out.push(['xhr', new URL(e.name).pathname, e.responseEnd - e.startTime]);"
+            + "  }"
+            + "}"
+            + "window.__routeRecorderSeen = resources.length;"
+            + "return out;";
+
+    private static final ThreadLocal<Set<String>> CURRENT = ThreadLocal.withInitial(LinkedHashSet::new);
+    private static final Map<String, Set<String>> BY_TEST = new ConcurrentHashMap<>();
+
+    private RouteRecorder() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Catálogo de rutas, cargado una sola vez al registrar la primera latencia
+     */
+    private static final class Catalog {
+        static final ExpressCartRoutes ROUTES = load();
+
+        private static ExpressCartRoutes load() {
+            try {
+                return ExpressCartRoutes.load(ExpressCartRoutes.appDirectory());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Lee las URLs del documento actual antes de abandonarlo
+     * @param driver WebDriver del test
+     */
+    public static void harvest(WebDriver driver) {
+        if (!(ENABLED || TIMING) || driver == null) {
+            return;
+        }
+        Object entries;
+        try {
+            entries = ((JavascriptExecutor) driver).executeScript(HARVEST_SCRIPT);
+        } catch (RuntimeException e) {
+            // Documentos sin origen (about:blank) o navegador ya cerrado: no hay nada que registrar
+            return;
+        }
+        if (!(entries instanceof List)) {
+            return;
+        }
+        for (Object item : (List<?>) entries) {
+            List<?> entry = (List<?>) item;
+            String kind = String.valueOf(entry.get(0));
+            String path = String.valueOf(entry.get(1));
+            if (ENABLED) {
+                CURRENT.get().add(kind + ":" + path);
+            }
+            if (TIMING && entry.get(2) instanceof Number) {
+                long nanos = (long) (((Number) entry.get(2)).doubleValue() * 1_000_000);
+                LatencyRecorder.record(routeKey(kind, path), nanos);
+            }
+        }
+    }
+
+    /**
+     * Clave de la ruta de expressCart que atiende una petición, o la URL tal cual si
+     * no hay catálogo o ninguna ruta la atiende
+     */
+    private static String routeKey(String kind, String path) {
+        ExpressCartRoutes catalog = Catalog.ROUTES;
+        if (catalog == null) {
+            return kind + " " + path;
+        }
+        return catalog.match(path, "nav".equals(kind))
+                .map(ExpressCartRoutes.Route::getKey)
+                .orElse(kind + " " + path);
+    }
+
+    /**
+     * Asocia las URLs registradas en el hilo actual al test indicado y limpia el registro
+     * @param testName Nombre cualificado del método de test
+     */
+    public static void finish(String testName) {
+        if (!ENABLED) {
+            return;
+        }
+        Set<String> visited = CURRENT.get();
+        if (!visited.isEmpty()) {
+            BY_TEST.computeIfAbsent(testName, k -> Collections.synchronizedSet(new TreeSet<>())).addAll(visited);
+        }
+        CURRENT.remove();
+    }
+
+    /**
+     * Obtiene una copia de las URLs registradas por test
+     * @return Mapa de test a entradas "nav:/ruta" o "xhr:/ruta"
+     */
+    public static Map<String, Set<String>> snapshot() {
+        Map<String, Set<String>> copy = new TreeMap<>();
+        BY_TEST.forEach((test, entries) -> {
+            synchronized (entries) {
+                copy.put(test, new TreeSet<>(entries));
+            }
+        });
+        return copy;
+    }
+}
@@ -4,6 +4,7 @@ import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
@@ -14,6 +15,10 @@ import java.util.Date;
  * Utilidad para capturar screenshots durante las pruebas
  */
 public class ScreenshotUtils {
+
+    public static final String SCREENSHOT_ATTRIBUTE = "screenshot";
+
+    private static final Logger log = TestLogger.getLogger(ScreenshotUtils.class);
     
     /**
      * Captura una screenshot y la guarda en el directorio de capturas
@@ -37,10 +42,10 @@ public class ScreenshotUtils {
         try {
             File screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
             FileUtils.copyFile(screenshot, new File(filePath));
-            System.out.println("Screenshot guardada en: " + filePath);
+            log.info("Screenshot guardada en: {}", filePath);
             return filePath;
         } catch (IOException e) {
-            System.err.println("Error al guardar la screenshot: " + e.getMessage());
+            log.error("Error al guardar la screenshot: {}", e.getMessage());
             return null;
         }
     }
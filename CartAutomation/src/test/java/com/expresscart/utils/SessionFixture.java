@@ -0,0 +1,295 @@
+package com.expresscart.utils;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.File;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Estados de sesión con nombre que se construyen una vez y se clonan en cada test
+ *
+ * La primera vez que un test pide un estado (ej: "dos productos en el carrito") se
+ * construye con el navegador del test y se captura: sus cookies, su localStorage, el
+ * documento de la sesión (colección sessions) y el carrito guardado de esa sesión
+ * (colección cart). Cada test que lo pide después recibe una copia en una sesión nueva:
+ * se duplican ambos documentos con un id de sesión nuevo y se le da al navegador una cookie
+ * connect.sid firmada para ese id, igual que la firmaría express-session. Los tests que
+ * parten de la misma preparación comparten así su coste, y cada copia es independiente.
+ *
+ * Para firmar la cookie se usa secretSession de la configuración de expressCart
+ * (config/settings-local.json o config/settings.json, o la propiedad session.secret). Si
+ * no hay acceso a MongoDB o al secreto, cada test construye el estado por su cuenta.
+ *
+ * Propiedades del sistema:
+ * - session.secret: secreto de sesión de expressCart (por defecto el de su configuración)
+ * - fixture.database: base de datos de expressCart (por defecto "expresscart")
+ * - fixture.mongo: servidor de MongoDB (por defecto mongodb://127.0.0.1:27017)
+ */
+public final class SessionFixture {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionFixture.class);
+
+    private static final String COOKIE_NAME = "connect.sid";
+    private static final String DATABASE = System.getProperty("fixture.database", "expresscart");
+    // Duración de la cookie de sesión de expressCart (cookie.maxAge en app.js)
+    private static final long SESSION_MAX_AGE_MS = 900_000;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final Map<String, Snapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private static MongoClient client;
+    private static boolean unavailable;
+
+    private SessionFixture() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Deja el navegador en el estado con nombre: la primera vez lo construye y lo captura,
+     * y después lo clona en una sesión nueva
+     * @param name Nombre del estado (ej: "dos-productos")
+     * @param driver Navegador del test
+     * @param baseUrl URL base de la tienda
+     * @param builder Construye el estado a través de la interfaz con el navegador recibido
+     */
+    public static void prepare(String name, WebDriver driver, String baseUrl, Consumer<WebDriver> builder) {
+        Snapshot snapshot = SNAPSHOTS.get(name);
+        if (snapshot == null) {
+            synchronized (LOCKS.computeIfAbsent(name, k -> new Object())) {
+                snapshot = SNAPSHOTS.get(name);
+                if (snapshot == null) {
+                    long start = System.nanoTime();
+                    builder.accept(driver);
+                    LatencyRecorder.record("SessionFixture.build", System.nanoTime() - start);
+                    snapshot = capture(driver, baseUrl);
+                    if (snapshot != null) {
+                        SNAPSHOTS.put(name, snapshot);
+                        log.info("Estado de sesión '{}' capturado", name);
+                    }
+                    // El navegador que lo ha construido ya está en el estado
+                    return;
+                }
+            }
+        }
+        long start = System.nanoTime();
+        if (!fork(snapshot, driver)) {
+            builder.accept(driver);
+        }
+        LatencyRecorder.record("SessionFixture.fork", System.nanoTime() - start);
+    }
+
+    /**
+     * Captura la sesión actual del navegador
+     * @return Estado capturado, o null si no se puede (sin MongoDB o sin cookie de sesión)
+     */
+    private static Snapshot capture(WebDriver driver, String baseUrl) {
+        Cookie sessionCookie = driver.manage().getCookieNamed(COOKIE_NAME);
+        MongoDatabase db = database();
+        if (sessionCookie == null || db == null) {
+            log.warn("No se puede capturar la sesión: cada test construirá el estado por su cuenta");
+            return null;
+        }
+        String sessionId = unsign(sessionCookie.getValue());
+        try {
+            Document session = db.getCollection("sessions").find(Filters.eq("_id", sessionId)).first();
+            if (session == null) {
+                log.warn("La sesión {} no está guardada en MongoDB", sessionId);
+                return null;
+            }
+            Document cart = db.getCollection("cart").find(Filters.eq("sessionId", sessionId)).first();
+            Object storage = ((JavascriptExecutor) driver).executeScript("return JSON.stringify(window.localStorage);");
+            return new Snapshot(baseUrl, new ArrayList<>(driver.manage().getCookies()),
+                    storage == null ? "{}" : storage.toString(), session, cart);
+        } catch (MongoException e) {
+            log.warn("No se pudo leer la sesión de MongoDB: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Clona el estado en una sesión nueva y la asigna al navegador
+     * @return false si no se ha podido clonar
+     */
+    private static boolean fork(Snapshot snapshot, WebDriver driver) {
+        String secret = secret();
+        MongoDatabase db = database();
+        if (snapshot == null || secret == null || db == null) {
+            return false;
+        }
+        String sessionId = newSessionId();
+        try {
+            Date expires = new Date(System.currentTimeMillis() + SESSION_MAX_AGE_MS);
+            Document session = new Document(snapshot.session)
+                    .append("_id", sessionId)
+                    .append("expires", expires);
+            // La cookie guardada dentro de la sesión también caduca con la copia
+            Object data = session.get("session");
+            if (data instanceof Document && ((Document) data).get("cookie") instanceof Document) {
+                Document copy = new Document((Document) data);
+                copy.put("cookie", new Document(copy.get("cookie", Document.class)).append("expires", expires));
+                session.put("session", copy);
+            }
+            db.getCollection("sessions").insertOne(session);
+            if (snapshot.cart != null) {
+                Document cart = new Document(snapshot.cart);
+                cart.remove("_id");
+                cart.append("sessionId", sessionId);
+                db.getCollection("cart").insertOne(cart);
+            }
+        } catch (MongoException e) {
+            log.warn("No se pudo clonar la sesión: {}", e.getMessage());
+            return false;
+        }
+
+        // Las cookies solo se pueden asignar estando en una página de la tienda
+        if (!driver.getCurrentUrl().startsWith(snapshot.baseUrl)) {
+            driver.get(snapshot.baseUrl + "/robots.txt");
+        }
+        driver.manage().deleteAllCookies();
+        for (Cookie cookie : snapshot.cookies) {
+            String value = COOKIE_NAME.equals(cookie.getName()) ? sign(sessionId, secret) : cookie.getValue();
+            driver.manage().addCookie(new Cookie.Builder(cookie.getName(), value)
+                    .path(cookie.getPath())
+                    .isHttpOnly(cookie.isHttpOnly())
+                    .isSecure(cookie.isSecure())
+                    .expiresOn(cookie.getExpiry())
+                    .build());
+        }
+        ((JavascriptExecutor) driver).executeScript(
+                "window.localStorage.clear();"
+                + "var items = JSON.parse(arguments[0]);"
+                + "Object.keys(items).forEach(function(k) { window.localStorage.setItem(k, items[k]); });",
+                snapshot.localStorage);
+        return true;
+    }
+
+    /**
+     * Id de sesión con el mismo formato que uid-safe (24 bytes en base64 url)
+     */
+    private static String newSessionId() {
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Firma un id de sesión como express-session: "s:" + id + "." + HMAC-SHA256 en base64
+     * sin relleno, codificado para la cookie
+     */
+    static String sign(String sessionId, String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            String signature = Base64.getEncoder().encodeToString(mac.doFinal(sessionId.getBytes(StandardCharsets.UTF_8)))
+                    .replaceAll("=+$", "");
+            return URLEncoder.encode("s:" + sessionId + "." + signature, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo firmar la cookie de sesión", e);
+        }
+    }
+
+    static String unsign(String cookieValue) {
+        String value = URLDecoder.decode(cookieValue, StandardCharsets.UTF_8);
+        if (value.startsWith("s:")) {
+            value = value.substring(2);
+        }
+        int dot = value.lastIndexOf('.');
+        return dot > 0 ? value.substring(0, dot) : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String secret() {
+        String secret = System.getProperty("session.secret");
+        if (secret != null) {
+            return secret;
+        }
+        for (String file : new String[]{"config/settings-local.json", "config/settings.json"}) {
+            File settings = new File(ExpressCartRoutes.appDirectory(), file);
+            if (!settings.exists()) {
+                continue;
+            }
+            try {
+                Map<String, Object> config = new Json().toType(
+                        new String(Files.readAllBytes(settings.toPath()), StandardCharsets.UTF_8), Map.class);
+                Object value = config.get("secretSession");
+                if (value != null && !value.toString().isEmpty()) {
+                    return value.toString();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("No se pudo leer {}: {}", settings, e.getMessage());
+            }
+        }
+        log.warn("No se encontró secretSession de expressCart: los estados de sesión no se clonarán");
+        return null;
+    }
+
+    private static synchronized MongoDatabase database() {
+        if (unavailable) {
+            return null;
+        }
+        if (client == null) {
+            client = MongoClients.create(MongoClientSettings.builder()
+                    .applyConnectionString(new ConnectionString(MongoFixture.MONGO_URL))
+                    .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(2, TimeUnit.SECONDS))
+                    .build());
+            try {
+                client.getDatabase(DATABASE).runCommand(new Document("ping", 1));
+            } catch (MongoException e) {
+                log.warn("MongoDB no disponible ({}): los estados de sesión no se clonarán", e.getMessage());
+                unavailable = true;
+                return null;
+            }
+        }
+        return client.getDatabase(DATABASE);
+    }
+
+    /**
+     * Estado capturado de una sesión
+     */
+    private static final class Snapshot {
+        final String baseUrl;
+        final List<Cookie> cookies;
+        final String localStorage;
+        final Document session;
+        final Document cart;
+
+        Snapshot(String baseUrl, List<Cookie> cookies, String localStorage, Document session, Document cart) {
+            this.baseUrl = baseUrl;
+            this.cookies = cookies;
+            this.localStorage = localStorage;
+            this.session = new Document(new HashMap<>(session));
+            this.cart = cart == null ? null : new Document(new HashMap<>(cart));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.slf4j.Logger;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Modo de renderizado determinista: sin transiciones, animaciones ni desplazamiento suave
+ *
+ * Las transiciones CSS, los efectos de jQuery (fadeIn del aviso #notify_message) y el menú
+ * lateral animado hacen que los elementos tarden en ser clicables o visibles, y de ahí
+ * salen los reintentos y el click por JavaScript de BasePage.clickElement. Con el modo
+ * activo cada documento se carga con una hoja de estilos que anula transiciones y
+ * animaciones y con jQuery.fx.off, así que las interacciones ocurren al instante. Además
+ * la ventana tiene siempre el mismo tamaño en lugar de maximizarse según la pantalla.
+ *
+ * En chrome/edge el script se registra con DevTools para todos los documentos nuevos,
+ * antes de que se ejecuten los scripts de la página. En el resto de navegadores
+ * BasePage lo inyecta tras cada navegación, así que no cubre las páginas a las que se
+ * llega con un click.
+ *
+ * Propiedades del sistema:
+ * - render.static: activa el modo (por defecto false)
+ * - render.viewport: tamaño fijo de la ventana (por defecto 1366x900)
+ */
+public final class StaticRendering {
+
+    private static final Logger log = TestLogger.getLogger(StaticRendering.class);
+
+    private static final String STYLE = "*, *::before, *::after {"
+            + " transition: none !important; transition-duration: 0s !important;"
+            + " animation: none !important; animation-duration: 0s !important;"
+            + " scroll-behavior: auto !important; caret-color: transparent !important; }";
+
+    // jQuery se carga después del script: se desactivan sus efectos en cuanto se asigna
+    private static final String SCRIPT = "(function() {"
+            + "  if (window.__staticRendering) { return; }"
+            + "  window.__staticRendering = true;"
+            + "  function addStyle() {"
+            + "    var style = document.createElement('style');"
+            + "    style.id = 'static-rendering';"
+            + "    style.textContent = " + jsString(STYLE) + ";"
+            + "    (document.head || document.documentElement).appendChild(style);"
+            + "  }"
+            + "  if (document.documentElement) { addStyle(); } else { document.addEventListener('DOMContentLoaded', addStyle); }"
+            + "  function disableEffects(jq) { if (jq && jq.fx) { jq.fx.off = true; } return jq; }"
+            + "  if (window.jQuery) {"
+            + "    disableEffects(window.jQuery);"
+            + "  } else {"
+            + "    var current;"
+            + "    Object.defineProperty(window, 'jQuery', {configurable: true, enumerable: true,"
+            + "      get: function() { return current; },"
+            + "      set: function(value) { current = disableEffects(value); }});"
+            + "  }"
+            + "})();";
+
+    // Navegadores con el script registrado para todos los documentos
+    private static final Set<WebDriver> REGISTERED = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private StaticRendering() {
+        // Clase de utilidad
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("render.static");
+    }
+
+    /**
+     * Tamaño fijo de la ventana en el modo determinista
+     * @return Dimensiones de render.viewport
+     */
+    public static Dimension viewport() {
+        String value = System.getProperty("render.viewport", "1366x900");
+        String[] parts = value.toLowerCase().split("x");
+        try {
+            return new Dimension(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("render.viewport debe tener el formato ANCHOxALTO: " + value, e);
+        }
+    }
+
+    /**
+     * Prepara un navegador recién creado: tamaño fijo de ventana y, con DevTools, el
+     * script en todos los documentos nuevos y la preferencia de movimiento reducido
+     * @param driver Navegador
+     */
+    public static void apply(WebDriver driver) {
+        driver.manage().window().setSize(viewport());
+        if (!(driver instanceof ChromiumDriver)) {
+            log.debug("Sin DevTools: el renderizado estático se inyecta tras cada navegación");
+            return;
+        }
+        ChromiumDriver chromium = (ChromiumDriver) driver;
+        try {
+            Map<String, Object> script = new HashMap<>();
+            script.put("source", SCRIPT);
+            chromium.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", script);
+
+            Map<String, Object> feature = new HashMap<>();
+            feature.put("name", "prefers-reduced-motion");
+            feature.put("value", "reduce");
+            Map<String, Object> media = new HashMap<>();
+            media.put("features", Collections.singletonList(feature));
+            chromium.executeCdpCommand("Emulation.setEmulatedMedia", media);
+            REGISTERED.add(driver);
+        } catch (WebDriverException e) {
+            log.warn("No se pudo registrar el renderizado estático con DevTools: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Inyecta el script en el documento actual si el navegador no lo tiene registrado
+     * @param driver Navegador
+     */
+    public static void inject(WebDriver driver) {
+        if (!isEnabled() || REGISTERED.contains(driver)) {
+            return;
+        }
+        try {
+            ((JavascriptExecutor) driver).executeScript(SCRIPT);
+        } catch (WebDriverException e) {
+            log.debug("No se pudo inyectar el renderizado estático: {}", e.getMessage());
+        }
+    }
+
+    private static String jsString(String value) {
+        return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+}
@@ -0,0 +1,329 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reporter que escribe cada resultado en cuanto se conoce, sin acumularlos en memoria
+ *
+ * Por cada suite se generan en target/streaming-results/:
+ * - &lt;suite&gt;.jsonl: una línea JSON por resultado (solo se añade al final; se vacía al
+ *   empezar cada ejecución, igual que el XML)
+ * - TEST-&lt;suite&gt;.xml: informe JUnit que es XML válido tras cada resultado
+ *
+ * Cada resultado incluye sus tiempos, el error, la clasificación del fallo, el snapshot
+ * de la página (atributo de FailureSnapshot), la captura de pantalla si se ha pedido
+ * (atributo de ScreenshotUtils) y las trazas del TestLogBuffer. Como el snapshot se
+ * toma en el @AfterMethod, el resultado se escribe al terminar ese método
+ * (o, si no llega a ejecutarse, al empezar el siguiente test o al terminar la suite).
+ * Si el proceso muere a mitad de la ejecución, los resultados ya escritos se conservan.
+ *
+ * Para que la memoria no crezca con el número de resultados, el pom desactiva los reporters
+ * por defecto de TestNG (usedefaultlisteners=false, propiedad testng.defaultListeners) y,
+ * una vez escrito un resultado, se le quitan los atributos pesados: trazas, eventos del
+ * navegador, snapshot y captura. TestNG sigue guardando cada ITestResult hasta el final
+ * de la suite (nombre, parámetros, tiempos, excepción y clasificación del fallo), además
+ * de las líneas que TestLogListener pasa a Reporter.log en los tests fallidos.
+ */
+public class StreamingResultReporter implements ITestListener, IInvokedMethodListener, ISuiteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingResultReporter.class);
+
+    private static final String OUTPUT_DIR = "target/streaming-results";
+    // Atributos que ya están en los ficheros y no hace falta conservar en el resultado
+    private static final List<String> WRITTEN_ATTRIBUTES = Arrays.asList(TestLogListener.TEST_LOG_ATTRIBUTE,
+            BrowserEvents.BROWSER_EVENTS_ATTRIBUTE, FailureSnapshot.SNAPSHOT_ATTRIBUTE,
+            ScreenshotUtils.SCREENSHOT_ATTRIBUTE);
+
+    private static final Map<String, Output> OUTPUTS = new LinkedHashMap<>();
+    // Como mucho un resultado pendiente por hilo de ejecución
+    private static final Map<Thread, ITestResult> PENDING = new ConcurrentHashMap<>();
+
+    @Override
+    public void onStart(ISuite suite) {
+        synchronized (OUTPUTS) {
+            if (OUTPUTS.containsKey(suite.getName())) {
+                return;
+            }
+            try {
+                OUTPUTS.put(suite.getName(), new Output(suite.getName()));
+            } catch (IOException e) {
+                log.error("No se pudieron crear los informes de resultados de {}: {}", suite.getName(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        PENDING.keySet().forEach(StreamingResultReporter::flush);
+        Output output;
+        synchronized (OUTPUTS) {
+            output = OUTPUTS.remove(suite.getName());
+        }
+        if (output != null) {
+            output.close();
+            log.info("Resultados de {} escritos en {}", suite.getName(), OUTPUT_DIR);
+        }
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            // El @AfterMethod del test anterior no llegó a ejecutarse
+            flush();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isConfigurationMethod() && method.getTestMethod().isAfterMethodConfiguration()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        hold(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        hold(result);
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        hold(result);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        hold(result);
+    }
+
+    private static void hold(ITestResult result) {
+        flush();
+        PENDING.put(Thread.currentThread(), result);
+    }
+
+    private static void flush() {
+        flush(Thread.currentThread());
+    }
+
+    /**
+     * Escribe el resultado pendiente de un hilo
+     */
+    private static void flush(Thread thread) {
+        ITestResult result = PENDING.remove(thread);
+        if (result == null) {
+            return;
+        }
+        Output output;
+        synchronized (OUTPUTS) {
+            output = OUTPUTS.get(result.getTestContext().getSuite().getName());
+        }
+        if (output != null) {
+            output.write(result);
+        }
+    }
+
+    private static String status(ITestResult result) {
+        switch (result.getStatus()) {
+            case ITestResult.SUCCESS:
+                return "PASS";
+            case ITestResult.FAILURE:
+            case ITestResult.SUCCESS_PERCENTAGE_FAILURE:
+                return "FAIL";
+            default:
+                return result.wasRetried() ? "RETRIED" : "SKIP";
+        }
+    }
+
+    private static String stackTrace(Throwable throwable) {
+        StringWriter trace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(trace));
+        return trace.toString();
+    }
+
+    /**
+     * Ficheros de resultados de una suite
+     */
+    private static final class Output {
+        private static final String FOOTER = "</testsuite>\n";
+        // Contadores de ancho fijo para poder reescribirlos en su sitio
+        private static final String COUNTER = "%010d";
+
+        private final Writer jsonl;
+        private final RandomAccessFile junit;
+        private final long countersOffset;
+        private final Json json = new Json();
+        private int tests;
+        private int failures;
+        private int skipped;
+
+        Output(String suiteName) throws IOException {
+            File dir = new File(OUTPUT_DIR);
+            dir.mkdirs();
+            String fileName = suiteName.replaceAll("[^\\w.-]", "_");
+            // Cada ejecución empieza de cero para que el jsonl coincida con el XML
+            jsonl = new OutputStreamWriter(new FileOutputStream(new File(dir, fileName + ".jsonl"), false),
+                    StandardCharsets.UTF_8);
+
+            File xml = new File(dir, "TEST-" + fileName + ".xml");
+            junit = new RandomAccessFile(xml, "rw");
+            junit.setLength(0);
+            String start = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"" + escape(suiteName) + "\" ";
+            junit.write(start.getBytes(StandardCharsets.UTF_8));
+            countersOffset = junit.getFilePointer();
+            junit.write((counters() + ">\n" + FOOTER).getBytes(StandardCharsets.UTF_8));
+        }
+
+        private String counters() {
+            return String.format(Locale.ROOT, "tests=\"" + COUNTER + "\" failures=\"" + COUNTER
+                    + "\" errors=\"0\" skipped=\"" + COUNTER + "\"", tests, failures, skipped);
+        }
+
+        synchronized void write(ITestResult result) {
+            String status = status(result);
+            long duration = result.getEndMillis() - result.getStartMillis();
+            Throwable throwable = result.getThrowable();
+            Object screenshot = result.getAttribute(ScreenshotUtils.SCREENSHOT_ATTRIBUTE);
+            Object snapshot = result.getAttribute(FailureSnapshot.SNAPSHOT_ATTRIBUTE);
+            Object testLog = result.getAttribute(TestLogListener.TEST_LOG_ATTRIBUTE);
+            Object classification = result.getAttribute(FlakeRetryAnalyzer.CLASSIFICATION_ATTRIBUTE);
+            Object browserEvents = result.getAttribute(BrowserEvents.BROWSER_EVENTS_ATTRIBUTE);
+
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("suite", result.getTestContext().getSuite().getName());
+            record.put("test", result.getTestContext().getName());
+            record.put("class", result.getTestClass().getName());
+            record.put("method", result.getMethod().getMethodName());
+            record.put("parameters", Arrays.stream(result.getParameters()).map(String::valueOf).collect(Collectors.toList()));
+            record.put("status", status);
+            record.put("thread", Thread.currentThread().getName());
+            record.put("startMillis", result.getStartMillis());
+            record.put("endMillis", result.getEndMillis());
+            record.put("durationMillis", duration);
+            if (throwable != null) {
+                record.put("error", throwable.getClass().getName() + ": " + throwable.getMessage());
+            }
+            if (classification instanceof FailureClassifier.Classification) {
+                record.put("classification", ((FailureClassifier.Classification) classification).getCategory().name());
+            }
+            record.put("snapshot", snapshot);
+            record.put("screenshot", screenshot);
+            record.put("log", testLog);
+            if (browserEvents instanceof List) {
+                record.put("browserEvents", ((List<?>) browserEvents).stream().map(String::valueOf).collect(Collectors.toList()));
+            }
+
+            try {
+                jsonl.write(json.toJson(record).replaceAll("\\R\\s*", " ") + "\n");
+                jsonl.flush();
+                writeTestCase(result, status, duration, throwable, snapshot, screenshot, testLog);
+            } catch (IOException e) {
+                log.error("Error al escribir el resultado de {}: {}", result.getName(), e.getMessage());
+            }
+            WRITTEN_ATTRIBUTES.forEach(result::removeAttribute);
+        }
+
+        private void writeTestCase(ITestResult result, String status, long duration, Throwable throwable,
+                                   Object snapshot, Object screenshot, Object testLog) throws IOException {
+            StringBuilder testCase = new StringBuilder();
+            String name = result.getMethod().getMethodName();
+            if (result.getParameters().length > 0) {
+                name += Arrays.toString(result.getParameters());
+            }
+            testCase.append("  <testcase classname=\"").append(escape(result.getTestClass().getName()))
+                    .append("\" name=\"").append(escape(name))
+                    .append(String.format(Locale.ROOT, "\" time=\"%.3f\"", duration / 1000.0));
+            tests++;
+            if ("PASS".equals(status)) {
+                testCase.append("/>\n");
+            } else {
+                testCase.append(">\n");
+                if ("FAIL".equals(status)) {
+                    failures++;
+                    testCase.append("    <failure type=\"")
+                            .append(escape(throwable == null ? "" : throwable.getClass().getName()))
+                            .append("\" message=\"").append(escape(throwable == null ? "" : String.valueOf(throwable.getMessage())))
+                            .append("\">").append(escape(throwable == null ? "" : stackTrace(throwable)))
+                            .append("</failure>\n");
+                } else {
+                    skipped++;
+                    testCase.append("    <skipped message=\"").append(status).append("\"/>\n");
+                }
+                StringBuilder out = new StringBuilder();
+                if (snapshot != null) {
+                    out.append("[[ATTACHMENT|").append(snapshot).append("]]\n");
+                }
+                if (screenshot != null) {
+                    out.append("[[ATTACHMENT|").append(screenshot).append("]]\n");
+                }
+                if (testLog instanceof List) {
+                    ((List<?>) testLog).forEach(line -> out.append(line).append('\n'));
+                }
+                if (out.length() > 0) {
+                    testCase.append("    <system-out>").append(escape(out.toString())).append("</system-out>\n");
+                }
+                testCase.append("  </testcase>\n");
+            }
+
+            // Se sobrescribe el cierre de la suite y se vuelve a escribir detrás del nuevo caso
+            junit.seek(junit.length() - FOOTER.length());
+            junit.write((testCase + FOOTER).getBytes(StandardCharsets.UTF_8));
+            junit.seek(countersOffset);
+            junit.write(counters().getBytes(StandardCharsets.UTF_8));
+        }
+
+        synchronized void close() {
+            try {
+                jsonl.close();
+                junit.close();
+            } catch (IOException e) {
+                log.warn("Error al cerrar los informes de resultados: {}", e.getMessage());
+            }
+        }
+
+        private static String escape(String text) {
+            StringBuilder escaped = new StringBuilder(text.length());
+            for (char c : text.toCharArray()) {
+                switch (c) {
+                    case '<': escaped.append("&lt;"); break;
+                    case '>': escaped.append("&gt;"); break;
+                    case '&': escaped.append("&amp;"); break;
+                    case '"': escaped.append("&quot;"); break;
+                    default:
+                        if (c >= 0x20 || c == '\n' || c == '\t' || c == '\r') {
+                            escaped.append(c);
+                        }
+                }
+            }
+            return escaped.toString();
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Daemon local que mantiene caliente la JVM y un pool de navegadores entre ejecuciones
+ *
+ * Escucha en 127.0.0.1 órdenes de una línea y responde con el progreso línea a línea:
+ * - run CartFunctionalityTest#testAddProductToCart,testRemoveProductFromCart [OtraClase ...]
+ * - status
+ * - stop
+ *
+ * Antes de cada ejecución compila los .java de src/test/java más nuevos que su .class y,
+ * si han cambiado clases de tests o de Page Objects, las vuelve a cargar en un class
+ * loader nuevo. Las utilidades (utils) se cargan una sola vez porque guardan el estado
+ * que se comparte entre ejecuciones, como el pool de navegadores: sus cambios requieren
+ * reiniciar el daemon.
+ *
+ * Propiedades del sistema:
+ * - daemon.port: puerto de escucha (por defecto 4567)
+ * - daemon.browser / daemon.headless: navegador de los tests (por defecto chrome, false)
+ * - daemon.browsers: navegadores que se arrancan por adelantado (por defecto 1)
+ *
+ * Con argumentos distintos de "serve" actúa como cliente: envía los argumentos como orden
+ * a un daemon ya arrancado y termina con código 1 si algún test falla.
+ */
+public final class TestDaemon {
+
+    private static final Logger log = LoggerFactory.getLogger(TestDaemon.class);
+
+    private static final int PORT = Integer.getInteger("daemon.port", 4567);
+    private static final String BROWSER = System.getProperty("daemon.browser", "chrome");
+    private static final String HEADLESS = System.getProperty("daemon.headless", "false");
+    private static final String TESTS_PACKAGE = "com.expresscart.tests.";
+    private static final String[] RELOADABLE = {TESTS_PACKAGE, "com.expresscart.pages."};
+    private static final Path SOURCES = Paths.get("src", "test", "java");
+    private static final Path CLASSES = Paths.get("target", "test-classes");
+
+    private ReloadingClassLoader loader;
+    private long loadedStamp = -1;
+
+    private TestDaemon() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && !"serve".equals(args[0])) {
+            System.exit(sendCommand(String.join(" ", args)));
+        }
+        new TestDaemon().serve();
+    }
+
+    private void serve() throws IOException {
+        if (System.getProperty("browser.pool") == null) {
+            System.setProperty("browser.pool", "true");
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(BrowserPool::shutdown, "daemon-shutdown"));
+        try {
+            BrowserPool.warm(Integer.getInteger("daemon.browsers", 1), BROWSER, Boolean.parseBoolean(HEADLESS), "none");
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron arrancar los navegadores por adelantado: {}", e.getMessage());
+        }
+
+        try (ServerSocket server = new ServerSocket(PORT, 10, InetAddress.getLoopbackAddress())) {
+            log.info("Daemon de tests escuchando en 127.0.0.1:{} ({} navegadores calientes)", PORT, BrowserPool.idleCount());
+            while (true) {
+                try (Socket socket = server.accept();
+                     BufferedReader in = new BufferedReader(
+                             new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                     PrintWriter out = new PrintWriter(
+                             new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+                    String command = in.readLine();
+                    if (command == null) {
+                        continue;
+                    }
+                    command = command.trim();
+                    if ("stop".equals(command)) {
+                        out.println("Daemon detenido");
+                        break;
+                    }
+                    handle(command, out);
+                } catch (IOException e) {
+                    log.warn("Error en la conexión con el cliente: {}", e.getMessage());
+                }
+            }
+        } finally {
+            BrowserPool.shutdown();
+        }
+    }
+
+    private void handle(String command, PrintWriter out) {
+        if ("status".equals(command)) {
+            out.println("Navegadores libres: " + BrowserPool.idleCount());
+            return;
+        }
+        if (!command.startsWith("run ")) {
+            out.println("Orden desconocida: " + command + " (run <Clase[#metodo,...]> ..., status, stop)");
+            return;
+        }
+        try {
+            compileChangedSources(out);
+            run(command.substring(4).trim(), out);
+        } catch (Exception e) {
+            log.error("Error al ejecutar '{}'", command, e);
+            out.println("ERROR " + e);
+            out.println("RESULT passed=0 failed=1 skipped=0");
+        }
+    }
+
+    /**
+     * Ejecuta con TestNG las clases y métodos pedidos usando el class loader vigente
+     */
+    private void run(String specs, PrintWriter out) throws Exception {
+        ClassLoader testLoader = currentLoader(out);
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Daemon");
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("browser", BROWSER);
+        parameters.put("headless", HEADLESS);
+        suite.setParameters(parameters);
+        XmlTest test = new XmlTest(suite);
+        test.setName("Daemon run");
+
+        List<XmlClass> classes = new ArrayList<>();
+        for (String spec : specs.split("\\s+")) {
+            String[] parts = spec.split("#", 2);
+            String className = parts[0].contains(".") ? parts[0] : TESTS_PACKAGE + parts[0];
+            XmlClass xmlClass = new XmlClass(Class.forName(className, true, testLoader));
+            if (parts.length > 1) {
+                List<XmlInclude> methods = new ArrayList<>();
+                for (String method : parts[1].split(",")) {
+                    methods.add(new XmlInclude(method.trim()));
+                }
+                xmlClass.setIncludedMethods(methods);
+            }
+            classes.add(xmlClass);
+        }
+        test.setXmlClasses(classes);
+
+        ClientReporter reporter = new ClientReporter(out);
+        TestNG testng = new TestNG(false);
+        testng.setXmlSuites(List.of(suite));
+        testng.setVerbose(0);
+        testng.addListener(new TestLogListener());
+        testng.addListener(reporter);
+
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(testLoader);
+        long start = System.nanoTime();
+        try {
+            testng.run();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+        out.println(String.format("RESULT passed=%d failed=%d skipped=%d time=%dms", reporter.passed.get(),
+                reporter.failed.get(), reporter.skipped.get(), (System.nanoTime() - start) / 1_000_000));
+    }
+
+    /**
+     * Compila los fuentes más nuevos que su .class con el compilador de la propia JVM
+     */
+    private static void compileChangedSources(PrintWriter out) throws IOException {
+        if (!Files.isDirectory(SOURCES)) {
+            return;
+        }
+        List<Path> changed;
+        try (Stream<Path> files = Files.walk(SOURCES)) {
+            changed = files.filter(file -> file.toString().endsWith(".java"))
+                    .filter(TestDaemon::isStale)
+                    .collect(Collectors.toList());
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            out.println("Sin compilador en esta JVM: compila con 'mvn test-compile' antes de ejecutar");
+            return;
+        }
+        List<String> arguments = new ArrayList<>(List.of("-d", CLASSES.toString(), "-encoding", "UTF-8",
+                "-sourcepath", SOURCES.toString(), "-classpath", classpath(), "-nowarn"));
+        changed.forEach(file -> arguments.add(file.toString()));
+        out.println("Compilando " + changed.size() + " fuente(s) modificado(s)");
+        if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Error de compilación (ver la salida del daemon)");
+        }
+        for (Path file : changed) {
+            String name = SOURCES.relativize(file).toString().replace(File.separatorChar, '.');
+            if (!isReloadable(name)) {
+                out.println("AVISO: " + name + " no se recarga en caliente; reinicia el daemon para usar el cambio");
+            }
+        }
+    }
+
+    private static boolean isStale(Path source) {
+        Path relative = SOURCES.relativize(source);
+        Path compiled = CLASSES.resolve(relative.toString().replaceAll("\\.java$", ".class"));
+        try {
+            return !Files.exists(compiled)
+                    || Files.getLastModifiedTime(source).compareTo(Files.getLastModifiedTime(compiled)) > 0;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Devuelve el class loader de los tests, creando uno nuevo si sus clases han cambiado
+     */
+    private ClassLoader currentLoader(PrintWriter out) throws IOException {
+        long stamp = reloadableStamp();
+        if (loader == null || stamp != loadedStamp) {
+            if (loader != null) {
+                out.println("Recargando clases de tests y Page Objects");
+                loader.close();
+            }
+            loader = new ReloadingClassLoader(new URL[]{CLASSES.toUri().toURL()}, TestDaemon.class.getClassLoader());
+            loadedStamp = stamp;
+        }
+        return loader;
+    }
+
+    private static long reloadableStamp() throws IOException {
+        long newest = 0;
+        long count = 0;
+        for (String prefix : RELOADABLE) {
+            Path dir = CLASSES.resolve(prefix.substring(0, prefix.length() - 1).replace('.', File.separatorChar));
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (file.toString().endsWith(".class")) {
+                        newest = Math.max(newest, Files.getLastModifiedTime(file).toMillis());
+                        count++;
+                    }
+                }
+            }
+        }
+        // El número de clases detecta también las clases nuevas o borradas
+        return newest * 31 + count;
+    }
+
+    private static boolean isReloadable(String className) {
+        for (String prefix : RELOADABLE) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Classpath de la JVM actual (con exec:java las dependencias están en el class loader,
+     * no en java.class.path)
+     */
+    private static String classpath() {
+        ClassLoader current = TestDaemon.class.getClassLoader();
+        if (current instanceof URLClassLoader) {
+            List<String> entries = new ArrayList<>();
+            for (URL url : ((URLClassLoader) current).getURLs()) {
+                try {
+                    entries.add(Paths.get(url.toURI()).toString());
+                } catch (Exception e) {
+                    entries.add(url.getPath());
+                }
+            }
+            return String.join(File.pathSeparator, entries);
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    /**
+     * Envía una orden al daemon y muestra su respuesta
+     * @return 0 si no ha fallado ningún test
+     */
+    private static int sendCommand(String command) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), PORT);
+             PrintWriter out = new PrintWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            out.println(command);
+            int exitCode = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                System.out.println(line);
+                if (line.startsWith("RESULT ") && !line.contains(" failed=0 ")) {
+                    exitCode = 1;
+                }
+            }
+            return exitCode;
+        }
+    }
+
+    /**
+     * Carga primero desde target/test-classes las clases de tests y Page Objects, y
+     * delega el resto (utilidades, Selenium, TestNG) en el class loader del daemon
+     */
+    private static final class ReloadingClassLoader extends URLClassLoader {
+
+        ReloadingClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isReloadable(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    loaded = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+    }
+
+    /**
+     * Envía al cliente el resultado de cada test según termina
+     */
+    private static final class ClientReporter implements ITestListener {
+        private final PrintWriter out;
+        private final AtomicInteger passed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+
+        ClientReporter(PrintWriter out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onTestStart(ITestResult result) {
+            out.println("START " + result.getMethod().getQualifiedName());
+        }
+
+        @Override
+        public void onTestSuccess(ITestResult result) {
+            passed.incrementAndGet();
+            out.println("PASS  " + describe(result));
+        }
+
+        @Override
+        public void onTestFailure(ITestResult result) {
+            failed.incrementAndGet();
+            out.println("FAIL  " + describe(result) + ": " + result.getThrowable());
+        }
+
+        @Override
+        public void onTestSkipped(ITestResult result) {
+            skipped.incrementAndGet();
+            out.println("SKIP  " + describe(result));
+        }
+
+        private static String describe(ITestResult result) {
+            return result.getMethod().getQualifiedName() + " (" + (result.getEndMillis() - result.getStartMillis()) + " ms)";
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Almacén de datos históricos entre ejecuciones (tasas de flakes, duraciones...)
+ *
+ * Los ficheros se guardan fuera de target/ para que sobrevivan a "mvn clean", en el
+ * directorio indicado por la propiedad del sistema history.dir (por defecto test-history).
+ * En CI se puede conservar entre ejecuciones con la tarea de caché del pipeline.
+ */
+public final class TestHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(TestHistory.class);
+
+    private TestHistory() {
+    }
+
+    /**
+     * Obtiene la ruta de un fichero del histórico
+     * @param name Nombre del fichero
+     * @return Fichero dentro del directorio de histórico
+     */
+    public static File file(String name) {
+        return new File(System.getProperty("history.dir", "test-history"), name);
+    }
+
+    /**
+     * Carga un fichero de propiedades del histórico
+     * @param name Nombre del fichero
+     * @return Propiedades leídas, vacías si el fichero no existe o no se puede leer
+     */
+    public static Properties load(String name) {
+        Properties properties = new Properties();
+        File file = file(name);
+        if (!file.exists()) {
+            return properties;
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            log.warn("No se pudo leer el histórico {}: {}", file, e.getMessage());
+        }
+        return properties;
+    }
+
+    /**
+     * Guarda un fichero de propiedades en el histórico
+     * @param name Nombre del fichero
+     * @param properties Propiedades a guardar
+     * @param comment Comentario de cabecera
+     */
+    public static void store(String name, Properties properties, String comment) {
+        File file = file(name);
+        file.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, comment);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar el histórico {}: {}", file, e.getMessage());
+        }
+    }
+}
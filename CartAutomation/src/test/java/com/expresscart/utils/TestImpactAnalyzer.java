@@ -0,0 +1,246 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Análisis de impacto de los tests sobre las rutas y vistas de expressCart
+ *
+ * - Con impact.record=true, al terminar la suite se traducen las URLs registradas por
+ *   RouteRecorder a rutas de expressCart (y a las vistas que renderizan) y se guardan
+ *   en el mapa de cobertura test-history/impact-map.json. Las rutas nuevas se suman a
+ *   las ya guardadas: una ejecución que falla o se salta al principio (y solo visita la
+ *   home) no borra la cobertura que el test tenía.
+ * - Con impact.base=&lt;ref de git&gt;, antes de ejecutar cada &lt;test&gt; se calcula qué rutas
+ *   afecta el diff de expressCart/ contra esa referencia y solo se ejecutan los tests
+ *   que las visitan. Los cambios que no se pueden acotar a rutas concretas (lib/, app.js,
+ *   config/, layouts, parciales, JS/CSS públicos...) ejecutan la suite completa. Los tests
+ *   que todavía no tienen rutas en el mapa (sin entrada o con la lista vacía) se ejecutan
+ *   siempre.
+ */
+public class TestImpactAnalyzer implements IMethodInterceptor, ISuiteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TestImpactAnalyzer.class);
+
+    private static final String MAP_FILE = "impact-map.json";
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+    private static final List<String> IGNORED_PREFIXES = Arrays.asList("test/", ".");
+    private static final List<String> IGNORED_FILES = Arrays.asList("LICENSE", "README.md");
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        String base = System.getProperty("impact.base");
+        if (base == null || base.trim().isEmpty()) {
+            return methods;
+        }
+        Map<String, Set<String>> coverage = loadCoverage();
+        Optional<Set<String>> affected = affectedRoutes(base.trim());
+        if (!affected.isPresent()) {
+            log.info("Impacto [{}]: el diff contra {} no se puede acotar a rutas; se ejecutan todos los tests",
+                    context.getName(), base);
+            return methods;
+        }
+
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            String name = method.getMethod().getQualifiedName();
+            Set<String> routes = coverage.get(name);
+            // Sin rutas conocidas no se sabe qué visita el test
+            if (routes == null || routes.isEmpty() || !Collections.disjoint(routes, affected.get())) {
+                selected.add(method);
+            } else {
+                log.info("Impacto [{}]: se omite {} (no visita rutas afectadas)", context.getName(), name);
+            }
+        }
+        log.info("Impacto [{}]: rutas afectadas {}; {} de {} tests seleccionados",
+                context.getName(), affected.get(), selected.size(), methods.size());
+        return selected;
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!RouteRecorder.isEnabled()) {
+            return;
+        }
+        Map<String, Set<String>> visited = RouteRecorder.snapshot();
+        if (visited.isEmpty()) {
+            return;
+        }
+        ExpressCartRoutes catalog;
+        try {
+            catalog = ExpressCartRoutes.load(ExpressCartRoutes.appDirectory());
+        } catch (IOException e) {
+            log.warn("No se pudo leer el catálogo de rutas de expressCart: {}", e.getMessage());
+            return;
+        }
+
+        Map<String, Object> tests = new TreeMap<>(loadMap());
+        visited.forEach((test, entries) -> {
+            Set<String> routes = stored(tests.get(test), "routes");
+            Set<String> views = stored(tests.get(test), "views");
+            for (String entry : entries) {
+                boolean navigation = entry.startsWith("nav:");
+                catalog.match(entry.substring(entry.indexOf(':') + 1), navigation).ifPresent(route -> {
+                    routes.add(route.getKey());
+                    views.addAll(route.getViews());
+                });
+            }
+            Map<String, Object> coverage = new LinkedHashMap<>();
+            coverage.put("routes", routes);
+            coverage.put("views", views);
+            tests.put(test, coverage);
+        });
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("tests", tests);
+        File file = TestHistory.file(MAP_FILE);
+        file.getParentFile().mkdirs();
+        try {
+            Files.write(file.toPath(), new Json().toJson(document).getBytes(StandardCharsets.UTF_8));
+            log.info("Mapa de cobertura de rutas actualizado en {} ({} tests)", file, visited.size());
+        } catch (IOException e) {
+            log.warn("No se pudo guardar el mapa de cobertura: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rutas afectadas por el diff de expressCart contra una referencia de git
+     * @param base Referencia de git (rama, tag o commit)
+     * @return Claves de las rutas afectadas, o vacío si hay que ejecutar todo
+     */
+    Optional<Set<String>> affectedRoutes(String base) {
+        File appDir = ExpressCartRoutes.appDirectory();
+        try {
+            ExpressCartRoutes catalog = ExpressCartRoutes.load(appDir);
+            Set<String> affected = new TreeSet<>();
+            for (String file : git(appDir, "diff", "--relative", "--name-only", base)) {
+                if (file.isEmpty() || IGNORED_FILES.contains(file)
+                        || IGNORED_PREFIXES.stream().anyMatch(file::startsWith)) {
+                    continue;
+                }
+                if (file.startsWith("routes/") && file.endsWith(".js")) {
+                    for (int line : changedLines(appDir, base, file)) {
+                        Optional<ExpressCartRoutes.Route> route = catalog.routeAtLine(file, line);
+                        if (!route.isPresent()) {
+                            // Cambio fuera de un handler (imports, helpers compartidos...)
+                            return Optional.empty();
+                        }
+                        affected.add(route.get().getKey());
+                    }
+                } else if (file.startsWith("views/") && file.endsWith(".hbs")) {
+                    List<ExpressCartRoutes.Route> routes = catalog.routesRendering(file.substring("views/".length()));
+                    if (routes.isEmpty()) {
+                        // Layouts y parciales se incluyen desde cualquier vista
+                        return Optional.empty();
+                    }
+                    routes.forEach(route -> affected.add(route.getKey()));
+                } else {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(affected);
+        } catch (IOException | InterruptedException e) {
+            log.warn("No se pudo calcular el impacto del diff contra {}: {}", base, e.getMessage());
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Líneas (en la versión actual) modificadas en un fichero respecto a la referencia
+     */
+    private static List<Integer> changedLines(File appDir, String base, String file)
+            throws IOException, InterruptedException {
+        List<Integer> lines = new ArrayList<>();
+        for (String line : git(appDir, "diff", "--relative", "-U0", base, "--", file)) {
+            Matcher hunk = HUNK.matcher(line);
+            if (hunk.find()) {
+                int start = Integer.parseInt(hunk.group(1));
+                int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+                // Un borrado puro (count 0) se atribuye a la línea donde estaba
+                for (int i = 0; i < Math.max(1, count); i++) {
+                    lines.add(Math.max(1, start + i));
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> git(File directory, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(directory).redirectErrorStream(true).start();
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        if (process.waitFor() != 0) {
+            throw new IOException("git " + String.join(" ", args) + " falló: " + output.trim());
+        }
+        return Arrays.asList(output.split("\\R"));
+    }
+
+    /**
+     * Valores guardados de una entrada del mapa (routes o views)
+     */
+    @SuppressWarnings("unchecked")
+    private static Set<String> stored(Object entry, String key) {
+        Object values = entry instanceof Map ? ((Map<String, Object>) entry).get(key) : null;
+        return values instanceof Collection ? new TreeSet<>((Collection<String>) values) : new TreeSet<>();
+    }
+
+    /**
+     * Carga el mapa de cobertura como test a claves de ruta
+     */
+    private static Map<String, Set<String>> loadCoverage() {
+        Map<String, Set<String>> coverage = new TreeMap<>();
+        loadMap().forEach((test, entry) -> coverage.put(test, stored(entry, "routes")));
+        return coverage;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> loadMap() {
+        File file = TestHistory.file(MAP_FILE);
+        if (!file.exists()) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Object> document = new Json().toType(
+                    new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), Map.class);
+            Object tests = document.get("tests");
+            return tests instanceof Map ? (Map<String, Object>) tests : Collections.emptyMap();
+        } catch (IOException | JsonException e) {
+            log.warn("No se pudo leer el mapa de cobertura {}: {}", file, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+}
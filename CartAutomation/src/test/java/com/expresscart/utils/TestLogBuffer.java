@@ -0,0 +1,106 @@
+package com.expresscart.utils;
+
+import org.slf4j.event.Level;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Buffer circular de trazas por hilo de test
+ *
+ * Cada hilo escribe solo en su propio buffer, por lo que no hay bloqueos ni
+ * contención entre tests paralelos. Los mensajes se guardan sin formatear y solo
+ * se formatean al volcarlos, lo que ocurre únicamente cuando un test falla.
+ * Cuando el buffer se llena se descartan las entradas más antiguas.
+ *
+ * El tamaño se configura con la propiedad del sistema log.buffer.size (por defecto 512).
+ */
+public final class TestLogBuffer {
+
+    private static final int CAPACITY = Integer.getInteger("log.buffer.size", 512);
+
+    private static final ThreadLocal<TestLogBuffer> BUFFER = ThreadLocal.withInitial(TestLogBuffer::new);
+
+    private final Entry[] entries = new Entry[CAPACITY];
+    private long written;
+
+    private TestLogBuffer() {
+    }
+
+    /**
+     * Añade una traza al buffer del hilo actual
+     */
+    static void append(Level level, String logger, String pattern, Object[] args, Throwable throwable) {
+        TestLogBuffer buffer = BUFFER.get();
+        buffer.entries[(int) (buffer.written % CAPACITY)] =
+                new Entry(System.currentTimeMillis(), level, logger, pattern, args, throwable);
+        buffer.written++;
+    }
+
+    /**
+     * Descarta las trazas acumuladas en el hilo actual
+     */
+    public static void clear() {
+        TestLogBuffer buffer = BUFFER.get();
+        Arrays.fill(buffer.entries, null);
+        buffer.written = 0;
+    }
+
+    /**
+     * Formatea y devuelve las trazas del hilo actual en orden, vaciando el buffer
+     * @return Líneas de traza formateadas
+     */
+    public static List<String> drain() {
+        TestLogBuffer buffer = BUFFER.get();
+        List<String> lines = new ArrayList<>();
+        long dropped = Math.max(0, buffer.written - CAPACITY);
+        if (dropped > 0) {
+            lines.add("... " + dropped + " trazas anteriores descartadas");
+        }
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
+        for (long i = dropped; i < buffer.written; i++) {
+            lines.add(buffer.entries[(int) (i % CAPACITY)].format(format));
+        }
+        clear();
+        return lines;
+    }
+
+    /**
+     * Traza almacenada sin formatear
+     */
+    private static final class Entry {
+        final long timestamp;
+        final Level level;
+        final String logger;
+        final String pattern;
+        final Object[] args;
+        final Throwable throwable;
+
+        Entry(long timestamp, Level level, String logger, String pattern, Object[] args, Throwable throwable) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.logger = logger;
+            this.pattern = pattern;
+            this.args = args;
+            this.throwable = throwable;
+        }
+
+        String format(SimpleDateFormat format) {
+            String message = MessageFormatter.basicArrayFormat(pattern, args);
+            String line = format.format(new Date(timestamp)) + " " + level + " "
+                    + logger.substring(logger.lastIndexOf('.') + 1) + " - " + message;
+            if (throwable != null) {
+                StringWriter trace = new StringWriter();
+                throwable.printStackTrace(new PrintWriter(trace));
+                line += System.lineSeparator() + trace;
+            }
+            return line;
+        }
+    }
+}
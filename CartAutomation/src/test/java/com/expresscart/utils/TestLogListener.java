@@ -0,0 +1,51 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.util.List;
+
+/**
+ * Listener de TestNG que vuelca el TestLogBuffer al informe solo cuando un test falla
+ *
+ * Las trazas quedan también disponibles como atributo del resultado (TEST_LOG_ATTRIBUTE)
+ * para otros listeners o reporters, y se escriben en un único bloque por SLF4J.
+ */
+public class TestLogListener implements ITestListener {
+
+    public static final String TEST_LOG_ATTRIBUTE = "testLog";
+
+    // Logger de SLF4J y no de TestLogger: el bloque no debe volver al TestLogBuffer
+    private static final Logger log = LoggerFactory.getLogger(TestLogListener.class);
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        List<String> lines = TestLogBuffer.drain();
+        result.setAttribute(TEST_LOG_ATTRIBUTE, lines);
+
+        StringBuilder block = new StringBuilder();
+        for (String line : lines) {
+            Reporter.log(line);
+            block.append(System.lineSeparator()).append(line);
+        }
+        log.info("Trazas de {}:{}", result.getMethod().getQualifiedName(), block);
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        onTestFailure(result);
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        TestLogBuffer.clear();
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        TestLogBuffer.clear();
+    }
+}
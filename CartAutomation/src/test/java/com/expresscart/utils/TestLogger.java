@@ -0,0 +1,132 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.AbstractLogger;
+
+import java.util.Arrays;
+
+/**
+ * Logger SLF4J para los Page Objects y los tests
+ *
+ * Cada traza a partir del nivel log.buffer.level (DEBUG por defecto) se guarda en el
+ * TestLogBuffer del hilo actual sin formatear, y solo se envía al logger real si su
+ * nivel está habilitado (INFO por defecto en simplelogger.properties). Así las
+ * ejecuciones correctas apenas escriben nada y los fallos conservan todo el detalle.
+ */
+public final class TestLogger extends AbstractLogger {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Level BUFFER_LEVEL = Level.valueOf(System.getProperty("log.buffer.level", "DEBUG").toUpperCase());
+
+    private final transient Logger delegate;
+
+    private TestLogger(Logger delegate) {
+        this.name = delegate.getName();
+        this.delegate = delegate;
+    }
+
+    /**
+     * Obtiene un logger que escribe en el buffer del test además de en SLF4J
+     * @param clazz Clase propietaria del logger
+     * @return Logger SLF4J
+     */
+    public static Logger getLogger(Class<?> clazz) {
+        return new TestLogger(LoggerFactory.getLogger(clazz));
+    }
+
+    private boolean isEnabled(Level level) {
+        return level.toInt() >= BUFFER_LEVEL.toInt() || delegate.isEnabledForLevel(level);
+    }
+
+    @Override
+    protected void handleNormalizedLoggingCall(Level level, Marker marker, String messagePattern,
+                                               Object[] arguments, Throwable throwable) {
+        if (level.toInt() >= BUFFER_LEVEL.toInt()) {
+            TestLogBuffer.append(level, name, messagePattern, arguments, throwable);
+        }
+        if (!delegate.isEnabledForLevel(level)) {
+            return;
+        }
+        Object[] delegateArgs = arguments == null ? new Object[0] : arguments;
+        if (throwable != null) {
+            delegateArgs = Arrays.copyOf(delegateArgs, delegateArgs.length + 1);
+            delegateArgs[delegateArgs.length - 1] = throwable;
+        }
+        switch (level) {
+            case ERROR:
+                delegate.error(messagePattern, delegateArgs);
+                break;
+            case WARN:
+                delegate.warn(messagePattern, delegateArgs);
+                break;
+            case INFO:
+                delegate.info(messagePattern, delegateArgs);
+                break;
+            case DEBUG:
+                delegate.debug(messagePattern, delegateArgs);
+                break;
+            default:
+                delegate.trace(messagePattern, delegateArgs);
+                break;
+        }
+    }
+
+    @Override
+    protected String getFullyQualifiedCallerName() {
+        return null;
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return isEnabled(Level.TRACE);
+    }
+
+    @Override
+    public boolean isTraceEnabled(Marker marker) {
+        return isEnabled(Level.TRACE);
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    @Override
+    public boolean isDebugEnabled(Marker marker) {
+        return isEnabled(Level.DEBUG);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return isEnabled(Level.INFO);
+    }
+
+    @Override
+    public boolean isInfoEnabled(Marker marker) {
+        return isEnabled(Level.INFO);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return isEnabled(Level.WARN);
+    }
+
+    @Override
+    public boolean isWarnEnabled(Marker marker) {
+        return isEnabled(Level.WARN);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return isEnabled(Level.ERROR);
+    }
+
+    @Override
+    public boolean isErrorEnabled(Marker marker) {
+        return isEnabled(Level.ERROR);
+    }
+}
@@ -0,0 +1,108 @@
+package com.expresscart.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Perfiles de limitación de red y CPU aplicados mediante emulación de DevTools
+ *
+ * Los nombres se pueden combinar separados por coma en el parámetro "throttling"
+ * de testng.xml, por ejemplo "slow-4g,4x-cpu-slowdown". El perfil "none" no aplica
+ * ninguna limitación.
+ */
+public enum ThrottlingProfile {
+    NONE("none", 0, 0, 0, 1),
+    // Valores de referencia de los perfiles de DevTools/Lighthouse (throughput en kbit/s)
+    REGULAR_3G("3g", 300, 750, 250, 1),
+    SLOW_4G("slow-4g", 150, 1_600, 750, 1),
+    CABLE("cable", 28, 5_000, 1_000, 1),
+    CPU_4X_SLOWDOWN("4x-cpu-slowdown", 0, 0, 0, 4);
+
+    private static final Logger log = TestLogger.getLogger(ThrottlingProfile.class);
+
+    private final String profileName;
+    private final int latencyMs;
+    private final int downloadKbps;
+    private final int uploadKbps;
+    private final int cpuRate;
+
+    ThrottlingProfile(String profileName, int latencyMs, int downloadKbps, int uploadKbps, int cpuRate) {
+        this.profileName = profileName;
+        this.latencyMs = latencyMs;
+        this.downloadKbps = downloadKbps;
+        this.uploadKbps = uploadKbps;
+        this.cpuRate = cpuRate;
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    private boolean throttlesNetwork() {
+        return latencyMs > 0 || downloadKbps > 0 || uploadKbps > 0;
+    }
+
+    /**
+     * Obtiene un perfil por su nombre
+     * @param name Nombre del perfil (ej: "slow-4g")
+     * @return Perfil correspondiente
+     */
+    public static ThrottlingProfile fromName(String name) {
+        String normalized = name.trim().toLowerCase();
+        return Arrays.stream(values())
+                .filter(profile -> profile.profileName.equals(normalized))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Perfil de limitación desconocido: " + name
+                        + ". Valores válidos: " + Arrays.toString(Arrays.stream(values())
+                        .map(ThrottlingProfile::getProfileName).toArray())));
+    }
+
+    /**
+     * Aplica al navegador una combinación de perfiles separados por coma
+     * @param driver WebDriver sobre el que aplicar la emulación
+     * @param profiles Nombres de los perfiles (ej: "slow-4g,4x-cpu-slowdown")
+     */
+    public static void apply(WebDriver driver, String profiles) {
+        if (profiles == null || profiles.trim().isEmpty() || NONE.profileName.equalsIgnoreCase(profiles.trim())) {
+            return;
+        }
+        ThrottlingProfile network = NONE;
+        int cpuRate = 1;
+        for (String name : profiles.split(",")) {
+            ThrottlingProfile profile = fromName(name);
+            if (profile.throttlesNetwork()) {
+                network = profile;
+            }
+            cpuRate = Math.max(cpuRate, profile.cpuRate);
+        }
+
+        if (!(driver instanceof ChromiumDriver)) {
+            log.warn("La limitación '{}' requiere DevTools (chrome/edge); se ignora para {}",
+                    profiles, driver.getClass().getSimpleName());
+            return;
+        }
+        ChromiumDriver chromium = (ChromiumDriver) driver;
+
+        if (network != NONE) {
+            Map<String, Object> conditions = new HashMap<>();
+            conditions.put("offline", false);
+            conditions.put("latency", network.latencyMs);
+            // DevTools espera el throughput en bytes por segundo
+            conditions.put("downloadThroughput", network.downloadKbps * 1024 / 8);
+            conditions.put("uploadThroughput", network.uploadKbps * 1024 / 8);
+            chromium.executeCdpCommand("Network.enable", new HashMap<>());
+            chromium.executeCdpCommand("Network.emulateNetworkConditions", conditions);
+        }
+        if (cpuRate > 1) {
+            Map<String, Object> cpu = new HashMap<>();
+            cpu.put("rate", cpuRate);
+            chromium.executeCdpCommand("Emulation.setCPUThrottlingRate", cpu);
+        }
+        log.info("Limitación aplicada: {}", profiles);
+    }
+}
@@ -0,0 +1,351 @@
+package com.expresscart.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Planificador que ajusta la ejecución a un presupuesto de tiempo de reloj
+ *
+ * Con schedule.budget (ej: "9m", "540s" o "540") se estima el coste de cada test a
+ * partir del histórico (media móvil de su duración, incluidos @BeforeMethod y
+ * @AfterMethod) y se ordenan por prioridad:
+ * 1. Tests que fallaron en su última ejecución, de más barato a más caro
+ * 2. Tests sin histórico
+ * 3. El resto, por valor por segundo: probabilidad histórica de fallo entre coste estimado
+ *
+ * Los tests que caben en el tiempo que queda (menos un margen de seguridad) se ejecutan
+ * en ese orden y el resto se aplazan al final: BaseTest los salta antes de arrancar el
+ * navegador. También se aplaza un test si, al llegar su turno, el tiempo restante ya no
+ * alcanza para su coste estimado. Como TestNG salta los tests que siguen a un
+ * @BeforeMethod saltado, los aplazados siempre se colocan detrás de los planificados.
+ *
+ * Cada test se identifica por su &lt;test&gt; y su método (ej: "Shopping Cart Functionality
+ * Tests [firefox]/com.expresscart.tests.CartFunctionalityTest.testAddToCart"), así que en
+ * la matriz de navegadores cada copia tiene su propio plan, aplazamientos e histórico.
+ *
+ * Las duraciones y resultados se registran siempre en test-history/test-costs.properties,
+ * haya presupuesto o no, y al terminar la suite se escribe el plan en
+ * target/schedule-report.csv.
+ *
+ * Propiedades del sistema:
+ * - schedule.budget: presupuesto de la suite (sin unidad, en segundos)
+ * - schedule.margin: porcentaje del presupuesto reservado como margen (por defecto 10)
+ * - schedule.defaultCost: coste en segundos de los tests sin histórico (por defecto 30)
+ */
+public class TimeBudgetScheduler implements IMethodInterceptor, IInvokedMethodListener, ITestListener, ISuiteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeBudgetScheduler.class);
+
+    private static final String HISTORY_FILE = "test-costs.properties";
+    private static final String REPORT_PATH = "target/schedule-report.csv";
+    // Peso de la última duración en la media móvil
+    private static final double SMOOTHING = 0.3;
+
+    private static final long BUDGET_MILLIS = parseDuration(System.getProperty("schedule.budget"));
+    private static final double MARGIN = Double.parseDouble(System.getProperty("schedule.margin", "10")) / 100.0;
+    private static final long DEFAULT_COST_MILLIS = Long.getLong("schedule.defaultCost", 30) * 1000;
+
+    private static volatile long suiteStartMillis = System.currentTimeMillis();
+    private static final Properties HISTORY = new Properties();
+    private static final Map<String, Planned> PLAN = new ConcurrentHashMap<>();
+    private static final Set<String> DEFERRED = ConcurrentHashMap.newKeySet();
+
+    private static final ThreadLocal<Long> ACCUMULATED = ThreadLocal.withInitial(() -> 0L);
+    private static final ThreadLocal<Long> INVOCATION_START = new ThreadLocal<>();
+
+    /**
+     * Entrada del plan de un test
+     */
+    private static final class Planned {
+        final String name;
+        final long estimateMillis;
+        final String reason;
+        volatile String decision;
+
+        Planned(String name, long estimateMillis, String reason) {
+            this.name = name;
+            this.estimateMillis = estimateMillis;
+            this.reason = reason;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return BUDGET_MILLIS > 0;
+    }
+
+    /**
+     * Decide si un test debe aplazarse. Se llama desde el @BeforeMethod, antes de
+     * arrancar el navegador.
+     * @param context &lt;test&gt; en curso
+     * @param qualifiedName Nombre cualificado del test (clase.método)
+     * @return Motivo del aplazamiento, o null si el test se ejecuta
+     */
+    public static String deferral(ITestContext context, String qualifiedName) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String name = name(context, qualifiedName);
+        Planned planned = PLAN.get(name);
+        if (DEFERRED.contains(name)) {
+            return "no cabe en el presupuesto de " + BUDGET_MILLIS / 1000 + " s";
+        }
+        if (planned != null && planned.estimateMillis > remainingMillis()) {
+            DEFERRED.add(name);
+            planned.decision = "aplazado";
+            return String.format(Locale.ROOT, "quedan %d s y se estiman %d s",
+                    remainingMillis() / 1000, planned.estimateMillis / 1000);
+        }
+        return null;
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteStartMillis = System.currentTimeMillis();
+        synchronized (HISTORY) {
+            HISTORY.clear();
+            HISTORY.putAll(TestHistory.load(HISTORY_FILE));
+        }
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!isEnabled()) {
+            return methods;
+        }
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        ordered.sort(Comparator.<IMethodInstance>comparingInt(instance -> group(name(context, instance.getMethod())))
+                .thenComparingDouble(instance -> orderWithinGroup(name(context, instance.getMethod()))));
+
+        long remaining = remainingMillis();
+        List<IMethodInstance> selected = new ArrayList<>();
+        List<IMethodInstance> deferred = new ArrayList<>();
+        for (IMethodInstance instance : ordered) {
+            String name = name(context, instance.getMethod());
+            long estimate = estimateMillis(name);
+            Planned planned = new Planned(name, estimate, reason(name));
+            PLAN.put(name, planned);
+            if (estimate <= remaining) {
+                remaining -= estimate;
+                planned.decision = "planificado";
+                selected.add(instance);
+            } else {
+                planned.decision = "aplazado";
+                DEFERRED.add(name);
+                deferred.add(instance);
+            }
+        }
+        log.info("Presupuesto [{}]: {} s disponibles, {} tests planificados y {} aplazados",
+                context.getName(), remainingMillis() / 1000, selected.size(), deferred.size());
+        selected.addAll(deferred);
+        return selected;
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        INVOCATION_START.set(System.currentTimeMillis());
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        Long start = INVOCATION_START.get();
+        if (start != null) {
+            ACCUMULATED.set(ACCUMULATED.get() + System.currentTimeMillis() - start);
+        }
+        // El coste de un test va desde su @BeforeMethod hasta el final de su @AfterMethod
+        ITestNGMethod testMethod = method.getTestMethod();
+        if (method.isConfigurationMethod() && testMethod.isAfterMethodConfiguration()) {
+            ITestResult result = testResultOf(testResult);
+            if (result != null) {
+                record(result, ACCUMULATED.get());
+            }
+            ACCUMULATED.remove();
+        }
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        Planned planned = PLAN.get(name(result.getTestContext(), result.getMethod()));
+        if (planned != null && "planificado".equals(planned.decision) && !result.wasRetried()) {
+            // Saltado por TestNG detrás de un test aplazado al llegar su turno
+            planned.decision = "saltado";
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        synchronized (HISTORY) {
+            if (!HISTORY.isEmpty()) {
+                TestHistory.store(HISTORY_FILE, HISTORY, "Coste medio (ms), ejecuciones, fallos y último resultado por test");
+            }
+        }
+        if (!isEnabled() || PLAN.isEmpty()) {
+            return;
+        }
+        List<Planned> plan = new ArrayList<>(PLAN.values());
+        plan.sort(Comparator.comparing(p -> p.name));
+        File report = new File(REPORT_PATH);
+        report.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(report, StandardCharsets.UTF_8)) {
+            out.println("test,estimate_s,priority,decision");
+            for (Planned planned : plan) {
+                out.println(String.format(Locale.ROOT, "%s,%.1f,%s,%s", planned.name,
+                        planned.estimateMillis / 1000.0, planned.reason, planned.decision));
+            }
+        } catch (IOException e) {
+            log.error("Error al escribir el plan de ejecución: {}", e.getMessage());
+        }
+        for (Planned planned : plan) {
+            if (!"planificado".equals(planned.decision)) {
+                String line = String.format(Locale.ROOT, "No ejecutado por presupuesto (%s): %s (coste estimado %.0f s)",
+                        planned.decision, planned.name, planned.estimateMillis / 1000.0);
+                log.warn(line);
+                Reporter.log(line);
+            }
+        }
+        PLAN.clear();
+        DEFERRED.clear();
+    }
+
+    /**
+     * Resultado del test al que pertenece un @AfterMethod (TestNG lo inyecta como parámetro)
+     */
+    private static ITestResult testResultOf(ITestResult configResult) {
+        Object[] parameters = configResult.getParameters();
+        if (parameters != null) {
+            for (Object parameter : parameters) {
+                if (parameter instanceof ITestResult) {
+                    return (ITestResult) parameter;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void record(ITestResult result, long millis) {
+        String name = name(result.getTestContext(), result.getMethod());
+        if (DEFERRED.contains(name) || result.wasRetried()) {
+            // Los aplazados no se han ejecutado; los intentos reintentados se cuentan con el último
+            return;
+        }
+        boolean failed = result.getStatus() == ITestResult.FAILURE;
+        synchronized (HISTORY) {
+            String previous = HISTORY.getProperty(name + ".ms");
+            long average = previous == null ? millis
+                    : Math.round(SMOOTHING * millis + (1 - SMOOTHING) * Long.parseLong(previous));
+            HISTORY.setProperty(name + ".ms", String.valueOf(average));
+            HISTORY.setProperty(name + ".runs", String.valueOf(count(name + ".runs") + 1));
+            HISTORY.setProperty(name + ".failures", String.valueOf(count(name + ".failures") + (failed ? 1 : 0)));
+            HISTORY.setProperty(name + ".last", failed ? "FAIL" : "PASS");
+        }
+    }
+
+    private static long count(String key) {
+        return Long.parseLong(HISTORY.getProperty(key, "0"));
+    }
+
+    private static long estimateMillis(String name) {
+        synchronized (HISTORY) {
+            String average = HISTORY.getProperty(name + ".ms");
+            return average == null ? DEFAULT_COST_MILLIS : Long.parseLong(average);
+        }
+    }
+
+    private static int group(String name) {
+        synchronized (HISTORY) {
+            if ("FAIL".equals(HISTORY.getProperty(name + ".last"))) {
+                return 0;
+            }
+            return HISTORY.getProperty(name + ".ms") == null ? 1 : 2;
+        }
+    }
+
+    /**
+     * Dentro de cada grupo: fallidos y nuevos de más barato a más caro, el resto por
+     * valor por segundo descendente
+     */
+    private static double orderWithinGroup(String name) {
+        double seconds = Math.max(1, estimateMillis(name)) / 1000.0;
+        return group(name) < 2 ? seconds : -failureProbability(name) / seconds;
+    }
+
+    /**
+     * Probabilidad de fallo con suavizado de Laplace, para que los tests que nunca han
+     * fallado conserven algo de valor
+     */
+    private static double failureProbability(String name) {
+        synchronized (HISTORY) {
+            return (count(name + ".failures") + 1.0) / (count(name + ".runs") + 2.0);
+        }
+    }
+
+    private static String reason(String name) {
+        synchronized (HISTORY) {
+            if ("FAIL".equals(HISTORY.getProperty(name + ".last"))) {
+                return "fallo-reciente";
+            }
+            if (HISTORY.getProperty(name + ".ms") == null) {
+                return "sin-historico";
+            }
+        }
+        return String.format(Locale.ROOT, "valor-%.4f/s",
+                failureProbability(name) / (Math.max(1, estimateMillis(name)) / 1000.0));
+    }
+
+    private static long remainingMillis() {
+        long usable = Math.round(BUDGET_MILLIS * (1 - MARGIN));
+        return usable - (System.currentTimeMillis() - suiteStartMillis);
+    }
+
+    private static String name(ITestContext context, ITestNGMethod method) {
+        return name(context, method.getQualifiedName());
+    }
+
+    /**
+     * Clave de un test: &lt;test&gt; (que en la matriz incluye el navegador) y método
+     */
+    private static String name(ITestContext context, String qualifiedName) {
+        return context.getName() + "/" + qualifiedName;
+    }
+
+    /**
+     * Convierte "9m", "540s" o "540" en milisegundos
+     */
+    static long parseDuration(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return 0;
+        }
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        long factor = 1000;
+        if (text.endsWith("m")) {
+            factor = 60_000;
+            text = text.substring(0, text.length() - 1);
+        } else if (text.endsWith("s")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        return Math.round(Double.parseDouble(text.trim()) * factor);
+    }
+}
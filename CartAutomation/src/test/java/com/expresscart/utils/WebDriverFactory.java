@@ -3,11 +3,15 @@ package com.expresscart.utils;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.GeckoDriverService;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
 import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.remote.service.DriverService;
 
 /**
  * Factory para crear instancias de WebDriver según el navegador especificado
@@ -21,7 +25,19 @@ public class WebDriverFactory {
      * @return Instancia de WebDriver configurada
      */
     public static WebDriver createDriver(String browser, boolean headless) {
+        return createDriver(browser, headless, ThrottlingProfile.NONE.getProfileName());
+    }
+
+    /**
+     * Crea una instancia de WebDriver y le aplica los perfiles de limitación indicados
+     * @param browser Navegador a utilizar (chrome, firefox, edge)
+     * @param headless Si se debe ejecutar en modo headless
+     * @param throttling Perfiles de limitación separados por coma (ej: "slow-4g,4x-cpu-slowdown")
+     * @return Instancia de WebDriver configurada
+     */
+    public static WebDriver createDriver(String browser, boolean headless, String throttling) {
         WebDriver driver;
+        DriverService service;
 
         switch (browser.toLowerCase()) {
             case "firefox":
@@ -30,7 +46,10 @@ public class WebDriverFactory {
                 if (headless) {
                     firefoxOptions.addArguments("--headless");
                 }
-                driver = new FirefoxDriver(firefoxOptions);
+                BrowserEvents.configure(firefoxOptions);
+                service = new GeckoDriverService.Builder().usingAnyFreePort()
+                        .withEnvironment(DriverProcessAccountant.environment()).build();
+                driver = new FirefoxDriver((GeckoDriverService) service, firefoxOptions);
                 break;
             case "edge":
                 WebDriverManager.edgedriver().setup();
@@ -38,7 +57,9 @@ public class WebDriverFactory {
                 if (headless) {
                     edgeOptions.addArguments("--headless");
                 }
-                driver = new EdgeDriver(edgeOptions);
+                service = new EdgeDriverService.Builder().usingAnyFreePort()
+                        .withEnvironment(DriverProcessAccountant.environment()).build();
+                driver = new EdgeDriver((EdgeDriverService) service, edgeOptions);
                 break;
             case "chrome":
             default:
@@ -51,12 +72,37 @@ public class WebDriverFactory {
                 chromeOptions.addArguments("--disable-gpu");
                 chromeOptions.addArguments("--no-sandbox");
                 chromeOptions.addArguments("--disable-dev-shm-usage");
-                driver = new ChromeDriver(chromeOptions);
+                service = new ChromeDriverService.Builder().usingAnyFreePort()
+                        .withEnvironment(DriverProcessAccountant.environment()).build();
+                driver = new ChromeDriver((ChromeDriverService) service, chromeOptions);
                 break;
         }
 
+        // El puerto del servicio identifica el proceso del driver; la marca de su entorno
+        // permite eliminarlo si queda huérfano
+        DriverProcessAccountant.track(driver, service.getUrl().getPort(), browser);
+        // Consola, excepciones de JavaScript y respuestas de red, publicadas por DevTools/BiDi
+        BrowserEvents.register(driver, browser);
+
         // Configuración común para todos los navegadores
-        driver.manage().window().maximize();
+        try {
+            if (StaticRendering.isEnabled()) {
+                StaticRendering.apply(driver);
+            } else {
+                driver.manage().window().maximize();
+            }
+            ThrottlingProfile.apply(driver, throttling);
+        } catch (RuntimeException e) {
+            // Sin esto el navegador quedaría abierto: el test nunca recibe el driver
+            try {
+                driver.quit();
+            } catch (RuntimeException quitError) {
+                e.addSuppressed(quitError);
+            } finally {
+                DriverProcessAccountant.release(driver);
+            }
+            throw e;
+        }
         return driver;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.expresscart.utils;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Traductor de expresiones XPath simples a selectores CSS equivalentes.
+ *
+ * Solo acepta el subconjunto de XPath que tiene una traducción exacta a CSS:
+ * pasos descendientes (//) o hijos (/), nombre de etiqueta o *, predicados
+ * sobre atributos (@attr, @attr='v', contains(@attr,'v'), starts-with(@attr,'v'))
+ * y la comprobación de una clase completa
+ * (contains(concat(' ', normalize-space(@class), ' '), ' clase '), que pasa a .clase).
+ * Cualquier otra construcción (ejes como ancestor::, text(), índices, and/or)
+ * se considera no traducible y no se reescribe.
+ */
+public final class XPathToCss {
+
+    private static final Pattern TAG = Pattern.compile("\\*|[A-Za-z][\\w-]*");
+    private static final Pattern ATTR_EXISTS = Pattern.compile("@([\\w-]+)");
+    private static final Pattern ATTR_EQUALS = Pattern.compile("@([\\w-]+)\\s*=\\s*(?:'([^']*)'|\"([^\"]*)\")");
+    private static final Pattern ATTR_FUNCTION = Pattern.compile(
+            "(contains|starts-with)\\(\\s*@([\\w-]+)\\s*,\\s*(?:'([^']*)'|\"([^\"]*)\")\\s*\\)");
+    private static final Pattern CLASS_TOKEN = Pattern.compile(
+            "contains\\(\\s*concat\\(\\s*(['\"]) \\1\\s*,\\s*normalize-space\\(\\s*@class\\s*\\)\\s*,\\s*(['\"]) \\2\\s*\\)"
+            + "\\s*,\\s*(['\"]) (-?[A-Za-z_][\\w-]*) \\3\\s*\\)");
+
+    private XPathToCss() {
+    }
+
+    /**
+     * Traduce una expresión XPath a CSS si la traducción es exacta
+     * @param xpath Expresión XPath original
+     * @param elementContext true si la búsqueda parte de un elemento y no del documento
+     * @return Selector CSS equivalente, o vacío si no se puede traducir con seguridad
+     */
+    public static Optional<String> translate(String xpath, boolean elementContext) {
+        String expression = xpath.trim();
+        boolean relative;
+        int pos;
+        if (expression.startsWith(".//")) {
+            relative = true;
+            pos = 3;
+        } else if (expression.startsWith("//")) {
+            // Un XPath absoluto evaluado desde un elemento recorre todo el documento,
+            // mientras que CSS solo buscaría dentro del elemento
+            if (elementContext) {
+                return Optional.empty();
+            }
+            relative = false;
+            pos = 2;
+        } else {
+            return Optional.empty();
+        }
+
+        StringBuilder css = new StringBuilder();
+        int steps = 0;
+        while (true) {
+            Matcher tag = TAG.matcher(expression).region(pos, expression.length());
+            if (!tag.lookingAt()) {
+                return Optional.empty();
+            }
+            css.append(tag.group());
+            pos = tag.end();
+            steps++;
+
+            while (pos < expression.length() && expression.charAt(pos) == '[') {
+                int close = findPredicateEnd(expression, pos + 1);
+                if (close < 0) {
+                    return Optional.empty();
+                }
+                Optional<String> predicate = translatePredicate(expression.substring(pos + 1, close).trim());
+                if (!predicate.isPresent()) {
+                    return Optional.empty();
+                }
+                css.append(predicate.get());
+                pos = close + 1;
+            }
+
+            if (pos == expression.length()) {
+                break;
+            }
+            if (expression.startsWith("//", pos)) {
+                css.append(' ');
+                pos += 2;
+            } else if (expression.charAt(pos) == '/') {
+                css.append(" > ");
+                pos += 1;
+            } else {
+                return Optional.empty();
+            }
+        }
+
+        // querySelectorAll desde un elemento evalúa el selector completo contra el documento,
+        // por lo que los selectores relativos de varios pasos se anclan con :scope
+        if (relative && steps > 1) {
+            css.insert(0, ":scope ");
+        }
+        return Optional.of(css.toString());
+    }
+
+    /**
+     * Busca el corchete de cierre de un predicado ignorando los que aparecen entre comillas
+     */
+    private static int findPredicateEnd(String expression, int from) {
+        char quote = 0;
+        for (int i = from; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[') {
+                return -1;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Optional<String> translatePredicate(String predicate) {
+        Matcher classToken = CLASS_TOKEN.matcher(predicate);
+        if (classToken.matches()) {
+            return Optional.of("." + classToken.group(4));
+        }
+        Matcher equals = ATTR_EQUALS.matcher(predicate);
+        if (equals.matches()) {
+            return attribute(equals.group(1), "=", value(equals.group(2), equals.group(3)));
+        }
+        Matcher function = ATTR_FUNCTION.matcher(predicate);
+        if (function.matches()) {
+            String operator = "contains".equals(function.group(1)) ? "*=" : "^=";
+            String value = value(function.group(3), function.group(4));
+            // contains(@a, '') es siempre verdadero en XPath, pero [a*=''] nunca coincide en CSS
+            if (value.isEmpty()) {
+                return Optional.empty();
+            }
+            return attribute(function.group(2), operator, value);
+        }
+        Matcher exists = ATTR_EXISTS.matcher(predicate);
+        if (exists.matches()) {
+            return Optional.of("[" + exists.group(1) + "]");
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> attribute(String name, String operator, String value) {
+        if (value.contains("'") || value.contains("\\")) {
+            return Optional.empty();
+        }
+        return Optional.of("[" + name + operator + "'" + value + "']");
+    }
+
+    private static String value(String singleQuoted, String doubleQuoted) {
+        return singleQuoted != null ? singleQuoted : doubleQuoted;
+    }
+}
@@ -0,0 +1,66 @@
+const { getConfig } = require('./config');
+const { initDb } = require('./db');
+const { fixProductDates } = require('../lib/testhelper');
+const fs = require('fs');
+const path = require('path');
+
+// Usage: node lib/benchmarkdata.js <productCount>
+// Seeds a catalog of <productCount> products built from the test data products.
+// The products index is built by lib/indexing.js when the app starts.
+const productCount = parseInt(process.argv[2], 10);
+if(isNaN(productCount) || productCount < 1){
+    console.log('Usage: node lib/benchmarkdata.js <productCount>');
+    process.exit(1);
+}
+
+const batchSize = 5000;
+const testData = fs.readFileSync(path.join(__dirname, '..', 'bin', 'testdata.json'), 'utf-8');
+const jsonData = JSON.parse(testData);
+
+// Every product gets one of the menu categories plus a shared search term
+const categories = jsonData.menu.items.map((item) => item.link.replace('/category/', ''));
+
+const buildProducts = (start, end) => {
+    const products = [];
+    for(let i = start; i < end; i++){
+        const template = jsonData.products[i % jsonData.products.length];
+        products.push(Object.assign({}, template, {
+            productPermalink: `${template.productPermalink}-${i}`,
+            productTitle: `${template.productTitle} ${i}`,
+            productTags: `${template.productTags}, ${categories[i % categories.length]}, benchmark`
+        }));
+    }
+    return fixProductDates(products);
+};
+
+// get config
+const config = getConfig();
+
+initDb(config.databaseConnectionString, async (err, db) => {
+    if(err){
+        process.exit(2);
+    }
+    try{
+        await Promise.all([
+            db.users.deleteMany({}, {}),
+            db.customers.deleteMany({}, {}),
+            db.products.deleteMany({}, {}),
+            db.variants.deleteMany({}, {}),
+            db.menu.deleteMany({}, {}),
+            db.reviews.deleteMany({}, {})
+        ]);
+        await Promise.all([
+            db.users.insertMany(jsonData.users),
+            db.customers.insertMany(jsonData.customers),
+            db.menu.insertOne(jsonData.menu)
+        ]);
+        for(let start = 0; start < productCount; start += batchSize){
+            await db.products.insertMany(buildProducts(start, Math.min(start + batchSize, productCount)), { ordered: false });
+        }
+        console.log(`Benchmark data complete: ${productCount} products`);
+        process.exit();
+    }catch(ex){
+        console.log('Error inserting benchmark data', ex);
+        process.exit(2);
+    }
+});